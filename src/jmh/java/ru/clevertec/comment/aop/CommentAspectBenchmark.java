@@ -0,0 +1,170 @@
+package ru.clevertec.comment.aop;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.aspectj.lang.reflect.SourceLocation;
+import org.aspectj.runtime.internal.AroundClosure;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import ru.clevertec.cache.Cache;
+import ru.clevertec.cache.CacheFactory;
+import ru.clevertec.comment.entity.dto.CommentResponse;
+import ru.clevertec.comment.entity.dto.UserResponse;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Throughput of {@link CommentAspect#get} on cache misses with a simulated database call of
+ * {@value #LOAD_NANOS} nanoseconds, run with 1, 4 and 16 threads. Every call asks for another comment, so with
+ * per-key loading the throughput grows with the number of threads, while a lock held across the load keeps it at
+ * one load per {@value #LOAD_NANOS} nanoseconds whatever the number of threads.
+ * Run with {@code ./gradlew jmh}.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CommentAspectBenchmark {
+
+    private static final long LOAD_NANOS = 200_000;
+    private static final int CACHE_CAPACITY = 1000;
+    private static final UserResponse USER = new UserResponse(UUID.randomUUID(), "Benchmark user");
+
+    private final AtomicLong ids = new AtomicLong();
+    private CommentAspect commentAspect;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        commentAspect = new CommentAspect(new LruCacheFactory());
+    }
+
+    @Benchmark
+    @Threads(1)
+    public CommentResponse missOneThread() throws Throwable {
+        return commentAspect.get(new LoadJoinPoint(ids.incrementAndGet()));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public CommentResponse missFourThreads() throws Throwable {
+        return commentAspect.get(new LoadJoinPoint(ids.incrementAndGet()));
+    }
+
+    @Benchmark
+    @Threads(16)
+    public CommentResponse missSixteenThreads() throws Throwable {
+        return commentAspect.get(new LoadJoinPoint(ids.incrementAndGet()));
+    }
+
+    private static final class LruCacheFactory implements CacheFactory<Long, CommentResponse> {
+
+        @Override
+        public Cache<Long, CommentResponse> createCache() {
+            return new LruCache();
+        }
+    }
+
+    private static final class LruCache implements Cache<Long, CommentResponse> {
+
+        private final Map<Long, CommentResponse> comments = new LinkedHashMap<>(CACHE_CAPACITY, 0.75f, true) {
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CommentResponse> eldest) {
+                return size() > CACHE_CAPACITY;
+            }
+        };
+
+        @Override
+        public CommentResponse get(Long key) {
+            return comments.get(key);
+        }
+
+        @Override
+        public void put(Long key, CommentResponse value) {
+            comments.put(key, value);
+        }
+
+        @Override
+        public void removeByKey(Long key) {
+            comments.remove(key);
+        }
+    }
+
+    private record LoadJoinPoint(Long id) implements ProceedingJoinPoint {
+
+        @Override
+        public Object proceed() {
+            LockSupport.parkNanos(LOAD_NANOS);
+            return new CommentResponse(id, LocalDateTime.now(), "Benchmark comment", USER, 1L);
+        }
+
+        @Override
+        public Object proceed(Object[] args) {
+            return proceed();
+        }
+
+        @Override
+        public void set$AroundClosure(AroundClosure arc) {
+        }
+
+        @Override
+        public Object[] getArgs() {
+            return new Object[]{id};
+        }
+
+        @Override
+        public String toShortString() {
+            return "get(" + id + ")";
+        }
+
+        @Override
+        public String toLongString() {
+            return toShortString();
+        }
+
+        @Override
+        public Object getThis() {
+            return null;
+        }
+
+        @Override
+        public Object getTarget() {
+            return null;
+        }
+
+        @Override
+        public Signature getSignature() {
+            return null;
+        }
+
+        @Override
+        public SourceLocation getSourceLocation() {
+            return null;
+        }
+
+        @Override
+        public String getKind() {
+            return METHOD_EXECUTION;
+        }
+
+        @Override
+        public StaticPart getStaticPart() {
+            return null;
+        }
+    }
+}
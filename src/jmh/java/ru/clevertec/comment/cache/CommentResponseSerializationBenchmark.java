@@ -0,0 +1,87 @@
+package ru.clevertec.comment.cache;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import ru.clevertec.comment.entity.dto.CommentResponse;
+import ru.clevertec.comment.entity.dto.UserResponse;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization and deserialization time of a cached comment with {@link CommentResponseRedisSerializer} and with
+ * the JDK serialization used by default by Spring Data Redis. The size of an entry in bytes is reported by the
+ * {@code bytes} secondary result of the serialization benchmarks.
+ * Run with {@code ./gradlew jmh}.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CommentResponseSerializationBenchmark {
+
+    private static final CommentResponse COMMENT = new CommentResponse(1_234_567L,
+            LocalDateTime.parse("2024-01-16T14:18:08.537"),
+            "A typical comment of about a hundred characters, long enough to show what the text itself costs.",
+            new UserResponse(UUID.fromString("0bdc4d34-af90-4b42-bba6-f588323c87d7"), "Test userName comment"),
+            42L);
+
+    private final RedisSerializer<CommentResponse> binary = new CommentResponseRedisSerializer();
+    private final RedisSerializer<Object> jdk = new JdkSerializationRedisSerializer();
+    private byte[] binaryBytes;
+    private byte[] jdkBytes;
+
+    @Setup
+    public void setUp() {
+        binaryBytes = binary.serialize(COMMENT);
+        jdkBytes = jdk.serialize(COMMENT);
+    }
+
+    @Benchmark
+    public byte[] binarySerialize(EntrySize entrySize) {
+        byte[] bytes = binary.serialize(COMMENT);
+        entrySize.bytes = bytes.length;
+        return bytes;
+    }
+
+    @Benchmark
+    public byte[] jdkSerialize(EntrySize entrySize) {
+        byte[] bytes = jdk.serialize(COMMENT);
+        entrySize.bytes = bytes.length;
+        return bytes;
+    }
+
+    @Benchmark
+    public CommentResponse binaryDeserialize() {
+        return binary.deserialize(binaryBytes);
+    }
+
+    @Benchmark
+    public Object jdkDeserialize() {
+        return jdk.deserialize(jdkBytes);
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class EntrySize {
+
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+        }
+    }
+}
@@ -5,15 +5,25 @@ import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
 import ru.clevertec.cache.Cache;
 import ru.clevertec.cache.CacheFactory;
 import ru.clevertec.comment.entity.dto.CommentResponse;
+import ru.clevertec.comment.event.CommentsArchivedEvent;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Aspect class providing caching functionality for CommentServiceImpl methods.
+ * Concurrent misses for the same comment share a single load: the first caller proceeds to the database and the
+ * others wait for its result, while misses for other comments load in parallel. The lock guarding the cache is only
+ * held for the cache operations themselves, never across a database call. A load started before an update or an
+ * archive of the same comment does not put its result into the cache.
  *
  * @author Sergey Leshkevich
  * @version 1.0
@@ -26,6 +36,7 @@ public class CommentAspect {
     private final CacheFactory<Long, CommentResponse> cacheFactory;
     private final Cache<Long, CommentResponse> cache;
     private final Lock lock;
+    private final ConcurrentMap<Long, CompletableFuture<CommentResponse>> loads;
 
     /**
      * Constructor for CommentAspect.
@@ -36,6 +47,7 @@ public class CommentAspect {
         this.cacheFactory = cacheFactory;
         this.cache = cacheFactory.createCache();
         this.lock = new ReentrantLock();
+        this.loads = new ConcurrentHashMap<>();
     }
 
     /**
@@ -43,17 +55,34 @@ public class CommentAspect {
      */
     @Around("ru.clevertec.comment.aop.CommentPointcut.pointcutGetMethod()")
     public CommentResponse get(ProceedingJoinPoint joinPoint) throws Throwable {
-        lock.lock();
+        Long id = (Long) joinPoint.getArgs()[0];
+        CommentResponse cached = read(id);
+        if (cached != null) {
+            return cached;
+        }
+
+        CompletableFuture<CommentResponse> load = new CompletableFuture<>();
+        CompletableFuture<CommentResponse> running = loads.putIfAbsent(id, load);
+        if (running != null) {
+            return await(running);
+        }
         try {
-            Long id = (Long) joinPoint.getArgs()[0];
-            CommentResponse commentResponse = cache.get(id);
-            if (commentResponse == null) {
-                commentResponse = (CommentResponse) joinPoint.proceed();
+            CommentResponse commentResponse = (CommentResponse) joinPoint.proceed();
+            lock.lock();
+            try {
+                if (loads.get(id) == load) {
+                    cache.put(id, commentResponse);
+                }
+            } finally {
+                lock.unlock();
             }
-            cache.put(commentResponse.id(), commentResponse);
+            load.complete(commentResponse);
             return commentResponse;
+        } catch (Throwable e) {
+            load.completeExceptionally(e);
+            throw e;
         } finally {
-            lock.unlock();
+            loads.remove(id, load);
         }
     }
 
@@ -62,15 +91,9 @@ public class CommentAspect {
      */
     @Around("ru.clevertec.comment.aop.CommentPointcut.pointcutCreateMethod()")
     public CommentResponse create(ProceedingJoinPoint joinPoint) throws Throwable {
-        lock.lock();
-        try {
-            CommentResponse response = (CommentResponse) joinPoint.proceed();
-            Long id = response.id();
-            cache.put(id, response);
-            return response;
-        } finally {
-            lock.unlock();
-        }
+        CommentResponse response = (CommentResponse) joinPoint.proceed();
+        write(response.id(), response);
+        return response;
     }
 
     /**
@@ -78,14 +101,17 @@ public class CommentAspect {
      */
     @Around("ru.clevertec.comment.aop.CommentPointcut.pointcutArchiveMethod()")
     public void archived(ProceedingJoinPoint joinPoint) throws Throwable {
-        lock.lock();
-        try {
-            Long id = (Long) joinPoint.getArgs()[0];
-            joinPoint.proceed();
-            cache.removeByKey(id);
-        } finally {
-            lock.unlock();
-        }
+        Long id = (Long) joinPoint.getArgs()[0];
+        joinPoint.proceed();
+        write(id, null);
+    }
+
+    /**
+     * Removes comments archived in bulk from cache once their transaction commits.
+     */
+    @TransactionalEventListener
+    public void archivedByNewsId(CommentsArchivedEvent event) {
+        event.commentIds().forEach(id -> write(id, null));
     }
 
     /**
@@ -93,15 +119,39 @@ public class CommentAspect {
      */
     @Around("ru.clevertec.comment.aop.CommentPointcut.pointcutUpdateMethod()")
     public CommentResponse patch(ProceedingJoinPoint joinPoint) throws Throwable {
+        Long id = (Long) joinPoint.getArgs()[0];
+        CommentResponse response = (CommentResponse) joinPoint.proceed();
+        write(id, response);
+        return response;
+    }
+
+    private CommentResponse read(Long id) {
         lock.lock();
         try {
-            Long id = (Long) joinPoint.getArgs()[0];
-            CommentResponse response = (CommentResponse) joinPoint.proceed();
+            return cache.get(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void write(Long id, CommentResponse response) {
+        lock.lock();
+        try {
+            loads.remove(id);
             cache.removeByKey(id);
-            cache.put(id, response);
-            return response;
+            if (response != null) {
+                cache.put(id, response);
+            }
         } finally {
             lock.unlock();
         }
     }
+
+    private CommentResponse await(CompletableFuture<CommentResponse> load) throws Throwable {
+        try {
+            return load.get();
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        }
+    }
 }
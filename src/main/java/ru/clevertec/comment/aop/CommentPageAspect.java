@@ -0,0 +1,75 @@
+package ru.clevertec.comment.aop;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import ru.clevertec.cache.Cache;
+import ru.clevertec.cache.CacheFactory;
+import ru.clevertec.comment.cache.NewsVersions;
+import ru.clevertec.comment.entity.dto.CommentResponse;
+import ru.clevertec.comment.util.PaginationResponse;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Aspect class caching the pages of comments of a news returned by CommentServiceImpl.
+ * Pages are keyed by the current version of their news, see {@link NewsVersions}, so a change of any comment
+ * of the news makes all its pages stale at once. The lock guarding the cache is never held across a database call.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@Aspect
+@Component
+@Profile("dev")
+public class CommentPageAspect {
+
+    private final Cache<String, PaginationResponse<CommentResponse>> cache;
+    private final NewsVersions newsVersions;
+    private final Lock lock;
+
+    /**
+     * Constructor for CommentPageAspect.
+     *
+     * @param cacheFactory Factory for creating the cache.
+     * @param newsVersions Version counters of the news.
+     */
+    public CommentPageAspect(CacheFactory<String, PaginationResponse<CommentResponse>> cacheFactory,
+                             NewsVersions newsVersions) {
+        this.cache = cacheFactory.createCache();
+        this.newsVersions = newsVersions;
+        this.lock = new ReentrantLock();
+    }
+
+    /**
+     * Implements cache via AOP for the 'getCommentsByIdNews' method in CommentServiceImpl, providing caching.
+     */
+    @Around("ru.clevertec.comment.aop.CommentPointcut.pointcutGetCommentsByIdNewsMethod()")
+    @SuppressWarnings("unchecked")
+    public PaginationResponse<CommentResponse> getCommentsByIdNews(ProceedingJoinPoint joinPoint) throws Throwable {
+        Object[] args = joinPoint.getArgs();
+        String key = newsVersions.pageKey((Long) args[0], (Integer) args[1], (Integer) args[2]);
+        PaginationResponse<CommentResponse> page;
+        lock.lock();
+        try {
+            page = cache.get(key);
+        } finally {
+            lock.unlock();
+        }
+        if (page != null) {
+            return page;
+        }
+
+        page = (PaginationResponse<CommentResponse>) joinPoint.proceed();
+        lock.lock();
+        try {
+            cache.put(key, page);
+        } finally {
+            lock.unlock();
+        }
+        return page;
+    }
+}
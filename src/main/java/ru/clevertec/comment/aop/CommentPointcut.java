@@ -35,4 +35,10 @@ public class CommentPointcut {
      */
     @Pointcut("execution(* ru.clevertec.comment.service.CommentServiceImpl.archive(..))")
     public void pointcutArchiveMethod() { }
+
+    /**
+     * Pointcut for the 'getCommentsByIdNews' method in CommentServiceImpl.
+     */
+    @Pointcut("execution(* ru.clevertec.comment.service.CommentServiceImpl.getCommentsByIdNews(..))")
+    public void pointcutGetCommentsByIdNewsMethod() { }
 }
@@ -0,0 +1,37 @@
+package ru.clevertec.comment.aop;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import ru.clevertec.comment.datasource.PrimaryReads;
+import ru.clevertec.comment.datasource.ReadFromPrimary;
+
+/**
+ * Aspect sending the reads of the methods marked with {@link ReadFromPrimary} to the primary.
+ * It runs before the transaction and the caching advice, so the hint is in place when the transaction
+ * obtains its connection.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ReadFromPrimaryAspect {
+
+    /**
+     * Runs the marked method with its reads routed to the primary.
+     */
+    @Around("@annotation(ru.clevertec.comment.datasource.ReadFromPrimary)")
+    public Object readFromPrimary(ProceedingJoinPoint joinPoint) throws Throwable {
+        boolean previous = PrimaryReads.enter();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            PrimaryReads.exit(previous);
+        }
+    }
+}
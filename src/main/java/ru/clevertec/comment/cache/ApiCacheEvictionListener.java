@@ -0,0 +1,39 @@
+package ru.clevertec.comment.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.clevertec.comment.event.CommentsArchivedEvent;
+
+/**
+ * Evicts archived comments from the "api-cache" once the archiving transaction commits.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@Component
+@Profile("prod")
+@RequiredArgsConstructor
+public class ApiCacheEvictionListener {
+
+    private static final String API_CACHE = "api-cache";
+
+    private final CacheManager cacheManager;
+
+    /**
+     * Evicts the cache entries of the archived comments.
+     *
+     * @param event the event holding the IDs of the archived comments.
+     */
+    @TransactionalEventListener
+    public void evict(CommentsArchivedEvent event) {
+        Cache cache = cacheManager.getCache(API_CACHE);
+
+        if (cache != null) {
+            event.commentIds().forEach(cache::evict);
+        }
+    }
+}
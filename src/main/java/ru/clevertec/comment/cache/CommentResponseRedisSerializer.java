@@ -0,0 +1,160 @@
+package ru.clevertec.comment.cache;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import ru.clevertec.comment.entity.dto.CommentResponse;
+import ru.clevertec.comment.entity.dto.UserResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+/**
+ * Compact binary Redis serializer of {@link CommentResponse}.
+ * An entry starts with the format version and a bit set of the present fields, followed by the present fields
+ * in declaration order: numbers as zigzag variable-length integers, the time as epoch seconds and nanoseconds,
+ * strings as their UTF-8 length and bytes and the user UUID as two longs. A comment takes a few dozen bytes
+ * besides its text, against several hundred with JDK serialization, which spells out the class descriptors
+ * in every entry. Entries of an unknown version are rejected, so a new format needs a new version and a new
+ * cache key prefix.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+public class CommentResponseRedisSerializer implements RedisSerializer<CommentResponse> {
+
+    private static final byte VERSION = 1;
+    private static final int ID = 1;
+    private static final int TIME = 1 << 1;
+    private static final int TEXT = 1 << 2;
+    private static final int USER = 1 << 3;
+    private static final int NEWS_ID = 1 << 4;
+    private static final int USER_UUID = 1 << 5;
+    private static final int USER_NAME = 1 << 6;
+    private static final int INITIAL_SIZE = 128;
+
+    @Override
+    public byte[] serialize(CommentResponse comment) {
+        if (comment == null) {
+            return null;
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(INITIAL_SIZE);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            UserResponse user = comment.user();
+            out.writeByte(VERSION);
+            out.writeByte(presentFields(comment));
+            if (comment.id() != null) {
+                writeLong(out, comment.id());
+            }
+            if (comment.time() != null) {
+                writeLong(out, comment.time().toEpochSecond(ZoneOffset.UTC));
+                writeLong(out, comment.time().getNano());
+            }
+            if (comment.text() != null) {
+                writeString(out, comment.text());
+            }
+            if (user != null && user.uuid() != null) {
+                out.writeLong(user.uuid().getMostSignificantBits());
+                out.writeLong(user.uuid().getLeastSignificantBits());
+            }
+            if (user != null && user.userName() != null) {
+                writeString(out, user.userName());
+            }
+            if (comment.newsId() != null) {
+                writeLong(out, comment.newsId());
+            }
+        } catch (IOException e) {
+            throw new SerializationException("Cannot serialize comment " + comment.id(), e);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Override
+    public CommentResponse deserialize(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            byte version = in.readByte();
+            if (version != VERSION) {
+                throw new SerializationException("Unsupported comment format version " + version);
+            }
+            int fields = in.readUnsignedByte();
+            Long id = has(fields, ID) ? readLong(in) : null;
+            LocalDateTime time = has(fields, TIME)
+                    ? LocalDateTime.ofEpochSecond(readLong(in), (int) readLong(in), ZoneOffset.UTC)
+                    : null;
+            String text = has(fields, TEXT) ? readString(in) : null;
+            UUID uuid = has(fields, USER_UUID) ? new UUID(in.readLong(), in.readLong()) : null;
+            String userName = has(fields, USER_NAME) ? readString(in) : null;
+            UserResponse user = has(fields, USER) ? new UserResponse(uuid, userName) : null;
+            Long newsId = has(fields, NEWS_ID) ? readLong(in) : null;
+            return new CommentResponse(id, time, text, user, newsId);
+        } catch (IOException e) {
+            throw new SerializationException("Cannot deserialize comment", e);
+        }
+    }
+
+    @Override
+    public Class<?> getTargetType() {
+        return CommentResponse.class;
+    }
+
+    private int presentFields(CommentResponse comment) {
+        UserResponse user = comment.user();
+        int fields = 0;
+        fields |= comment.id() != null ? ID : 0;
+        fields |= comment.time() != null ? TIME : 0;
+        fields |= comment.text() != null ? TEXT : 0;
+        fields |= user != null ? USER : 0;
+        fields |= comment.newsId() != null ? NEWS_ID : 0;
+        fields |= user != null && user.uuid() != null ? USER_UUID : 0;
+        fields |= user != null && user.userName() != null ? USER_NAME : 0;
+        return fields;
+    }
+
+    private boolean has(int fields, int field) {
+        return (fields & field) != 0;
+    }
+
+    private void writeLong(DataOutputStream out, long value) throws IOException {
+        long zigzag = (value << 1) ^ (value >> 63);
+        while ((zigzag & ~0x7FL) != 0) {
+            out.writeByte((int) ((zigzag & 0x7F) | 0x80));
+            zigzag >>>= 7;
+        }
+        out.writeByte((int) zigzag);
+    }
+
+    private long readLong(DataInputStream in) throws IOException {
+        long zigzag = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            int b = in.readUnsignedByte();
+            zigzag |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (zigzag >>> 1) ^ -(zigzag & 1);
+            }
+        }
+        throw new SerializationException("Malformed variable-length integer");
+    }
+
+    private void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        writeLong(out, utf8.length);
+        out.write(utf8);
+    }
+
+    private String readString(DataInputStream in) throws IOException {
+        byte[] utf8 = new byte[(int) readLong(in)];
+        in.readFully(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+}
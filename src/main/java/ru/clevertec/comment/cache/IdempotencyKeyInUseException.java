@@ -0,0 +1,23 @@
+package ru.clevertec.comment.cache;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when a creation waited too long for another creation with the same idempotency key.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class IdempotencyKeyInUseException extends RuntimeException {
+
+    /**
+     * Constructor for IdempotencyKeyInUseException.
+     *
+     * @param key the idempotency key.
+     */
+    public IdempotencyKeyInUseException(String key) {
+        super("A request with the idempotency key " + key + " is still in progress");
+    }
+}
@@ -0,0 +1,28 @@
+package ru.clevertec.comment.cache;
+
+import ru.clevertec.comment.entity.dto.CommentResponse;
+
+import java.util.function.Supplier;
+
+/**
+ * Store of the comments created under an idempotency key, so a retried creation returns the original comment
+ * instead of inserting it again. Keys are remembered for a time to live, after which a creation with the same key
+ * inserts a new comment.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+public interface IdempotencyStore {
+
+    /**
+     * Returns the comment created under the key, or creates it if the key is unknown.
+     * A concurrent creation with the same key waits for the first one instead of running too. A creation that
+     * fails is not remembered, so the key can be retried.
+     *
+     * @param key     the idempotency key.
+     * @param creator the creation of the comment.
+     * @return the comment created under the key.
+     * @throws IdempotencyKeyInUseException if another creation with the key did not finish in time.
+     */
+    CommentResponse computeIfAbsent(String key, Supplier<CommentResponse> creator);
+}
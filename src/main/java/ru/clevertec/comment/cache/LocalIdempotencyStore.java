@@ -0,0 +1,118 @@
+package ru.clevertec.comment.cache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import ru.clevertec.comment.entity.dto.CommentResponse;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * In-process idempotency store, used by the profiles running a single node.
+ * A key maps to the future of its creation: the first request completes it and the concurrent ones wait for it,
+ * like concurrent misses share a load in the comment cache. Keys are also queued in the order they were created,
+ * which is the order they expire in, so expired keys are dropped from the head of the queue, and when the capacity
+ * is reached the oldest keys are evicted before they expire.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@Component
+@Profile("!prod")
+public class LocalIdempotencyStore implements IdempotencyStore {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Queue<Entry> creationOrder = new ConcurrentLinkedQueue<>();
+    private final Duration timeToLive;
+    private final Duration waitTimeout;
+    private final int capacity;
+    private final Clock clock;
+
+    /**
+     * Constructor for LocalIdempotencyStore.
+     *
+     * @param timeToLive  how long a key is remembered.
+     * @param waitTimeout how long a request waits for a concurrent creation with the same key.
+     * @param capacity    the maximum number of remembered keys.
+     */
+    @Autowired
+    public LocalIdempotencyStore(@Value("${comment.idempotency.time-to-live:24h}") Duration timeToLive,
+                                 @Value("${comment.idempotency.wait-timeout:10s}") Duration waitTimeout,
+                                 @Value("${comment.idempotency.capacity:10000}") int capacity) {
+        this(timeToLive, waitTimeout, capacity, Clock.systemUTC());
+    }
+
+    LocalIdempotencyStore(Duration timeToLive, Duration waitTimeout, int capacity, Clock clock) {
+        this.timeToLive = timeToLive;
+        this.waitTimeout = waitTimeout;
+        this.capacity = capacity;
+        this.clock = clock;
+    }
+
+    @Override
+    public CommentResponse computeIfAbsent(String key, Supplier<CommentResponse> creator) {
+        long now = clock.millis();
+        evict(key, now);
+
+        CompletableFuture<CommentResponse> creation = new CompletableFuture<>();
+        Entry entry = entries.compute(key, (k, existing) -> existing == null || existing.expiresAt() < now
+                ? new Entry(key, creation, now + timeToLive.toMillis())
+                : existing);
+        if (entry.creation() != creation) {
+            return await(key, entry.creation());
+        }
+        creationOrder.add(entry);
+
+        try {
+            CommentResponse commentResponse = creator.get();
+            creation.complete(commentResponse);
+            return commentResponse;
+        } catch (RuntimeException e) {
+            entries.remove(key, entry);
+            creationOrder.remove(entry);
+            creation.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Drops the expired keys and, while the store is too full to remember one more key, the oldest ones.
+     */
+    private void evict(String key, long now) {
+        Entry oldest = creationOrder.peek();
+        while (oldest != null
+                && (oldest.expiresAt() < now || entries.size() >= capacity && !entries.containsKey(key))) {
+            if (creationOrder.remove(oldest)) {
+                entries.remove(oldest.key(), oldest);
+            }
+            oldest = creationOrder.peek();
+        }
+    }
+
+    private CommentResponse await(String key, CompletableFuture<CommentResponse> creation) {
+        try {
+            return creation.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw (RuntimeException) e.getCause();
+        } catch (TimeoutException e) {
+            throw new IdempotencyKeyInUseException(key);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyKeyInUseException(key);
+        }
+    }
+
+    private record Entry(String key, CompletableFuture<CommentResponse> creation, long expiresAt) {
+    }
+}
@@ -0,0 +1,32 @@
+package ru.clevertec.comment.cache;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process per-news version counters, used with the in-process cache of the dev profile.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@Profile("dev")
+@Component("newsVersions")
+public class LocalNewsVersions implements NewsVersions {
+
+    private final Map<Long, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    @Override
+    public long current(Long newsId) {
+        AtomicLong version = versions.get(newsId);
+        return version == null ? 0 : version.get();
+    }
+
+    @Override
+    public void increment(Long newsId) {
+        versions.computeIfAbsent(newsId, id -> new AtomicLong()).incrementAndGet();
+    }
+}
@@ -0,0 +1,199 @@
+package ru.clevertec.comment.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Cache keeping a bounded in-process copy (L1) of the entries of a shared cache (L2), such as a Redis cache.
+ * Reads are served from L1 when possible and fall back to L2, filling L1 on the way. Values loaded on a miss through
+ * {@link #get(Object, Callable)} are stored in L2 and L1 without announcing anything, as no node can hold a copy
+ * that they replace, so cached reads are expected to use synchronized caching. {@link #put(Object, Object)} is
+ * the write path: it writes to L2 first, then replaces the local copy and announces the changed key to the other
+ * nodes through the invalidation publisher, which makes them drop their copy. Local copies are keyed by the string
+ * form of the key, as the keys of a Redis cache are, and expire after a time to live, which bounds how long a node
+ * can serve an entry whose invalidation it missed. When the capacity is reached an arbitrary entry is evicted.
+ * Lookups are published as the {@code cache.near.requests} counter tagged with {@code cache}, {@code tier}
+ * (l1 or l2) and {@code result} (hit or miss).
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+public class NearCache implements Cache {
+
+    private final Cache delegate;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final Duration timeToLive;
+    private final Clock clock;
+    private final Consumer<String> invalidationPublisher;
+    private final Counter l1Hits;
+    private final Counter l1Misses;
+    private final Counter l2Hits;
+    private final Counter l2Misses;
+
+    /**
+     * Constructor for NearCache.
+     *
+     * @param delegate              the shared cache.
+     * @param maxSize               the maximum number of entries kept in process.
+     * @param timeToLive            how long an entry is kept in process.
+     * @param clock                 the clock the entries expire by.
+     * @param invalidationPublisher the publisher announcing a changed key to the other nodes, null for a clear.
+     * @param meterRegistry         the registry to publish the cache metrics to.
+     */
+    public NearCache(Cache delegate, int maxSize, Duration timeToLive, Clock clock,
+                     Consumer<String> invalidationPublisher, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.maxSize = maxSize;
+        this.timeToLive = timeToLive;
+        this.clock = clock;
+        this.invalidationPublisher = invalidationPublisher;
+        this.l1Hits = requests(meterRegistry, "l1", "hit");
+        this.l1Misses = requests(meterRegistry, "l1", "miss");
+        this.l2Hits = requests(meterRegistry, "l2", "hit");
+        this.l2Misses = requests(meterRegistry, "l2", "miss");
+        Gauge.builder("cache.near.size", entries, Map::size)
+                .tag("cache", delegate.getName())
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper local = getLocal(key);
+        if (local != null) {
+            return local;
+        }
+
+        ValueWrapper shared = delegate.get(key);
+        if (shared == null) {
+            l2Misses.increment();
+            return null;
+        }
+        l2Hits.increment();
+        putLocal(key, shared);
+        return shared;
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper valueWrapper = get(key);
+        Object value = valueWrapper == null ? null : valueWrapper.get();
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return type == null ? null : type.cast(value);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper local = getLocal(key);
+        if (local != null) {
+            return (T) local.get();
+        }
+
+        AtomicBoolean loaded = new AtomicBoolean();
+        T value = delegate.get(key, () -> {
+            loaded.set(true);
+            return valueLoader.call();
+        });
+        (loaded.get() ? l2Misses : l2Hits).increment();
+        putLocal(key, new SimpleValueWrapper(value));
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+        putLocal(key, new SimpleValueWrapper(value));
+        invalidationPublisher.accept(localKey(key));
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+        entries.remove(localKey(key));
+        invalidationPublisher.accept(localKey(key));
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+        entries.clear();
+        invalidationPublisher.accept(null);
+    }
+
+    /**
+     * Drops the local copy of an entry changed on another node.
+     *
+     * @param key the string form of the key of the changed entry, or null if the whole cache was cleared.
+     */
+    public void invalidateLocal(String key) {
+        if (key == null) {
+            entries.clear();
+        } else {
+            entries.remove(key);
+        }
+    }
+
+    private ValueWrapper getLocal(Object key) {
+        Entry entry = entries.get(localKey(key));
+        if (entry == null || entry.expiresAt() < clock.millis()) {
+            if (entry != null) {
+                entries.remove(localKey(key), entry);
+            }
+            l1Misses.increment();
+            return null;
+        }
+        l1Hits.increment();
+        return entry.value();
+    }
+
+    private void putLocal(Object key, ValueWrapper value) {
+        String localKey = localKey(key);
+        if (entries.size() >= maxSize && !entries.containsKey(localKey)) {
+            Iterator<String> iterator = entries.keySet().iterator();
+            if (iterator.hasNext()) {
+                entries.remove(iterator.next());
+            }
+        }
+        entries.put(localKey, new Entry(value, clock.millis() + timeToLive.toMillis()));
+    }
+
+    private String localKey(Object key) {
+        return String.valueOf(key);
+    }
+
+    private Counter requests(MeterRegistry meterRegistry, String tier, String result) {
+        return Counter.builder("cache.near.requests")
+                .tag("cache", delegate.getName())
+                .tag("tier", tier)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private record Entry(ValueWrapper value, long expiresAt) {
+    }
+}
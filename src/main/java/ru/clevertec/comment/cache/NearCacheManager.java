@@ -0,0 +1,98 @@
+package ru.clevertec.comment.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Cache manager putting a {@link NearCache} in front of every cache of a shared cache manager.
+ * Changed keys are announced to the other nodes as messages of the form {@code node|cache|key} through the
+ * message publisher, a Redis pub/sub channel in production, and the messages of the other nodes are applied by
+ * {@link #onInvalidation(String)}. A node ignores its own messages, its copy is already up to date.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+public class NearCacheManager implements CacheManager {
+
+    private static final String SEPARATOR = "|";
+
+    private final CacheManager delegate;
+    private final Consumer<String> messagePublisher;
+    private final MeterRegistry meterRegistry;
+    private final int maxSize;
+    private final Duration timeToLive;
+    private final Clock clock;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, NearCache> caches = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor for NearCacheManager.
+     *
+     * @param delegate         the manager of the shared caches.
+     * @param messagePublisher the publisher sending invalidation messages to the other nodes.
+     * @param meterRegistry    the registry to publish the cache metrics to.
+     * @param maxSize          the maximum number of entries kept in process by every cache.
+     * @param timeToLive       how long an entry is kept in process.
+     * @param clock            the clock the entries expire by.
+     */
+    public NearCacheManager(CacheManager delegate, Consumer<String> messagePublisher, MeterRegistry meterRegistry,
+                            int maxSize, Duration timeToLive, Clock clock) {
+        this.delegate = delegate;
+        this.messagePublisher = messagePublisher;
+        this.meterRegistry = meterRegistry;
+        this.maxSize = maxSize;
+        this.timeToLive = timeToLive;
+        this.clock = clock;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        NearCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+
+        Cache shared = delegate.getCache(name);
+        if (shared == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, cacheName -> new NearCache(shared, maxSize, timeToLive, clock,
+                key -> publish(cacheName, key), meterRegistry));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+
+    /**
+     * Drops the local copy of an entry changed on another node.
+     *
+     * @param message the invalidation message.
+     */
+    public void onInvalidation(String message) {
+        String[] parts = message.split("\\" + SEPARATOR, 3);
+        if (parts.length < 2 || parts[0].equals(nodeId)) {
+            return;
+        }
+
+        NearCache cache = caches.get(parts[1]);
+        if (cache != null) {
+            cache.invalidateLocal(parts.length == 3 ? parts[2] : null);
+        }
+    }
+
+    private void publish(String cacheName, String key) {
+        String message = nodeId + SEPARATOR + cacheName;
+        messagePublisher.accept(key == null ? message : message + SEPARATOR + key);
+    }
+}
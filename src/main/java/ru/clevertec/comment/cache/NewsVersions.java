@@ -0,0 +1,39 @@
+package ru.clevertec.comment.cache;
+
+/**
+ * Per-news version counters the cached comment pages are keyed by.
+ * Moving the version of a news forward makes all its cached pages unreachable at once, without looking them up,
+ * the stale pages are then evicted by the capacity or the time to live of the cache.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+public interface NewsVersions {
+
+    /**
+     * Returns the current version of the comments of a news.
+     *
+     * @param newsId the ID of the news.
+     * @return the current version.
+     */
+    long current(Long newsId);
+
+    /**
+     * Moves the version of the comments of a news forward.
+     *
+     * @param newsId the ID of the news.
+     */
+    void increment(Long newsId);
+
+    /**
+     * Builds the cache key of a page of the comments of a news at its current version.
+     *
+     * @param newsId     the ID of the news.
+     * @param pageSize   the number of comments per page.
+     * @param numberPage the page number.
+     * @return the cache key.
+     */
+    default String pageKey(Long newsId, int pageSize, int numberPage) {
+        return newsId + ":" + current(newsId) + ":" + pageSize + ":" + numberPage;
+    }
+}
@@ -0,0 +1,43 @@
+package ru.clevertec.comment.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.clevertec.comment.event.CommentsArchivedEvent;
+import ru.clevertec.comment.event.NewsCommentsChangedEvent;
+
+/**
+ * Moves the version of a news forward once a transaction changing its comments commits.
+ * Doing it after the commit keeps a page read during the transaction from being cached at the new version.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@Component
+@Profile({"dev", "prod"})
+@RequiredArgsConstructor
+public class NewsVersionsListener {
+
+    private final NewsVersions newsVersions;
+
+    /**
+     * Invalidates the cached pages of the news whose comments changed.
+     *
+     * @param event the event holding the ID of the news.
+     */
+    @TransactionalEventListener
+    public void changed(NewsCommentsChangedEvent event) {
+        newsVersions.increment(event.newsId());
+    }
+
+    /**
+     * Invalidates the cached pages of the news whose comments were archived in bulk.
+     *
+     * @param event the event holding the ID of the news.
+     */
+    @TransactionalEventListener
+    public void archived(CommentsArchivedEvent event) {
+        newsVersions.increment(event.newsId());
+    }
+}
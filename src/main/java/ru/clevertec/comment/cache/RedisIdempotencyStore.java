@@ -0,0 +1,113 @@
+package ru.clevertec.comment.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+import ru.clevertec.comment.entity.dto.CommentResponse;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency store kept in Redis, so a retry reaching another node still finds the original comment.
+ * The creation under a key is guarded by a lock key taken with {@code SET NX}. Its value is a random token of the
+ * owner, so the lock is released by a script deleting it only while it still holds that token, and it expires
+ * after the lock timeout, which is kept well above the longest creation, so a node dying mid-creation does not
+ * block the key for good. The created comment is stored in the compact binary format for the time to live.
+ * A request finding the lock taken polls for the comment until the wait timeout passes.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@Component
+@Profile("prod")
+public class RedisIdempotencyStore implements IdempotencyStore {
+
+    private static final String KEY_PREFIX = "comment-idempotency::";
+    private static final String LOCK_PREFIX = "comment-idempotency-lock::";
+    private static final long POLL_INTERVAL_MILLIS = 50;
+    private static final RedisScript<Long> RELEASE_LOCK = new DefaultRedisScript<>("""
+            if redis.call('get', KEYS[1]) == ARGV[1] then
+                return redis.call('del', KEYS[1])
+            end
+            return 0""", Long.class);
+
+    private final RedisTemplate<String, CommentResponse> responses;
+    private final StringRedisTemplate locks;
+    private final Duration timeToLive;
+    private final Duration waitTimeout;
+    private final Duration lockTimeout;
+
+    /**
+     * Constructor for RedisIdempotencyStore.
+     *
+     * @param connectionFactory the factory of Redis connections.
+     * @param timeToLive        how long a key is remembered.
+     * @param waitTimeout       how long a request waits for a concurrent creation with the same key.
+     * @param lockTimeout       how long the lock of a creation is kept if its node dies before releasing it.
+     */
+    public RedisIdempotencyStore(RedisConnectionFactory connectionFactory,
+                                 @Value("${comment.idempotency.time-to-live:24h}") Duration timeToLive,
+                                 @Value("${comment.idempotency.wait-timeout:10s}") Duration waitTimeout,
+                                 @Value("${comment.idempotency.lock-timeout:5m}") Duration lockTimeout) {
+        this.responses = new RedisTemplate<>();
+        this.responses.setConnectionFactory(connectionFactory);
+        this.responses.setKeySerializer(RedisSerializer.string());
+        this.responses.setValueSerializer(new CommentResponseRedisSerializer());
+        this.responses.afterPropertiesSet();
+        this.locks = new StringRedisTemplate(connectionFactory);
+        this.timeToLive = timeToLive;
+        this.waitTimeout = waitTimeout;
+        this.lockTimeout = lockTimeout;
+    }
+
+    @Override
+    public CommentResponse computeIfAbsent(String key, Supplier<CommentResponse> creator) {
+        long deadline = System.nanoTime() + waitTimeout.toNanos();
+        String token = UUID.randomUUID().toString();
+        while (true) {
+            CommentResponse created = responses.opsForValue().get(KEY_PREFIX + key);
+            if (created != null) {
+                return created;
+            }
+            if (Boolean.TRUE.equals(locks.opsForValue().setIfAbsent(LOCK_PREFIX + key, token, lockTimeout))) {
+                return create(key, token, creator);
+            }
+            if (System.nanoTime() > deadline) {
+                throw new IdempotencyKeyInUseException(key);
+            }
+            sleep(key);
+        }
+    }
+
+    private CommentResponse create(String key, String token, Supplier<CommentResponse> creator) {
+        try {
+            CommentResponse created = responses.opsForValue().get(KEY_PREFIX + key);
+            if (created != null) {
+                return created;
+            }
+            CommentResponse commentResponse = creator.get();
+            responses.opsForValue().set(KEY_PREFIX + key, commentResponse, timeToLive);
+            return commentResponse;
+        } finally {
+            locks.execute(RELEASE_LOCK, List.of(LOCK_PREFIX + key), token);
+        }
+    }
+
+    private void sleep(String key) {
+        try {
+            Thread.sleep(POLL_INTERVAL_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyKeyInUseException(key);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package ru.clevertec.comment.cache;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-news version counters kept in Redis, so every node reads the pages of a news at the same version.
+ * A version is a single key moved forward with {@code INCR}, a missing key is version zero.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@Profile("prod")
+@Component("newsVersions")
+public class RedisNewsVersions implements NewsVersions {
+
+    private static final String KEY_PREFIX = "news-comment-version::";
+
+    private final StringRedisTemplate redisTemplate;
+
+    /**
+     * Constructor for RedisNewsVersions.
+     *
+     * @param connectionFactory the factory of Redis connections.
+     */
+    public RedisNewsVersions(RedisConnectionFactory connectionFactory) {
+        this.redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @Override
+    public long current(Long newsId) {
+        String version = redisTemplate.opsForValue().get(KEY_PREFIX + newsId);
+        return version == null ? 0 : Long.parseLong(version);
+    }
+
+    @Override
+    public void increment(Long newsId) {
+        redisTemplate.opsForValue().increment(KEY_PREFIX + newsId);
+    }
+}
@@ -0,0 +1,151 @@
+package ru.clevertec.comment.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.clevertec.comment.entity.dto.CommentResponse;
+import ru.clevertec.comment.search.IndexingProgress;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Bounded in-process cache of search result pages.
+ * Pages are keyed by the normalized search value, the news ID, the offset and the limit, and tagged with the
+ * generation of the local search index they were read from. The generation is moved forward by
+ * {@link #invalidate()} every time a change is committed to the index, after which older pages are treated as
+ * misses and dropped. Nothing is cached while the index is being rebuilt. When the capacity is reached an
+ * arbitrary entry is evicted.
+ * Lookups are published as the {@code search.cache.requests} counter tagged with {@code result} (hit, miss or
+ * stale), the age of the served pages as the {@code search.cache.hit.age} timer and the generation as the
+ * {@code search.cache.generation} gauge.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@Component
+public class SearchResultCache {
+
+    private static final Pattern WHITESPACES = Pattern.compile("\\s+");
+
+    private final Map<Key, Entry> pages = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final int capacity;
+    private final IndexingProgress indexingProgress;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter staleHits;
+    private final Timer hitAge;
+
+    /**
+     * Constructor for SearchResultCache.
+     *
+     * @param capacity         the maximum number of cached pages, zero disables the cache.
+     * @param indexingProgress the progress of the mass indexing, pages are not cached while it is running.
+     * @param meterRegistry    the registry to publish the cache metrics to.
+     */
+    public SearchResultCache(@Value("${comment.search.cache.capacity:1000}") int capacity,
+                             IndexingProgress indexingProgress,
+                             MeterRegistry meterRegistry) {
+        this.capacity = capacity;
+        this.indexingProgress = indexingProgress;
+        this.hits = Counter.builder("search.cache.requests")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("search.cache.requests")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.staleHits = Counter.builder("search.cache.requests")
+                .tag("result", "stale")
+                .register(meterRegistry);
+        this.hitAge = Timer.builder("search.cache.hit.age")
+                .register(meterRegistry);
+        Gauge.builder("search.cache.size", pages, Map::size)
+                .register(meterRegistry);
+        Gauge.builder("search.cache.hit.ratio", this, SearchResultCache::hitRatio)
+                .register(meterRegistry);
+        Gauge.builder("search.cache.generation", generation, AtomicLong::get)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached page of the search or runs the search and caches its page.
+     * The page is not cached if the index changed while the search was running.
+     *
+     * @param searchValue the search value.
+     * @param newsId      the ID of the news searched in, or null.
+     * @param offset      the offset of the page.
+     * @param limit       the size of the page.
+     * @param search      the search producing the page on a miss.
+     * @return the page of search results.
+     */
+    public List<CommentResponse> get(String searchValue, Long newsId, int offset, int limit,
+                                     Supplier<List<CommentResponse>> search) {
+        if (capacity <= 0) {
+            return search.get();
+        }
+        Key key = new Key(normalize(searchValue), newsId, offset, limit);
+        long currentGeneration = generation.get();
+        Entry entry = pages.get(key);
+
+        if (entry != null && entry.generation() == currentGeneration) {
+            hits.increment();
+            hitAge.record(Duration.ofNanos(System.nanoTime() - entry.createdAt()));
+            return entry.comments();
+        }
+        if (entry != null) {
+            staleHits.increment();
+            pages.remove(key, entry);
+        } else {
+            misses.increment();
+        }
+
+        List<CommentResponse> comments = List.copyOf(search.get());
+        if (generation.get() == currentGeneration && indexingProgress.getState() != IndexingProgress.State.RUNNING) {
+            put(key, new Entry(currentGeneration, System.nanoTime(), comments));
+        }
+        return comments;
+    }
+
+    /**
+     * Moves the index generation forward, so every cached page is stale.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+    }
+
+    private void put(Key key, Entry entry) {
+        if (pages.size() >= capacity && !pages.containsKey(key)) {
+            Iterator<Key> iterator = pages.keySet().iterator();
+            if (iterator.hasNext()) {
+                pages.remove(iterator.next());
+            }
+        }
+        pages.put(key, entry);
+    }
+
+    private String normalize(String searchValue) {
+        return WHITESPACES.matcher(searchValue.strip()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    private double hitRatio() {
+        double requests = hits.count() + misses.count() + staleHits.count();
+        return requests == 0 ? 0 : hits.count() / requests;
+    }
+
+    private record Key(String searchValue, Long newsId, int offset, int limit) {
+    }
+
+    private record Entry(long generation, long createdAt, List<CommentResponse> comments) {
+    }
+}
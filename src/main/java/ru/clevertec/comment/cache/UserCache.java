@@ -0,0 +1,94 @@
+package ru.clevertec.comment.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.clevertec.comment.entity.User;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded in-process cache of users by their UUID.
+ * Only the user ID and name are kept, every lookup returns a new detached {@link User}, so callers
+ * can link comments to the user without touching the users table. When the capacity is reached an
+ * arbitrary entry is evicted, which is enough for the "repeat commenter" access pattern.
+ * Hits and misses are published as the {@code user.cache.requests} counter tagged with {@code result}.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@Component
+public class UserCache {
+
+    private final Map<UUID, CachedUser> users = new ConcurrentHashMap<>();
+    private final int capacity;
+    private final Counter hits;
+    private final Counter misses;
+
+    /**
+     * Constructor for UserCache.
+     *
+     * @param capacity      the maximum number of cached users.
+     * @param meterRegistry the registry to publish the cache metrics to.
+     */
+    public UserCache(@Value("${user.cache.capacity:10000}") int capacity, MeterRegistry meterRegistry) {
+        this.capacity = capacity;
+        this.hits = Counter.builder("user.cache.requests")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("user.cache.requests")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("user.cache.size", users, Map::size)
+                .register(meterRegistry);
+        Gauge.builder("user.cache.hit.ratio", this, UserCache::hitRatio)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Finds a cached user by UUID.
+     *
+     * @param uuid the UUID of the user.
+     * @return an Optional containing a detached copy of the user or an empty Optional if it is not cached.
+     */
+    public Optional<User> get(UUID uuid) {
+        CachedUser cachedUser = users.get(uuid);
+
+        if (cachedUser == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+
+        hits.increment();
+        return Optional.of(new User(cachedUser.id(), uuid, cachedUser.userName()));
+    }
+
+    /**
+     * Caches the user, evicting another entry if the cache is full.
+     *
+     * @param user the persisted user.
+     */
+    public void put(User user) {
+        if (users.size() >= capacity && !users.containsKey(user.getUuid())) {
+            Iterator<UUID> iterator = users.keySet().iterator();
+            if (iterator.hasNext()) {
+                users.remove(iterator.next());
+            }
+        }
+        users.put(user.getUuid(), new CachedUser(user.getId(), user.getUserName()));
+    }
+
+    private double hitRatio() {
+        double requests = hits.count() + misses.count();
+        return requests == 0 ? 0 : hits.count() / requests;
+    }
+
+    private record CachedUser(Long id, String userName) {
+    }
+}
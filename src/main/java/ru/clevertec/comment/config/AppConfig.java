@@ -3,9 +3,11 @@ package ru.clevertec.comment.config;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import ru.clevertec.exceptionhandlerstarter.handler.NewsManagementSystemExceptionHandler;
 
 @Configuration
+@EnableScheduling
 public class AppConfig {
 
     @Bean
@@ -0,0 +1,58 @@
+package ru.clevertec.comment.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Settings of the Redis caches bound from {@code comment.cache.redis}, by cache name.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@Data
+@ConfigurationProperties("comment.cache.redis")
+public class RedisCacheProperties {
+
+    /**
+     * Settings of the caches by cache name.
+     */
+    private Map<String, CacheSettings> caches = new LinkedHashMap<>();
+
+    @Data
+    public static class CacheSettings {
+
+        /**
+         * Time to live of the entries. If not set, the default of the cache, which is unlimited except for the
+         * version-keyed comment pages, whose stale versions are never read again.
+         */
+        private Duration timeToLive;
+
+        /**
+         * Prefix of the Redis keys of the entries. If not set, the cache name followed by "::", or by ":v1::"
+         * for the binary format, so binary entries never meet entries written by JDK serialization.
+         */
+        private String keyPrefix;
+
+        /**
+         * Format of the cached values, the default format of the cache if not set.
+         */
+        private ValueFormat valueFormat;
+    }
+
+    public enum ValueFormat {
+
+        /**
+         * Compact binary encoding of {@code CommentResponse}.
+         */
+        BINARY,
+
+        /**
+         * JDK serialization, the Spring Data Redis default.
+         */
+        JDK
+    }
+}
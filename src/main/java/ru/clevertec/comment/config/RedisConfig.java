@@ -1,6 +1,8 @@
 package ru.clevertec.comment.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -11,28 +13,102 @@ import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import ru.clevertec.comment.cache.CommentResponseRedisSerializer;
+import ru.clevertec.comment.cache.NearCacheManager;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
+import java.util.stream.Stream;
 
 
 @Configuration
 @EnableCaching
+@EnableConfigurationProperties(RedisCacheProperties.class)
 @Profile("prod")
 @PropertySource("classpath:bootstrap-prod.yaml")
 public class RedisConfig {
 
+    private static final Map<String, RedisCacheProperties.ValueFormat> DEFAULT_VALUE_FORMATS =
+            Map.of("api-cache", RedisCacheProperties.ValueFormat.BINARY);
+    private static final Map<String, Duration> DEFAULT_TIMES_TO_LIVE =
+            Map.of("news-comment-pages", Duration.ofMinutes(10));
+    private static final String BINARY_KEY_SEPARATOR = ":v1::";
+
 //    @Value("${spring.data.redis.host}")
 //    private String host;
 //
 //    @Value("${spring.data.redis.port}")
 //    private int port;
 
+    @Value("${comment.cache.near.channel:comment-service:cache-invalidation}")
+    private String invalidationChannel;
+
     @Bean
-    public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory) {
-        return RedisCacheManager.builder(connectionFactory)
-                .initialCacheNames(Set.of("api-cache"))
+    public NearCacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                         RedisCacheProperties cacheProperties,
+                                         MeterRegistry meterRegistry,
+                                         @Value("${comment.cache.near.max-size:10000}") int maxSize,
+                                         @Value("${comment.cache.near.time-to-live:60s}") Duration timeToLive) {
+        Map<String, RedisCacheConfiguration> cacheConfigurations = new HashMap<>();
+        Stream.of(DEFAULT_VALUE_FORMATS.keySet(), DEFAULT_TIMES_TO_LIVE.keySet(), cacheProperties.getCaches().keySet())
+                .flatMap(Set::stream)
+                .distinct()
+                .forEach(cacheName -> cacheConfigurations.put(cacheName,
+                        cacheConfiguration(cacheName, cacheProperties.getCaches().get(cacheName))));
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
                 .cacheDefaults(RedisCacheConfiguration.defaultCacheConfig())
+                .withInitialCacheConfigurations(cacheConfigurations)
                 .build();
+        redisCacheManager.afterPropertiesSet();
+        StringRedisTemplate stringRedisTemplate = new StringRedisTemplate(connectionFactory);
+        return new NearCacheManager(redisCacheManager,
+                message -> stringRedisTemplate.convertAndSend(invalidationChannel, message),
+                meterRegistry, maxSize, timeToLive, Clock.systemUTC());
+    }
+
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                            NearCacheManager cacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener((message, pattern) ->
+                        cacheManager.onInvalidation(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(invalidationChannel));
+        return container;
+    }
+
+    private RedisCacheConfiguration cacheConfiguration(String cacheName,
+                                                       RedisCacheProperties.CacheSettings cacheSettings) {
+        RedisCacheConfiguration cacheConfiguration = RedisCacheConfiguration.defaultCacheConfig();
+        RedisCacheProperties.ValueFormat valueFormat = cacheSettings != null && cacheSettings.getValueFormat() != null
+                ? cacheSettings.getValueFormat()
+                : DEFAULT_VALUE_FORMATS.getOrDefault(cacheName, RedisCacheProperties.ValueFormat.JDK);
+        if (valueFormat == RedisCacheProperties.ValueFormat.BINARY) {
+            cacheConfiguration = cacheConfiguration
+                    .disableCachingNullValues()
+                    .computePrefixWith(name -> name + BINARY_KEY_SEPARATOR)
+                    .serializeValuesWith(RedisSerializationContext.SerializationPair
+                            .fromSerializer(new CommentResponseRedisSerializer()));
+        }
+        Duration timeToLive = cacheSettings != null && cacheSettings.getTimeToLive() != null
+                ? cacheSettings.getTimeToLive()
+                : DEFAULT_TIMES_TO_LIVE.get(cacheName);
+        if (timeToLive != null) {
+            cacheConfiguration = cacheConfiguration.entryTtl(timeToLive);
+        }
+        if (cacheSettings != null && cacheSettings.getKeyPrefix() != null) {
+            String keyPrefix = cacheSettings.getKeyPrefix();
+            cacheConfiguration = cacheConfiguration.computePrefixWith(name -> keyPrefix);
+        }
+        return cacheConfiguration;
     }
 
     @Bean
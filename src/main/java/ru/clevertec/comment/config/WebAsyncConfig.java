@@ -0,0 +1,54 @@
+package ru.clevertec.comment.config;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+/**
+ * Configures the asynchronous requests of Spring MVC, which serve the streaming comment export.
+ * Without it an export inherits the async timeout of the servlet container, 30 seconds on Tomcat, and a large
+ * thread is cut off mid-stream. The export runs on its own executor, so long exports do not take the threads
+ * of the application task executor, and may take up to {@code comment.export.timeout}. The executor is not
+ * exposed as a bean, as any executor bean would replace the auto-configured application task executor.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@Configuration
+public class WebAsyncConfig implements WebMvcConfigurer, DisposableBean {
+
+    private final Duration exportTimeout;
+    private final ThreadPoolTaskExecutor exportTaskExecutor;
+
+    /**
+     * Constructor for WebAsyncConfig.
+     *
+     * @param exportTimeout how long an export may stream before it is cut off.
+     * @param exportThreads the number of exports streaming at the same time.
+     */
+    public WebAsyncConfig(@Value("${comment.export.timeout:1h}") Duration exportTimeout,
+                          @Value("${comment.export.threads:4}") int exportThreads) {
+        this.exportTimeout = exportTimeout;
+        this.exportTaskExecutor = new ThreadPoolTaskExecutor();
+        this.exportTaskExecutor.setThreadNamePrefix("comment-export-");
+        this.exportTaskExecutor.setCorePoolSize(exportThreads);
+        this.exportTaskExecutor.setMaxPoolSize(exportThreads);
+        this.exportTaskExecutor.initialize();
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setDefaultTimeout(exportTimeout.toMillis());
+        configurer.setTaskExecutor(exportTaskExecutor);
+    }
+
+    @Override
+    public void destroy() {
+        exportTaskExecutor.shutdown();
+    }
+}
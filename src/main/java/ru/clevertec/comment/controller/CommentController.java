@@ -7,6 +7,9 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -15,11 +18,18 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.clevertec.comment.entity.dto.ArchiveProgress;
 import ru.clevertec.comment.entity.dto.CommentRequest;
 import ru.clevertec.comment.entity.dto.CommentResponse;
+import ru.clevertec.comment.entity.dto.CommentSuggestion;
+import ru.clevertec.comment.util.CursorPaginationResponse;
 import ru.clevertec.comment.util.PaginationResponse;
+import ru.clevertec.comment.util.SearchCursorResponse;
+import ru.clevertec.comment.util.SliceResponse;
 import ru.clevertec.exceptionhandlerstarter.entity.IncorrectData;
 
 import java.util.List;
@@ -29,6 +39,41 @@ import java.util.List;
 @Tag(name = "Comment service", description = "Operations related to comments")
 public interface CommentController {
 
+    /**
+     * Maximum number of comments accepted by a single batch creation request.
+     */
+    int MAX_BATCH_SIZE = 1000;
+
+    /**
+     * Media type of the comment export, newline-delimited JSON.
+     */
+    String EXPORT_MEDIA_TYPE = "application/x-ndjson";
+
+    /**
+     * Maximum number of suggestions returned by a single autocomplete request.
+     */
+    int MAX_SUGGESTIONS = 10;
+
+    /**
+     * Minimum length of an autocomplete prefix, shorter prefixes are not indexed.
+     */
+    int MIN_SUGGEST_PREFIX = 2;
+
+    /**
+     * Maximum number of comments or search hits returned by a single cursor page.
+     */
+    int MAX_CURSOR_LIMIT = 100;
+
+    /**
+     * Request header holding the client-generated key a comment creation is deduplicated by.
+     */
+    String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    /**
+     * Maximum length of an idempotency key.
+     */
+    int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+
     @Operation(
             summary = "Get comment by ID",
             tags = {"Comment"},
@@ -147,6 +192,124 @@ public interface CommentController {
             @RequestParam(defaultValue = "15", name = "pageSize") int pageSize,
             @RequestParam(defaultValue = "1", name = "numberPage") int numberPage);
 
+    @Operation(
+            summary = "Get a slice of comments",
+            tags = {"Comment"},
+            description = "Successfully retrieved comment list. Reports whether a next page exists instead of counting pages.")
+    @ApiResponses(
+            value = {
+                    @ApiResponse(responseCode = "200",
+                            description = "Successfully retrieved comment list",
+                            content = @Content(schema = @Schema(implementation = SliceResponse.class))),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Payload is incorrect: malformed, missing mandatory attributes etc",
+                            content = @Content(schema = @Schema(implementation = IncorrectData.class))),
+                    @ApiResponse(
+                            responseCode = "500",
+                            description = "General application error",
+                            content = @Content(schema = @Schema(implementation = IncorrectData.class)))
+            })
+    @GetMapping("/slice")
+    ResponseEntity<SliceResponse<CommentResponse>> getAllSlice(
+            @RequestParam(defaultValue = "15", name = "pageSize") int pageSize,
+            @RequestParam(defaultValue = "1", name = "numberPage") int numberPage);
+
+    @Operation(
+            summary = "Get a slice of archived comments",
+            tags = {"Comment"},
+            description = "Successfully retrieved archived comment list. " +
+                    "Reports whether a next page exists instead of counting pages.")
+    @ApiResponses(
+            value = {
+                    @ApiResponse(responseCode = "200",
+                            description = "Successfully retrieved archived comment list",
+                            content = @Content(schema = @Schema(implementation = SliceResponse.class))),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Payload is incorrect: malformed, missing mandatory attributes etc",
+                            content = @Content(schema = @Schema(implementation = IncorrectData.class))),
+                    @ApiResponse(
+                            responseCode = "500",
+                            description = "General application error",
+                            content = @Content(schema = @Schema(implementation = IncorrectData.class)))
+            })
+    @GetMapping("/archive/slice")
+    ResponseEntity<SliceResponse<CommentResponse>> getAllFromArchiveSlice(
+            @RequestParam(defaultValue = "15", name = "pageSize") int pageSize,
+            @RequestParam(defaultValue = "1", name = "numberPage") int numberPage);
+
+    @Operation(
+            summary = "Get all comments using cursor pagination",
+            tags = {"Comment"},
+            description = "Successfully retrieved comment list. Pass the returned cursor as 'after' to get the next page.")
+    @ApiResponses(
+            value = {
+                    @ApiResponse(responseCode = "200",
+                            description = "Successfully retrieved comment list",
+                            content = @Content(schema = @Schema(implementation = CursorPaginationResponse.class))),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Payload is incorrect: malformed, missing mandatory attributes etc",
+                            content = @Content(schema = @Schema(implementation = IncorrectData.class))),
+                    @ApiResponse(
+                            responseCode = "500",
+                            description = "General application error",
+                            content = @Content(schema = @Schema(implementation = IncorrectData.class)))
+            })
+    @GetMapping("/cursor")
+    ResponseEntity<CursorPaginationResponse<CommentResponse>> getAllByCursor(
+            @RequestParam(required = false, name = "after") String after,
+            @Positive @Max(MAX_CURSOR_LIMIT) @RequestParam(defaultValue = "15", name = "limit") int limit);
+
+    @Operation(
+            summary = "Get all comments related to news using cursor pagination",
+            tags = {"Comment"},
+            description = "Successfully retrieved comment list related to news. " +
+                    "Pass the returned cursor as 'after' to get the next page.")
+    @ApiResponses(
+            value = {
+                    @ApiResponse(responseCode = "200",
+                            description = "Successfully retrieved comment list related to news",
+                            content = @Content(schema = @Schema(implementation = CursorPaginationResponse.class))),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Payload is incorrect: malformed, missing mandatory attributes etc",
+                            content = @Content(schema = @Schema(implementation = IncorrectData.class))),
+                    @ApiResponse(
+                            responseCode = "500",
+                            description = "General application error",
+                            content = @Content(schema = @Schema(implementation = IncorrectData.class)))
+            })
+    @GetMapping("/news/{idNews}/cursor")
+    ResponseEntity<CursorPaginationResponse<CommentResponse>> getAllByIdNewsByCursor(
+            @PathVariable(name = "idNews") Long idNews,
+            @RequestParam(required = false, name = "after") String after,
+            @Positive @Max(MAX_CURSOR_LIMIT) @RequestParam(defaultValue = "15", name = "limit") int limit);
+
+    @Operation(
+            summary = "Export all comments related to news",
+            tags = {"Comment"},
+            description = "Streams every active comment related to news as newline-delimited JSON, " +
+                    "one comment per line in time order.")
+    @ApiResponses(
+            value = {
+                    @ApiResponse(responseCode = "200",
+                            description = "Successfully exported comment list related to news",
+                            content = @Content(mediaType = EXPORT_MEDIA_TYPE,
+                                    schema = @Schema(implementation = CommentResponse.class))),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Payload is incorrect: malformed, missing mandatory attributes etc",
+                            content = @Content(schema = @Schema(implementation = IncorrectData.class))),
+                    @ApiResponse(
+                            responseCode = "500",
+                            description = "General application error",
+                            content = @Content(schema = @Schema(implementation = IncorrectData.class)))
+            })
+    @GetMapping(value = "/news/{idNews}/export", produces = EXPORT_MEDIA_TYPE)
+    ResponseEntity<StreamingResponseBody> exportByIdNews(@PathVariable(name = "idNews") Long idNews);
+
     @Operation(
             summary = "Get all comments related to news from archive",
             tags = {"Comment"},
@@ -197,7 +360,9 @@ public interface CommentController {
     @Operation(
             summary = "Create new comment",
             tags = {"Comment"},
-            description = "Comment creation. Returns the location of a new resource.")
+            description = "Comment creation. Returns the location of a new resource. A request repeating the " +
+                    "idempotency key of an earlier creation by the same user returns the comment created then " +
+                    "instead of creating another one.")
     @ApiResponses(
             value = {
                     @ApiResponse(responseCode = "201", description = "Comment successfully created"),
@@ -205,13 +370,41 @@ public interface CommentController {
                             responseCode = "400",
                             description = "Invalid request body",
                             content = @Content(schema = @Schema(implementation = IncorrectData.class))),
+                    @ApiResponse(
+                            responseCode = "409",
+                            description = "A creation with the same idempotency key is still in progress",
+                            content = @Content(schema = @Schema(implementation = IncorrectData.class))),
                     @ApiResponse(
                             responseCode = "500",
                             description = "General application error",
                             content = @Content(schema = @Schema(implementation = IncorrectData.class)))
             })
     @PostMapping
-    ResponseEntity<CommentResponse> create(@Valid @RequestBody CommentRequest commentDto);
+    ResponseEntity<CommentResponse> create(
+            @Size(min = 1, max = MAX_IDEMPOTENCY_KEY_LENGTH)
+            @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody CommentRequest commentDto);
+
+    @Operation(
+            summary = "Create a batch of comments",
+            tags = {"Comment"},
+            description = "Creates up to " + MAX_BATCH_SIZE + " comments in one transaction. " +
+                    "Returns the created comments in request order.")
+    @ApiResponses(
+            value = {
+                    @ApiResponse(responseCode = "201", description = "Comments successfully created"),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Invalid request body or too many comments",
+                            content = @Content(schema = @Schema(implementation = IncorrectData.class))),
+                    @ApiResponse(
+                            responseCode = "500",
+                            description = "General application error",
+                            content = @Content(schema = @Schema(implementation = IncorrectData.class)))
+            })
+    @PostMapping("/batch")
+    ResponseEntity<List<CommentResponse>> createAll(
+            @Size(min = 1, max = MAX_BATCH_SIZE) @RequestBody List<@Valid CommentRequest> commentDtos);
 
     @Operation(
             summary = "Update comment by ID",
@@ -240,10 +433,12 @@ public interface CommentController {
     @Operation(
             summary = "Move comment to archive by news ID",
             tags = {"Comment"},
-            description = "Comment successfully moved to archive.")
+            description = "Comments are moved to archive in batches. With async=true the job runs in the background " +
+                    "and its progress can be polled by the returned location.")
     @ApiResponses(
             value = {
                     @ApiResponse(responseCode = "200", description = "Comment successfully moved to archive"),
+                    @ApiResponse(responseCode = "202", description = "Moving comments to archive started"),
                     @ApiResponse(
                             responseCode = "404",
                             description = "Comment by ID not found",
@@ -258,7 +453,27 @@ public interface CommentController {
                             content = @Content(schema = @Schema(implementation = IncorrectData.class)))
             })
     @PatchMapping("/news/{newsId}")
-    ResponseEntity<Void> moveToArchiveByNewsId(@PathVariable("newsId")Long newsId);
+    ResponseEntity<ArchiveProgress> moveToArchiveByNewsId(@PathVariable("newsId")Long newsId,
+                                                          @RequestParam(defaultValue = "false", name = "async") boolean async);
+
+    @Operation(
+            summary = "Get progress of moving comments to archive by news ID",
+            tags = {"Comment"},
+            description = "Returns the progress of the last archiving job of the news.")
+    @ApiResponses(
+            value = {
+                    @ApiResponse(responseCode = "200", description = "Successfully retrieved archiving progress"),
+                    @ApiResponse(
+                            responseCode = "404",
+                            description = "No archiving job was started for the news",
+                            content = @Content(schema = @Schema(implementation = IncorrectData.class))),
+                    @ApiResponse(
+                            responseCode = "500",
+                            description = "General application error",
+                            content = @Content(schema = @Schema(implementation = IncorrectData.class)))
+            })
+    @GetMapping("/news/{newsId}/archive")
+    ResponseEntity<ArchiveProgress> getArchiveProgress(@PathVariable("newsId") Long newsId);
 
     @Operation(
             summary = "Move comment to archive by ID",
@@ -285,7 +500,8 @@ public interface CommentController {
     @Operation(
             summary = "Search for comments",
             tags = {"Comment"},
-            description = "Successfully retrieved search results.")
+            description = "Successfully retrieved search results. Archived comments are never returned, " +
+                    "pass 'newsId' to search only in comments related to that news.")
     @ApiResponses(
             value = {
                     @ApiResponse(responseCode = "200",
@@ -306,6 +522,60 @@ public interface CommentController {
             })
     @GetMapping("/search")
     ResponseEntity<List<CommentResponse>> search(@RequestParam(name = "search") String searchValue,
+                                                 @RequestParam(required = false, name = "newsId") Long newsId,
                                                  @RequestParam(name = "offset") Integer offset,
                                                  @RequestParam(name = "limit") Integer limit);
+
+    @Operation(
+            summary = "Search for comments using cursor pagination",
+            tags = {"Comment"},
+            description = "Successfully retrieved search results ordered by relevance. Pass the returned cursor " +
+                    "as 'after' to get the next page. The total hit count is exact up to a configured threshold " +
+                    "and a lower bound above it.")
+    @ApiResponses(
+            value = {
+                    @ApiResponse(responseCode = "200",
+                            description = "Successfully retrieved search results",
+                            content = @Content(schema = @Schema(implementation = SearchCursorResponse.class))),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Payload is incorrect: malformed, missing mandatory attributes etc",
+                            content = @Content(schema = @Schema(implementation = IncorrectData.class))),
+                    @ApiResponse(
+                            responseCode = "500",
+                            description = "General application error",
+                            content = @Content(schema = @Schema(implementation = IncorrectData.class)))
+            })
+    @GetMapping("/search/cursor")
+    ResponseEntity<SearchCursorResponse<CommentResponse>> searchByCursor(
+            @RequestParam(name = "search") String searchValue,
+            @RequestParam(required = false, name = "newsId") Long newsId,
+            @RequestParam(required = false, name = "after") String after,
+            @Positive @Max(MAX_CURSOR_LIMIT) @RequestParam(defaultValue = "15", name = "limit") int limit);
+
+    @Operation(
+            summary = "Suggest comments while typing",
+            tags = {"Comment"},
+            description = "Successfully retrieved up to " + MAX_SUGGESTIONS + " active comments whose text or " +
+                    "author name contains words starting with the typed prefix. Only IDs and text snippets are " +
+                    "returned, straight from the search index.")
+    @ApiResponses(
+            value = {
+                    @ApiResponse(responseCode = "200",
+                            description = "Successfully retrieved suggestions",
+                            content = @Content(schema = @Schema(implementation = CommentSuggestion.class))),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Payload is incorrect: malformed, missing mandatory attributes etc",
+                            content = @Content(schema = @Schema(implementation = IncorrectData.class))),
+                    @ApiResponse(
+                            responseCode = "500",
+                            description = "General application error",
+                            content = @Content(schema = @Schema(implementation = IncorrectData.class)))
+            })
+    @GetMapping("/suggest")
+    ResponseEntity<List<CommentSuggestion>> suggest(
+            @Size(min = MIN_SUGGEST_PREFIX) @RequestParam(name = "prefix") String prefix,
+            @RequestParam(required = false, name = "newsId") Long newsId,
+            @Positive @Max(MAX_SUGGESTIONS) @RequestParam(defaultValue = "5", name = "limit") int limit);
 }
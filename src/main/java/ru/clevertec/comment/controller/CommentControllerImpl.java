@@ -1,14 +1,28 @@
 package ru.clevertec.comment.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.clevertec.comment.cache.IdempotencyStore;
+import ru.clevertec.comment.entity.dto.ArchiveProgress;
 import ru.clevertec.comment.entity.dto.CommentRequest;
 import ru.clevertec.comment.entity.dto.CommentResponse;
+import ru.clevertec.comment.entity.dto.CommentSuggestion;
 import ru.clevertec.comment.service.CommentService;
+import ru.clevertec.comment.util.CursorPaginationResponse;
 import ru.clevertec.comment.util.PaginationResponse;
+import ru.clevertec.comment.util.SearchCursorResponse;
+import ru.clevertec.comment.util.SliceResponse;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
 import java.util.List;
 
 @RestController
@@ -16,6 +30,8 @@ import java.util.List;
 public class CommentControllerImpl implements CommentController {
 
     private final CommentService service;
+    private final ObjectMapper objectMapper;
+    private final IdempotencyStore idempotencyStore;
 
     @Override
     public ResponseEntity<CommentResponse> getById(Long id) {
@@ -52,6 +68,53 @@ public class CommentControllerImpl implements CommentController {
                 .body(service.getCommentsByIdNews(idNews, pageSize, numberPage));
     }
 
+    @Override
+    public ResponseEntity<SliceResponse<CommentResponse>> getAllSlice(int pageSize, int numberPage) {
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(service.getAllSlice(pageSize, numberPage));
+    }
+
+    @Override
+    public ResponseEntity<SliceResponse<CommentResponse>> getAllFromArchiveSlice(int pageSize, int numberPage) {
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(service.getAllFromArchiveSlice(pageSize, numberPage));
+    }
+
+    @Override
+    public ResponseEntity<CursorPaginationResponse<CommentResponse>> getAllByCursor(String after, int limit) {
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(service.getAllByCursor(after, limit));
+    }
+
+    @Override
+    public ResponseEntity<CursorPaginationResponse<CommentResponse>> getAllByIdNewsByCursor(Long idNews, String after, int limit) {
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(service.getCommentsByIdNewsByCursor(idNews, after, limit));
+    }
+
+    @Override
+    public ResponseEntity<StreamingResponseBody> exportByIdNews(Long idNews) {
+        ObjectWriter writer = objectMapper.writerFor(CommentResponse.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        StreamingResponseBody body = outputStream -> service.exportCommentsByIdNews(idNews, comment -> {
+            try {
+                writer.writeValue(outputStream, comment);
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .contentType(MediaType.parseMediaType(EXPORT_MEDIA_TYPE))
+                .body(body);
+    }
+
     @Override
     public ResponseEntity<PaginationResponse<CommentResponse>> getAllByIdNewsFromArchive(Long idNews, int pageSize, int numberPage) {
         return ResponseEntity
@@ -67,10 +130,21 @@ public class CommentControllerImpl implements CommentController {
     }
 
     @Override
-    public ResponseEntity<CommentResponse> create(CommentRequest commentDto) {
+    public ResponseEntity<CommentResponse> create(String idempotencyKey, CommentRequest commentDto) {
+        CommentResponse commentResponse = idempotencyKey == null
+                ? service.create(commentDto)
+                : idempotencyStore.computeIfAbsent(commentDto.user().uuid() + ":" + idempotencyKey,
+                        () -> service.create(commentDto));
+        return ResponseEntity
+                .status(HttpStatus.CREATED)
+                .body(commentResponse);
+    }
+
+    @Override
+    public ResponseEntity<List<CommentResponse>> createAll(List<CommentRequest> commentDtos) {
         return ResponseEntity
                 .status(HttpStatus.CREATED)
-                .body(service.create(commentDto));
+                .body(service.createAll(commentDtos));
     }
 
     @Override
@@ -82,11 +156,24 @@ public class CommentControllerImpl implements CommentController {
 
 
     @Override
-    public ResponseEntity<Void> moveToArchiveByNewsId(Long newsId) {
-        service.archiveByNewsId(newsId);
+    public ResponseEntity<ArchiveProgress> moveToArchiveByNewsId(Long newsId, boolean async) {
+        if (async) {
+            return ResponseEntity
+                    .accepted()
+                    .location(URI.create("/comments/news/" + newsId + "/archive"))
+                    .body(service.archiveByNewsIdAsync(newsId));
+        }
+
         return ResponseEntity
                 .status(HttpStatus.OK)
-                .build();
+                .body(service.archiveByNewsId(newsId));
+    }
+
+    @Override
+    public ResponseEntity<ArchiveProgress> getArchiveProgress(Long newsId) {
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(service.getArchiveProgress(newsId));
     }
 
     @Override
@@ -98,9 +185,24 @@ public class CommentControllerImpl implements CommentController {
     }
 
     @Override
-    public ResponseEntity<List<CommentResponse>> search(String searchValue, Integer offset, Integer limit) {
+    public ResponseEntity<List<CommentResponse>> search(String searchValue, Long newsId, Integer offset, Integer limit) {
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(service.search(searchValue, newsId, offset, limit));
+    }
+
+    @Override
+    public ResponseEntity<SearchCursorResponse<CommentResponse>> searchByCursor(String searchValue, Long newsId,
+                                                                                String after, int limit) {
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(service.searchByCursor(searchValue, newsId, after, limit));
+    }
+
+    @Override
+    public ResponseEntity<List<CommentSuggestion>> suggest(String prefix, Long newsId, int limit) {
         return ResponseEntity
                 .status(HttpStatus.OK)
-                .body(service.search(searchValue,offset,limit));
+                .body(service.suggest(prefix, newsId, limit));
     }
 }
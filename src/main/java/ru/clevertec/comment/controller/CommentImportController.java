@@ -0,0 +1,44 @@
+package ru.clevertec.comment.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import ru.clevertec.comment.entity.dto.ImportFormat;
+import ru.clevertec.comment.entity.dto.ImportResult;
+import ru.clevertec.exceptionhandlerstarter.entity.IncorrectData;
+
+import java.io.InputStream;
+
+@RequestMapping(path = "/admin/comments")
+@Tag(name = "Comment administration", description = "Administrative operations on comments")
+public interface CommentImportController {
+
+    @Operation(
+            summary = "Import a comment dump",
+            tags = {"Comment administration"},
+            description = "Loads an NDJSON or CSV comment dump from the request body in one transaction, " +
+                    "creating missing users. Returns the number and the ID range of the imported comments.")
+    @ApiResponses(
+            value = {
+                    @ApiResponse(responseCode = "200", description = "Comments successfully imported"),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Dump is malformed",
+                            content = @Content(schema = @Schema(implementation = IncorrectData.class))),
+                    @ApiResponse(
+                            responseCode = "500",
+                            description = "General application error",
+                            content = @Content(schema = @Schema(implementation = IncorrectData.class)))
+            })
+    @PostMapping("/import")
+    ResponseEntity<ImportResult> importComments(
+            @RequestParam(defaultValue = "NDJSON", name = "format") ImportFormat format,
+            InputStream dump);
+}
@@ -0,0 +1,25 @@
+package ru.clevertec.comment.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RestController;
+import ru.clevertec.comment.entity.dto.ImportFormat;
+import ru.clevertec.comment.entity.dto.ImportResult;
+import ru.clevertec.comment.service.CommentService;
+
+import java.io.InputStream;
+
+@RestController
+@RequiredArgsConstructor
+public class CommentImportControllerImpl implements CommentImportController {
+
+    private final CommentService service;
+
+    @Override
+    public ResponseEntity<ImportResult> importComments(ImportFormat format, InputStream dump) {
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(service.importComments(dump, format));
+    }
+}
@@ -0,0 +1,32 @@
+package ru.clevertec.comment.controller;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import ru.clevertec.comment.util.InvalidCursorException;
+
+/**
+ * Maps malformed pagination cursors to 400 Bad Request.
+ * Ordered first, so it takes precedence over the general handler of the exception handler starter.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@RestControllerAdvice
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class CursorExceptionHandler {
+
+    /**
+     * Handles a cursor token that cannot be decoded.
+     *
+     * @param e the decoding failure.
+     * @return the problem detail with the 400 status.
+     */
+    @ExceptionHandler(InvalidCursorException.class)
+    public ProblemDetail handleInvalidCursor(InvalidCursorException e) {
+        return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+}
@@ -0,0 +1,36 @@
+package ru.clevertec.comment.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import ru.clevertec.comment.entity.dto.IndexPosition;
+import ru.clevertec.exceptionhandlerstarter.entity.IncorrectData;
+
+@RequestMapping(path = "/admin/comments")
+@Tag(name = "Comment administration", description = "Administrative operations on comments")
+public interface SearchIndexController {
+
+    @Operation(
+            summary = "Replay the search index event log",
+            tags = {"Comment administration"},
+            description = "Moves the search index of the node serving the request back to the given event of the " +
+                    "comment event log, the events from it on are applied again by the next poll. " +
+                    "Returns the new position of the node.")
+    @ApiResponses(
+            value = {
+                    @ApiResponse(responseCode = "202", description = "Replay scheduled"),
+                    @ApiResponse(
+                            responseCode = "500",
+                            description = "General application error",
+                            content = @Content(schema = @Schema(implementation = IncorrectData.class)))
+            })
+    @PostMapping("/index/replay")
+    ResponseEntity<IndexPosition> replay(@RequestParam(defaultValue = "0", name = "fromEventId") long fromEventId);
+}
@@ -0,0 +1,22 @@
+package ru.clevertec.comment.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RestController;
+import ru.clevertec.comment.entity.dto.IndexPosition;
+import ru.clevertec.comment.service.CommentService;
+
+@RestController
+@RequiredArgsConstructor
+public class SearchIndexControllerImpl implements SearchIndexController {
+
+    private final CommentService service;
+
+    @Override
+    public ResponseEntity<IndexPosition> replay(long fromEventId) {
+        return ResponseEntity
+                .status(HttpStatus.ACCEPTED)
+                .body(service.replayIndexEvents(fromEventId));
+    }
+}
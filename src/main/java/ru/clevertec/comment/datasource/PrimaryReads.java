@@ -0,0 +1,48 @@
+package ru.clevertec.comment.datasource;
+
+/**
+ * Holds the routing hint of the current thread sending its reads to the primary, see {@link ReadFromPrimary}.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+public final class PrimaryReads {
+
+    private static final ThreadLocal<Boolean> REQUESTED = ThreadLocal.withInitial(() -> false);
+
+    private PrimaryReads() {
+    }
+
+    /**
+     * Sends the reads of the current thread to the primary until {@link #exit(boolean)} is called.
+     *
+     * @return whether the reads were already sent to the primary, to be passed to {@link #exit(boolean)}.
+     */
+    public static boolean enter() {
+        boolean previous = REQUESTED.get();
+        REQUESTED.set(true);
+        return previous;
+    }
+
+    /**
+     * Restores the routing hint that was in place before the matching {@link #enter()}.
+     *
+     * @param previous the value returned by the matching {@link #enter()}.
+     */
+    public static void exit(boolean previous) {
+        if (previous) {
+            REQUESTED.set(true);
+        } else {
+            REQUESTED.remove();
+        }
+    }
+
+    /**
+     * Checks whether the reads of the current thread must go to the primary.
+     *
+     * @return true if the current thread runs inside a method marked with {@link ReadFromPrimary}.
+     */
+    public static boolean isRequested() {
+        return REQUESTED.get();
+    }
+}
@@ -0,0 +1,22 @@
+package ru.clevertec.comment.datasource;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method whose read-only transactions must read from the primary even when a replica is configured.
+ * Used on the reads that fill shared caches: a result read from a lagging replica would put rows that were
+ * already changed or evicted back into a cache shared by all clients and nodes, where the read-your-writes
+ * window of the writing client does not reach.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReadFromPrimary {
+}
@@ -0,0 +1,117 @@
+package ru.clevertec.comment.datasource;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers the clients that have recently written to the primary database.
+ * For {@code window} after its own write a client keeps reading from the primary, so it sees its changes
+ * even while the replica is lagging behind. A client is identified by the {@value #CLIENT_HEADER} header
+ * of the current request, or by its remote address when the header is absent.
+ * The window is kept in the memory of each node, so it only covers a client whose requests reach the node
+ * it wrote through: with several nodes the load balancer must keep the sessions sticky by that header.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+public class ReadYourWritesWindow {
+
+    /**
+     * Request header identifying the client across connections.
+     */
+    public static final String CLIENT_HEADER = "X-Client-Id";
+
+    private final Map<String, Instant> lastWrites = new ConcurrentHashMap<>();
+    private final Duration window;
+    private final int capacity;
+    private final Clock clock;
+
+    /**
+     * Constructor for ReadYourWritesWindow.
+     *
+     * @param window   how long the reads of a client stick to the primary after its write.
+     * @param capacity the number of remembered clients above which expired entries are dropped.
+     */
+    public ReadYourWritesWindow(Duration window, int capacity) {
+        this(window, capacity, Clock.systemUTC());
+    }
+
+    ReadYourWritesWindow(Duration window, int capacity, Clock clock) {
+        this.window = window;
+        this.capacity = capacity;
+        this.clock = clock;
+    }
+
+    /**
+     * Records a write of the client of the current request, if there is one.
+     */
+    public void recordWrite() {
+        currentClient().ifPresent(this::recordWrite);
+    }
+
+    /**
+     * Records a write of the given client.
+     *
+     * @param client the client key.
+     */
+    public void recordWrite(String client) {
+        Instant now = clock.instant();
+        if (lastWrites.size() >= capacity) {
+            lastWrites.values().removeIf(writtenAt -> isExpired(writtenAt, now));
+        }
+        lastWrites.put(client, now);
+    }
+
+    /**
+     * Checks whether the client of the current request has written within the window.
+     *
+     * @return true if the reads of the client must go to the primary.
+     */
+    public boolean isOpen() {
+        return currentClient().map(this::isOpen).orElse(false);
+    }
+
+    /**
+     * Checks whether the given client has written within the window.
+     *
+     * @param client the client key.
+     * @return true if the reads of the client must go to the primary.
+     */
+    public boolean isOpen(String client) {
+        Instant writtenAt = lastWrites.get(client);
+
+        if (writtenAt == null) {
+            return false;
+        }
+        if (isExpired(writtenAt, clock.instant())) {
+            lastWrites.remove(client, writtenAt);
+            return false;
+        }
+        return true;
+    }
+
+    private boolean isExpired(Instant writtenAt, Instant now) {
+        return !writtenAt.plus(window).isAfter(now);
+    }
+
+    private static Optional<String> currentClient() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+            return Optional.empty();
+        }
+
+        HttpServletRequest request = servletAttributes.getRequest();
+        String client = request.getHeader(CLIENT_HEADER);
+        return Optional.ofNullable(client != null && !client.isBlank() ? client : request.getRemoteAddr());
+    }
+}
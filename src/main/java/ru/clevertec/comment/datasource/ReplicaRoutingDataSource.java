@@ -0,0 +1,66 @@
+package ru.clevertec.comment.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * DataSource sending read-only transactions to the replica and everything else to the primary.
+ * Reads of a client that is inside its {@link ReadYourWritesWindow} stay on the primary, and every committed
+ * read-write transaction opens such a window for the client of the current request. Reads that fill shared
+ * caches are marked with {@link ReadFromPrimary} and always go to the primary, as the window of the writing
+ * client does not protect the other clients reading through the same cache.
+ * The routing decision is taken when a connection is requested, so this DataSource must be wrapped in a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, otherwise the connection is
+ * obtained before the transaction is marked read-only.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final ReadYourWritesWindow readYourWritesWindow;
+
+    /**
+     * Constructor for ReplicaRoutingDataSource.
+     *
+     * @param primary              the DataSource taking writes and non-transactional work.
+     * @param replica              the DataSource taking read-only transactions.
+     * @param readYourWritesWindow the window keeping reads of recent writers on the primary.
+     */
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReadYourWritesWindow readYourWritesWindow) {
+        this.readYourWritesWindow = readYourWritesWindow;
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Route determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return Route.PRIMARY;
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        readYourWritesWindow.recordWrite();
+                    }
+                });
+            }
+            return Route.PRIMARY;
+        }
+        return PrimaryReads.isRequested() || readYourWritesWindow.isOpen() ? Route.PRIMARY : Route.REPLICA;
+    }
+
+    /**
+     * Target DataSources of the routing.
+     */
+    public enum Route {
+        PRIMARY, REPLICA
+    }
+}
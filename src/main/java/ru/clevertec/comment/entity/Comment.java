@@ -2,22 +2,30 @@ package ru.clevertec.comment.entity;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
-import jakarta.persistence.OneToOne;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.search.engine.backend.types.Projectable;
+import org.hibernate.search.engine.backend.types.Sortable;
 import org.hibernate.search.mapper.pojo.automaticindexing.ReindexOnUpdate;
 import org.hibernate.search.mapper.pojo.mapping.definition.annotation.FullTextField;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.GenericField;
 import org.hibernate.search.mapper.pojo.mapping.definition.annotation.Indexed;
 import org.hibernate.search.mapper.pojo.mapping.definition.annotation.IndexedEmbedded;
 import org.hibernate.search.mapper.pojo.mapping.definition.annotation.IndexingDependency;
+import ru.clevertec.comment.search.LuceneConfig;
 
 import java.time.LocalDateTime;
 
@@ -28,29 +36,42 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Table(name = "comment")
+@NamedEntityGraph(name = Comment.WITH_USER_GRAPH, attributeNodes = @NamedAttributeNode("user"))
 public class Comment {
 
+    public static final String WITH_USER_GRAPH = "Comment.withUser";
+    public static final String AUTOCOMPLETE_TEXT = "text_autocomplete";
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "comment_id_seq")
+    @SequenceGenerator(name = "comment_id_seq", sequenceName = "comment_id_seq",
+            allocationSize = ID_ALLOCATION_SIZE)
+    @GenericField(sortable = Sortable.YES)
     private Long id;
 
     @CreationTimestamp
+    @GenericField(projectable = Projectable.YES)
     @Column(nullable = false, updatable = false)
     private LocalDateTime time;
 
-    @FullTextField(analyzer = "english")
+    @FullTextField(analyzer = LuceneConfig.ENGLISH, projectable = Projectable.YES)
+    @FullTextField(name = AUTOCOMPLETE_TEXT, analyzer = LuceneConfig.AUTOCOMPLETE_INDEX,
+            searchAnalyzer = LuceneConfig.AUTOCOMPLETE_SEARCH)
     @Column(nullable = false, length = 500)
     private String text;
 
-    @OneToOne
     @IndexedEmbedded
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     @IndexingDependency(reindexOnUpdate = ReindexOnUpdate.SHALLOW)
     private User user;
 
+    @GenericField
     @Column(name = "is_archive", nullable = false)
     private boolean isArchived;
 
+    @GenericField(projectable = Projectable.YES)
     @Column(name = "news_id", nullable = false)
     private Long newsId;
 }
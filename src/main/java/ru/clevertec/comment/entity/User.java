@@ -5,13 +5,17 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.search.engine.backend.types.Projectable;
 import org.hibernate.search.mapper.pojo.mapping.definition.annotation.FullTextField;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.GenericField;
 import org.hibernate.search.mapper.pojo.mapping.definition.annotation.Indexed;
+import ru.clevertec.comment.search.LuceneConfig;
 
 import java.util.UUID;
 
@@ -24,14 +28,22 @@ import java.util.UUID;
 @Table(name = "users")
 public class User {
 
+    public static final String AUTOCOMPLETE_USER_NAME = "userName_autocomplete";
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_id_seq")
+    @SequenceGenerator(name = "users_id_seq", sequenceName = "users_id_seq",
+            allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(unique = true, nullable = false)
+    @GenericField(projectable = Projectable.YES)
     private UUID uuid;
 
     @Column(name = "user_name", nullable = false)
-    @FullTextField(analyzer = "english")
+    @FullTextField(analyzer = LuceneConfig.ENGLISH, projectable = Projectable.YES)
+    @FullTextField(name = AUTOCOMPLETE_USER_NAME, analyzer = LuceneConfig.AUTOCOMPLETE_INDEX,
+            searchAnalyzer = LuceneConfig.AUTOCOMPLETE_SEARCH)
     private String userName;
 }
@@ -0,0 +1,35 @@
+package ru.clevertec.comment.entity.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDateTime;
+
+public record ArchiveProgress(
+        Long newsId,
+        Status status,
+        long archived,
+        @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS")
+        LocalDateTime startedAt,
+        @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS")
+        LocalDateTime finishedAt) {
+
+    public enum Status {
+        RUNNING, COMPLETED, FAILED
+    }
+
+    public static ArchiveProgress started(Long newsId) {
+        return new ArchiveProgress(newsId, Status.RUNNING, 0, LocalDateTime.now(), null);
+    }
+
+    public ArchiveProgress withArchived(long archived) {
+        return new ArchiveProgress(newsId, status, archived, startedAt, finishedAt);
+    }
+
+    public ArchiveProgress finished(Status status) {
+        return new ArchiveProgress(newsId, status, archived, startedAt, LocalDateTime.now());
+    }
+
+    public boolean isRunning() {
+        return status == Status.RUNNING;
+    }
+}
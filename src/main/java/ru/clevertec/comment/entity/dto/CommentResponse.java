@@ -2,11 +2,15 @@ package ru.clevertec.comment.entity.dto;
 
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.IdProjection;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.ProjectionConstructor;
 
 import java.io.Serializable;
 import java.time.LocalDateTime;
 
+@ProjectionConstructor
 public record CommentResponse(
+        @IdProjection
         Long id,
         @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS")
         LocalDateTime time,
@@ -0,0 +1,6 @@
+package ru.clevertec.comment.entity.dto;
+
+public record CommentSuggestion(
+        Long id,
+        String snippet) {
+}
@@ -0,0 +1,14 @@
+package ru.clevertec.comment.entity.dto;
+
+/**
+ * Formats of comment dumps accepted by the bulk import.
+ * An NDJSON dump holds one {@link ImportedComment} object per line; a CSV dump starts with a header row and
+ * holds the {@code time,text,user_uuid,user_name,news_id,is_archive} columns in this order, an empty
+ * {@code time} meaning the import time and an empty {@code is_archive} meaning an active comment.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+public enum ImportFormat {
+    NDJSON, CSV
+}
@@ -0,0 +1,7 @@
+package ru.clevertec.comment.entity.dto;
+
+public record ImportResult(
+        long imported,
+        Long firstId,
+        Long lastId) {
+}
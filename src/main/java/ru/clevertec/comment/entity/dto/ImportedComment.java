@@ -0,0 +1,11 @@
+package ru.clevertec.comment.entity.dto;
+
+import java.time.LocalDateTime;
+
+public record ImportedComment(
+        LocalDateTime time,
+        String text,
+        UserRequest user,
+        Long newsId,
+        boolean archived) {
+}
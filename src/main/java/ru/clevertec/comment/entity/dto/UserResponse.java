@@ -1,8 +1,11 @@
 package ru.clevertec.comment.entity.dto;
 
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.ProjectionConstructor;
+
 import java.io.Serializable;
 import java.util.UUID;
 
+@ProjectionConstructor
 public record UserResponse(
 
         UUID uuid,
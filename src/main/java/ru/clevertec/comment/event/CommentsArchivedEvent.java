@@ -0,0 +1,15 @@
+package ru.clevertec.comment.event;
+
+import java.util.List;
+
+/**
+ * Event published inside the transaction that archived a batch of comments.
+ * Listeners use it to evict the comments from caches, the search index picks the change up from the outbox.
+ *
+ * @param newsId     the ID of the news the comments belong to.
+ * @param commentIds the IDs of the archived comments.
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+public record CommentsArchivedEvent(Long newsId, List<Long> commentIds) {
+}
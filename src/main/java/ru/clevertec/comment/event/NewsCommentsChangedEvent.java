@@ -0,0 +1,12 @@
+package ru.clevertec.comment.event;
+
+/**
+ * Event published inside a transaction that created, changed or archived comments of a news.
+ * Listeners use it to drop the cached comment pages of the news once the transaction commits.
+ *
+ * @param newsId the ID of the news whose comments changed.
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+public record NewsCommentsChangedEvent(Long newsId) {
+}
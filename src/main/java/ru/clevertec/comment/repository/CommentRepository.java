@@ -1,19 +1,36 @@
 package ru.clevertec.comment.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.clevertec.comment.entity.Comment;
+import ru.clevertec.comment.entity.dto.CommentResponse;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for Comment entity.
  * This interface extends JpaRepository, providing CRUD operations and custom queries for Comment entities.
+ * Read queries project rows straight into {@link CommentResponse} records, so no entities are hydrated
+ * into the persistence context for them.
+ * The comment table is list-partitioned by the archive flag into {@code comment_active} and {@code comment_archive},
+ * so queries filtered by {@code isArchived} read a single partition and archiving moves rows into the archive one.
+ * Both partitions are further hash-partitioned by news ID: queries given a news ID read one hash partition, while
+ * lookups by comment ID alone probe the primary key of every hash partition.
  *
  * @author Sergey Leshkevich
  * @version 1.0
@@ -21,6 +38,48 @@ import java.util.Optional;
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
+    /**
+     * Select clause building a {@link CommentResponse} from a comment {@code c} joined with its author {@code u}.
+     */
+    String SELECT_RESPONSE = """
+            select new ru.clevertec.comment.entity.dto.CommentResponse(
+                c.id, c.time, c.text, new ru.clevertec.comment.entity.dto.UserResponse(u.uuid, u.userName), c.newsId)
+            from Comment c join c.user u
+            """;
+
+    /**
+     * Number of rows fetched from the database cursor at once by streaming queries.
+     */
+    int STREAM_FETCH_SIZE = 500;
+
+    /**
+     * Finds a comment by its ID together with its author.
+     *
+     * @param id the ID of the comment.
+     * @return an Optional containing the found comment or an empty Optional if not found.
+     */
+    @Override
+    @EntityGraph(Comment.WITH_USER_GRAPH)
+    Optional<Comment> findById(Long id);
+
+    /**
+     * Finds a non-archived comment by its ID.
+     *
+     * @param id the ID of the comment.
+     * @return an Optional containing the found comment or an empty Optional if not found.
+     */
+    @Query(SELECT_RESPONSE + "where c.id = :id and c.isArchived = false")
+    Optional<CommentResponse> findActiveResponseById(@Param("id") Long id);
+
+    /**
+     * Finds an archived comment by its ID.
+     *
+     * @param id the ID of the comment.
+     * @return an Optional containing the found comment or an empty Optional if not found.
+     */
+    @Query(SELECT_RESPONSE + "where c.id = :id and c.isArchived = true")
+    Optional<CommentResponse> findArchivedResponseById(@Param("id") Long id);
+
     /**
      * Finds a non-archived comment by its ID and associated news ID.
      *
@@ -28,7 +87,8 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
      * @param newsId the ID of the associated news.
      * @return an Optional containing the found comment or an empty Optional if not found.
      */
-    Optional<Comment> findCommentByIdAndNewsIdAndIsArchivedIsFalse(Long id, Long newsId);
+    @Query(SELECT_RESPONSE + "where c.id = :id and c.newsId = :newsId and c.isArchived = false")
+    Optional<CommentResponse> findActiveResponseByIdAndNewsId(@Param("id") Long id, @Param("newsId") Long newsId);
 
     /**
      * Retrieves a page of non-archived comments.
@@ -36,7 +96,9 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
      * @param pageRequest the pagination information.
      * @return a page of non-archived comments.
      */
-    Page<Comment> findAllByIsArchivedIsFalse(PageRequest pageRequest);
+    @Query(value = SELECT_RESPONSE + "where c.isArchived = false",
+            countQuery = "select count(c) from Comment c where c.isArchived = false")
+    Page<CommentResponse> findActiveResponses(PageRequest pageRequest);
 
     /**
      * Retrieves a page of archived comments.
@@ -44,32 +106,136 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
      * @param pageRequest the pagination information.
      * @return a page of archived comments.
      */
-    Page<Comment> findAllByIsArchivedIsTrue(PageRequest pageRequest);
+    @Query(value = SELECT_RESPONSE + "where c.isArchived = true",
+            countQuery = "select count(c) from Comment c where c.isArchived = true")
+    Page<CommentResponse> findArchivedResponses(PageRequest pageRequest);
 
     /**
-     * Retrieves a page of non-archived comments for a specific news ID.
+     * Retrieves a slice of non-archived comments without counting the total number of them.
+     *
+     * @param pageRequest the pagination information.
+     * @return a slice of non-archived comments.
+     */
+    @Query(SELECT_RESPONSE + "where c.isArchived = false")
+    Slice<CommentResponse> findActiveResponseSlice(PageRequest pageRequest);
+
+    /**
+     * Retrieves a slice of archived comments without counting the total number of them.
+     *
+     * @param pageRequest the pagination information.
+     * @return a slice of archived comments.
+     */
+    @Query(SELECT_RESPONSE + "where c.isArchived = true")
+    Slice<CommentResponse> findArchivedResponseSlice(PageRequest pageRequest);
+
+    /**
+     * Retrieves a slice of non-archived comments for a specific news ID.
+     * The total number of comments is kept in {@link NewsCommentCounterRepository}, so no count query is issued.
      *
      * @param idNews      the ID of the news.
      * @param pageRequest the pagination information.
-     * @return a page of non-archived comments for the specified news ID.
+     * @return a slice of non-archived comments for the specified news ID.
      */
-    Page<Comment> findAllByIsArchivedIsFalseAndNewsId(Long idNews, PageRequest pageRequest);
+    @Query(SELECT_RESPONSE + "where c.isArchived = false and c.newsId = :newsId")
+    Slice<CommentResponse> findActiveResponsesByNewsId(@Param("newsId") Long idNews, PageRequest pageRequest);
 
     /**
-     * Retrieves a page of archived comments for a specific news ID.
+     * Retrieves a slice of archived comments for a specific news ID.
+     * The total number of comments is kept in {@link NewsCommentCounterRepository}, so no count query is issued.
      *
      * @param idNews      the ID of the news.
      * @param pageRequest the pagination information.
-     * @return a page of archived comments for the specified news ID.
+     * @return a slice of archived comments for the specified news ID.
+     */
+    @Query(SELECT_RESPONSE + "where c.isArchived = true and c.newsId = :newsId")
+    Slice<CommentResponse> findArchivedResponsesByNewsId(@Param("newsId") Long idNews, PageRequest pageRequest);
+
+    /**
+     * Retrieves the first non-archived comments ordered by time and ID.
+     *
+     * @param pageable the limit of the page, the offset is expected to be zero.
+     * @return a list of non-archived comments.
+     */
+    @Query(SELECT_RESPONSE + "where c.isArchived = false order by c.time, c.id")
+    List<CommentResponse> findFirstActiveResponses(Pageable pageable);
+
+    /**
+     * Retrieves non-archived comments following the given (time, id) position.
+     *
+     * @param time     the time of the last comment of the previous page.
+     * @param id       the ID of the last comment of the previous page.
+     * @param pageable the limit of the page, the offset is expected to be zero.
+     * @return a list of non-archived comments.
+     */
+    @Query(SELECT_RESPONSE + """
+            where c.isArchived = false and (c.time, c.id) > (:time, :id)
+            order by c.time, c.id""")
+    List<CommentResponse> findActiveResponsesAfter(@Param("time") LocalDateTime time,
+                                                   @Param("id") Long id,
+                                                   Pageable pageable);
+
+    /**
+     * Retrieves the first non-archived comments for a specific news ID ordered by time and ID.
+     *
+     * @param newsId   the ID of the news.
+     * @param pageable the limit of the page, the offset is expected to be zero.
+     * @return a list of non-archived comments for the specified news ID.
+     */
+    @Query(SELECT_RESPONSE + "where c.isArchived = false and c.newsId = :newsId order by c.time, c.id")
+    List<CommentResponse> findFirstActiveResponsesByNewsId(@Param("newsId") Long newsId, Pageable pageable);
+
+    /**
+     * Retrieves non-archived comments for a specific news ID following the given (time, id) position.
+     *
+     * @param newsId   the ID of the news.
+     * @param time     the time of the last comment of the previous page.
+     * @param id       the ID of the last comment of the previous page.
+     * @param pageable the limit of the page, the offset is expected to be zero.
+     * @return a list of non-archived comments for the specified news ID.
+     */
+    @Query(SELECT_RESPONSE + """
+            where c.isArchived = false and c.newsId = :newsId and (c.time, c.id) > (:time, :id)
+            order by c.time, c.id""")
+    List<CommentResponse> findActiveResponsesByNewsIdAfter(@Param("newsId") Long newsId,
+                                                           @Param("time") LocalDateTime time,
+                                                           @Param("id") Long id,
+                                                           Pageable pageable);
+
+    /**
+     * Streams all non-archived comments for a specific news ID together with their authors ordered by time and ID.
+     * Rows are read through a server-side cursor {@value #STREAM_FETCH_SIZE} at a time, so the stream must be
+     * consumed and closed inside a transaction, and the caller is expected to clear the persistence context
+     * periodically to keep memory flat.
+     *
+     * @param newsId the ID of the news.
+     * @return a stream of read-only non-archived comments for the specified news ID.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("select c from Comment c join fetch c.user where c.isArchived = false and c.newsId = :newsId order by c.time, c.id")
+    Stream<Comment> streamActiveByNewsId(@Param("newsId") Long newsId);
+
+    /**
+     * Retrieves IDs of the first non-archived comments for a specific news ID ordered by time and ID.
+     *
+     * @param newsId   the ID of the news.
+     * @param pageable the limit of the batch, the offset is expected to be zero.
+     * @return a list of IDs of non-archived comments for the specified news ID.
      */
-    Page<Comment> findAllByIsArchivedIsTrueAndNewsId(Long idNews, PageRequest pageRequest);
+    @Query("select c.id from Comment c where c.isArchived = false and c.newsId = :newsId order by c.time, c.id")
+    List<Long> findActiveIdsByNewsId(@Param("newsId") Long newsId, Pageable pageable);
 
     /**
-     * Archives all comments associated with a given news ID.
+     * Archives the non-archived comments of the news with the given IDs.
      *
-     * @param newsId the ID of the news whose comments are to be archived.
+     * @param newsId the ID of the news the comments belong to.
+     * @param ids    the IDs of the comments to archive.
+     * @return the number of archived comments.
      */
     @Modifying
-    @Query("update Comment c set c.isArchived = true where c.newsId = :newsId")
-    void archiveByNewsId(@Param("newsId") Long newsId);
+    @Query("""
+            update Comment c set c.isArchived = true
+            where c.newsId = :newsId and c.id in :ids and c.isArchived = false""")
+    int archiveByIds(@Param("newsId") Long newsId, @Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,38 @@
+package ru.clevertec.comment.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ru.clevertec.comment.entity.NewsCommentCounter;
+
+/**
+ * Repository interface for NewsCommentCounter entity.
+ * Keeps the number of active and archived comments per news, so totals are read by primary key instead of a count scan.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@Repository
+public interface NewsCommentCounterRepository extends JpaRepository<NewsCommentCounter, Long> {
+
+    /**
+     * Atomically adds the given deltas to the counters of a news, creating the counters row if it does not exist.
+     *
+     * @param newsId        the ID of the news.
+     * @param activeDelta   the change of the number of active comments.
+     * @param archivedDelta the change of the number of archived comments.
+     */
+    @Modifying
+    @Query(value = """
+            insert into news_comment_counter (news_id, active_count, archived_count)
+            values (:newsId, :activeDelta, :archivedDelta)
+            on conflict (news_id) do update
+            set active_count = news_comment_counter.active_count + excluded.active_count,
+                archived_count = news_comment_counter.archived_count + excluded.archived_count""",
+            nativeQuery = true)
+    void increment(@Param("newsId") Long newsId,
+                   @Param("activeDelta") long activeDelta,
+                   @Param("archivedDelta") long archivedDelta);
+}
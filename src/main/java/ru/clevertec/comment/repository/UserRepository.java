@@ -1,9 +1,13 @@
 package ru.clevertec.comment.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.clevertec.comment.entity.User;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -24,4 +28,30 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @return an Optional containing the found user or an empty Optional if not found.
      */
     Optional<User> findByUuid(UUID uuid);
+
+    /**
+     * Finds all users with the given UUIDs in a single query.
+     *
+     * @param uuids the UUIDs of the users to find.
+     * @return a list of the found users, users that do not exist are skipped.
+     */
+    List<User> findAllByUuidIn(Collection<UUID> uuids);
+
+    /**
+     * Inserts a user or, if a user with the same UUID already exists, returns the existing one.
+     * The conflict branch keeps the stored name, it only touches the row so that it is returned.
+     * Runs as a single statement, so concurrent first comments of one user cannot violate the unique UUID constraint.
+     * The ID default draws a whole block of the pooled users sequence even when the user exists, so callers are
+     * expected to look the user up first.
+     *
+     * @param uuid     the UUID of the user.
+     * @param userName the name of the user, used only when the user is created.
+     * @return the inserted or the existing user.
+     */
+    @Query(value = """
+            insert into users (uuid, user_name)
+            values (:uuid, :userName)
+            on conflict (uuid) do update set user_name = users.user_name
+            returning *""", nativeQuery = true)
+    User upsert(@Param("uuid") UUID uuid, @Param("userName") String userName);
 }
@@ -0,0 +1,233 @@
+package ru.clevertec.comment.search;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.search.mapper.orm.Search;
+import org.hibernate.search.mapper.orm.session.SearchSession;
+import org.hibernate.search.mapper.orm.work.SearchIndexingPlan;
+import org.hibernate.search.mapper.pojo.work.IndexingPlanSynchronizationStrategy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.clevertec.comment.cache.SearchResultCache;
+import ru.clevertec.comment.entity.Comment;
+import ru.clevertec.comment.entity.dto.IndexPosition;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Applies the comment changes recorded in the {@code comment_index_event} outbox to the local Lucene index.
+ * Automatic indexing is disabled, so writes return without waiting on Lucene, and every node consumes the whole
+ * event log at its own position, persisted next to its index, which makes all indexes converge. The log is read
+ * in (transaction, event ID) order and only up to the oldest running transaction, so no event committed later
+ * can appear behind the position. Without a persisted position a node starts from the current head, the startup
+ * indexing covering everything before it. Every applied batch invalidates the {@link SearchResultCache}.
+ * The lag is published as the {@code search.outbox.lag.events} and {@code search.outbox.lag.seconds} gauges,
+ * the applied events are counted by the {@code search.outbox.events.processed} counter.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@Slf4j
+@Component
+public class IndexOutboxPoller {
+
+    private static final String STABLE = "tx_id < txid_snapshot_xmin(txid_current_snapshot())";
+    private static final String SELECT_EVENTS = """
+            SELECT tx_id, id, comment_id
+            FROM comment_index_event
+            WHERE (tx_id, id) > (?, ?) AND %s
+            ORDER BY tx_id, id
+            LIMIT ?""".formatted(STABLE);
+    private static final String SELECT_HEAD = """
+            SELECT tx_id, id
+            FROM comment_index_event
+            WHERE %s
+            ORDER BY tx_id DESC, id DESC
+            LIMIT 1""".formatted(STABLE);
+    private static final String SELECT_LAG = """
+            SELECT count(*), coalesce(extract(epoch FROM localtimestamp - min(created_at))::bigint, 0)
+            FROM comment_index_event
+            WHERE (tx_id, id) > (?, ?)""";
+    private static final String SELECT_REPLAY_TX = "SELECT min(tx_id) FROM comment_index_event WHERE id >= ?";
+    private static final String DELETE_EXPIRED = "DELETE FROM comment_index_event WHERE created_at < ?";
+    private static final IndexPosition START = new IndexPosition(0, 0);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final SearchResultCache searchResultCache;
+    private final int batchSize;
+    private final Duration retention;
+    private final Path positionFile;
+    private final AtomicLong lagEvents = new AtomicLong();
+    private final AtomicLong lagSeconds = new AtomicLong();
+    private final Counter processed;
+    private volatile IndexPosition position;
+
+    /**
+     * Constructor for IndexOutboxPoller.
+     *
+     * @param jdbcTemplate         the template reading the outbox.
+     * @param entityManagerFactory the factory of entity managers used to load and index the changed comments.
+     * @param searchResultCache    the cache of search results invalidated by every applied batch.
+     * @param meterRegistry        the registry to publish the lag metrics to.
+     * @param batchSize            the maximum number of events applied at once.
+     * @param retention            how long events are kept in the outbox.
+     * @param positionFile         the file keeping the position of this node in the event log.
+     */
+    public IndexOutboxPoller(JdbcTemplate jdbcTemplate,
+                             EntityManagerFactory entityManagerFactory,
+                             SearchResultCache searchResultCache,
+                             MeterRegistry meterRegistry,
+                             @Value("${comment.index.outbox.batch-size:500}") int batchSize,
+                             @Value("${comment.index.outbox.retention:7d}") Duration retention,
+                             @Value("${comment.index.outbox.position-file:"
+                                    + "${spring.jpa.properties.hibernate.search.backend.directory.root:.}"
+                                    + "/comment-index-position}") String positionFile) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+        this.searchResultCache = searchResultCache;
+        this.batchSize = batchSize;
+        this.retention = retention;
+        this.positionFile = Path.of(positionFile);
+        this.processed = Counter.builder("search.outbox.events.processed")
+                .register(meterRegistry);
+        Gauge.builder("search.outbox.lag.events", lagEvents, AtomicLong::get)
+                .register(meterRegistry);
+        Gauge.builder("search.outbox.lag.seconds", lagSeconds, AtomicLong::get)
+                .register(meterRegistry);
+        this.position = readPosition().orElseGet(this::head);
+    }
+
+    /**
+     * Applies all pending events to the index and refreshes the lag metrics.
+     */
+    @Scheduled(fixedDelayString = "${comment.index.outbox.poll-interval:1000}",
+            initialDelayString = "${comment.index.outbox.poll-interval:1000}")
+    public synchronized void poll() {
+        List<Event> events;
+        do {
+            events = jdbcTemplate.query(SELECT_EVENTS, (rs, rowNum) -> new Event(rs.getLong(1), rs.getLong(2),
+                    rs.getLong(3)), position.txId(), position.eventId(), batchSize);
+            if (!events.isEmpty()) {
+                apply(events);
+                searchResultCache.invalidate();
+                Event last = events.get(events.size() - 1);
+                position = new IndexPosition(last.txId(), last.id());
+                writePosition(position);
+                processed.increment(events.size());
+            }
+        } while (events.size() == batchSize);
+
+        jdbcTemplate.query(SELECT_LAG, rs -> {
+            lagEvents.set(rs.getLong(1));
+            lagSeconds.set(rs.getLong(2));
+        }, position.txId(), position.eventId());
+    }
+
+    /**
+     * Moves the position of this node back, so the events starting from the given one are applied again.
+     *
+     * @param fromEventId the ID of the first event to replay, zero replays the whole retained log.
+     * @return the new position.
+     */
+    public synchronized IndexPosition replayFrom(long fromEventId) {
+        Long txId = jdbcTemplate.queryForObject(SELECT_REPLAY_TX, Long.class, fromEventId);
+        if (txId != null) {
+            position = fromEventId <= 0 ? START : new IndexPosition(txId, fromEventId - 1);
+            writePosition(position);
+        }
+        return position;
+    }
+
+    /**
+     * Deletes the events older than the retention period.
+     */
+    @Scheduled(fixedDelayString = "${comment.index.outbox.prune-interval:3600000}",
+            initialDelayString = "${comment.index.outbox.prune-interval:3600000}")
+    public void prune() {
+        jdbcTemplate.update(DELETE_EXPIRED, LocalDateTime.now().minus(retention));
+    }
+
+    public IndexPosition getPosition() {
+        return position;
+    }
+
+    private void apply(List<Event> events) {
+        Set<Long> ids = events.stream()
+                .map(Event::commentId)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            SearchSession searchSession = Search.session(entityManager);
+            searchSession.indexingPlanSynchronizationStrategy(IndexingPlanSynchronizationStrategy.writeSync());
+            SearchIndexingPlan indexingPlan = searchSession.indexingPlan();
+            Map<Long, Comment> comments = entityManager
+                    .createQuery("select c from Comment c join fetch c.user where c.id in :ids", Comment.class)
+                    .setParameter("ids", ids)
+                    .getResultStream()
+                    .collect(Collectors.toMap(Comment::getId, Function.identity()));
+            ids.forEach(id -> {
+                Comment comment = comments.get(id);
+                if (comment != null) {
+                    indexingPlan.addOrUpdate(comment);
+                } else {
+                    indexingPlan.purge(Comment.class, id, null);
+                }
+            });
+            indexingPlan.execute();
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    private IndexPosition head() {
+        return jdbcTemplate.query(SELECT_HEAD, (rs, rowNum) -> new IndexPosition(rs.getLong(1), rs.getLong(2)))
+                .stream()
+                .findFirst()
+                .orElse(START);
+    }
+
+    private Optional<IndexPosition> readPosition() {
+        if (!Files.exists(positionFile)) {
+            return Optional.empty();
+        }
+        try {
+            String[] parts = Files.readString(positionFile, StandardCharsets.UTF_8).strip().split(":");
+            return Optional.of(new IndexPosition(Long.parseLong(parts[0]), Long.parseLong(parts[1])));
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring unreadable search index position in {}", positionFile, e);
+            return Optional.empty();
+        }
+    }
+
+    private void writePosition(IndexPosition indexPosition) {
+        try {
+            Files.writeString(positionFile, indexPosition.txId() + ":" + indexPosition.eventId(),
+                    StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            log.warn("Could not persist the search index position to {}", positionFile, e);
+        }
+    }
+
+    private record Event(long txId, long id, long commentId) {
+    }
+}
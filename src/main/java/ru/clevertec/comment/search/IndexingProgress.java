@@ -0,0 +1,130 @@
+package ru.clevertec.comment.search;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.search.mapper.pojo.massindexing.MassIndexingMonitor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of the startup mass indexing.
+ * It is passed to the mass indexer as its monitor and keeps the state of the last run, which gates readiness
+ * through {@link SearchIndexHealthIndicator}. The progress is published as the {@code search.index.documents.total},
+ * {@code search.index.documents.built} and {@code search.index.progress} gauges, the indexed documents are counted
+ * by the {@code search.index.documents.added} counter.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@Component
+public class IndexingProgress implements MassIndexingMonitor {
+
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong built = new AtomicLong();
+    private final Counter added;
+    private volatile State state = State.IDLE;
+    private volatile Throwable failure;
+
+    /**
+     * Constructor for IndexingProgress.
+     *
+     * @param meterRegistry the registry to publish the indexing metrics to.
+     */
+    public IndexingProgress(MeterRegistry meterRegistry) {
+        this.added = Counter.builder("search.index.documents.added")
+                .register(meterRegistry);
+        Gauge.builder("search.index.documents.total", total, AtomicLong::get)
+                .register(meterRegistry);
+        Gauge.builder("search.index.documents.built", built, AtomicLong::get)
+                .register(meterRegistry);
+        Gauge.builder("search.index.progress", this, IndexingProgress::ratio)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Resets the counters and marks the indexing as running.
+     */
+    public void started() {
+        total.set(0);
+        built.set(0);
+        failure = null;
+        state = State.RUNNING;
+    }
+
+    /**
+     * Marks the indexing as successfully completed.
+     */
+    public void completed() {
+        state = State.COMPLETED;
+    }
+
+    /**
+     * Marks the indexing as failed.
+     *
+     * @param cause the cause of the failure.
+     */
+    public void failed(Throwable cause) {
+        failure = cause;
+        state = State.FAILED;
+    }
+
+    /**
+     * Marks the startup indexing as skipped by configuration.
+     */
+    public void skipped() {
+        state = State.SKIPPED;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    public long getTotal() {
+        return total.get();
+    }
+
+    public long getBuilt() {
+        return built.get();
+    }
+
+    @Override
+    public void documentsAdded(long increment) {
+        added.increment(increment);
+    }
+
+    @Override
+    public void documentsBuilt(long increment) {
+        built.addAndGet(increment);
+    }
+
+    @Override
+    public void entitiesLoaded(long increment) {
+    }
+
+    @Override
+    public void addToTotalCount(long count) {
+        total.addAndGet(count);
+    }
+
+    @Override
+    public void indexingCompleted() {
+    }
+
+    private double ratio() {
+        long totalCount = total.get();
+        return totalCount == 0 ? 0 : (double) built.get() / totalCount;
+    }
+
+    /**
+     * State of the last startup indexing.
+     */
+    public enum State {
+        IDLE, SKIPPED, RUNNING, COMPLETED, FAILED
+    }
+}
@@ -4,6 +4,8 @@ import jakarta.validation.constraints.NotNull;
 import org.apache.lucene.analysis.charfilter.HTMLStripCharFilterFactory;
 import org.apache.lucene.analysis.core.LowerCaseFilterFactory;
 import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilterFactory;
+import org.apache.lucene.analysis.miscellaneous.TruncateTokenFilterFactory;
+import org.apache.lucene.analysis.ngram.EdgeNGramFilterFactory;
 import org.apache.lucene.analysis.snowball.SnowballPorterFilterFactory;
 import org.apache.lucene.analysis.standard.StandardTokenizerFactory;
 import org.hibernate.search.backend.lucene.analysis.LuceneAnalysisConfigurationContext;
@@ -22,6 +24,21 @@ public class LuceneConfig implements LuceneAnalysisConfigurer {
      */
     public static final String ENGLISH = "english";
 
+    /**
+     * Analyzer indexing every prefix of every word, used for autocomplete.
+     */
+    public static final String AUTOCOMPLETE_INDEX = "autocomplete_index";
+
+    /**
+     * Analyzer of autocomplete queries, which keeps the typed words whole up to the longest indexed prefix.
+     */
+    public static final String AUTOCOMPLETE_SEARCH = "autocomplete_search";
+
+    /**
+     * Length of the longest word prefix indexed for autocomplete, longer typed words are cut to it when searching.
+     */
+    public static final int AUTOCOMPLETE_MAX_PREFIX_LENGTH = 20;
+
     /**
      * Configures Lucene analysis with specified context.
      *
@@ -37,5 +54,22 @@ public class LuceneConfig implements LuceneAnalysisConfigurer {
                 .tokenFilter(SnowballPorterFilterFactory.class)
                 .param("language", "English")
                 .tokenFilter(ASCIIFoldingFilterFactory.class);
+        context.analyzer(AUTOCOMPLETE_INDEX)
+                .custom()
+                .tokenizer(StandardTokenizerFactory.class)
+                .charFilter(HTMLStripCharFilterFactory.class)
+                .tokenFilter(LowerCaseFilterFactory.class)
+                .tokenFilter(ASCIIFoldingFilterFactory.class)
+                .tokenFilter(EdgeNGramFilterFactory.class)
+                .param("minGramSize", "2")
+                .param("maxGramSize", String.valueOf(AUTOCOMPLETE_MAX_PREFIX_LENGTH));
+        context.analyzer(AUTOCOMPLETE_SEARCH)
+                .custom()
+                .tokenizer(StandardTokenizerFactory.class)
+                .charFilter(HTMLStripCharFilterFactory.class)
+                .tokenFilter(LowerCaseFilterFactory.class)
+                .tokenFilter(ASCIIFoldingFilterFactory.class)
+                .tokenFilter(TruncateTokenFilterFactory.class)
+                .param("prefixLength", String.valueOf(AUTOCOMPLETE_MAX_PREFIX_LENGTH));
     }
 }
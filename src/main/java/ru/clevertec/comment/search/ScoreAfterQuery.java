@@ -0,0 +1,175 @@
+package ru.clevertec.comment.search;
+
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.SortedNumericDocValues;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.FilterWeight;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.QueryVisitor;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.TwoPhaseIterator;
+import org.apache.lucene.search.Weight;
+
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Lucene query matching the documents of a scoring query that sort after a given hit in the
+ * (score descending, ID ascending) order, which is what search-after pagination needs.
+ * The wrapped query is evaluated as usual and only the hits at or before the cursor are dropped, so the collector
+ * keeps a queue of one page whatever the depth of the page. The ID is read from the doc values of a sortable
+ * numeric field, and only for hits scoring exactly as the cursor.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+public final class ScoreAfterQuery extends Query {
+
+    private static final float SCORE_AND_DOC_VALUES_COST = 10;
+
+    private final Query query;
+    private final String idField;
+    private final float afterScore;
+    private final long afterId;
+
+    /**
+     * Constructor for ScoreAfterQuery.
+     *
+     * @param query      the scoring query.
+     * @param idField    the sortable numeric field holding the ID the ties are broken by.
+     * @param afterScore the score of the last hit of the previous page.
+     * @param afterId    the ID of the last hit of the previous page.
+     */
+    public ScoreAfterQuery(Query query, String idField, float afterScore, long afterId) {
+        this.query = query;
+        this.idField = idField;
+        this.afterScore = afterScore;
+        this.afterId = afterId;
+    }
+
+    @Override
+    public Query rewrite(IndexReader reader) throws IOException {
+        Query rewritten = query.rewrite(reader);
+        return rewritten == query ? this : new ScoreAfterQuery(rewritten, idField, afterScore, afterId);
+    }
+
+    @Override
+    public Weight createWeight(IndexSearcher searcher, ScoreMode scoreMode, float boost) throws IOException {
+        Weight weight = query.createWeight(searcher, ScoreMode.COMPLETE, boost);
+        return new FilterWeight(this, weight) {
+
+            @Override
+            public Scorer scorer(LeafReaderContext context) throws IOException {
+                Scorer scorer = in.scorer(context);
+                if (scorer == null) {
+                    return null;
+                }
+                SortedNumericDocValues ids = DocValues.getSortedNumeric(context.reader(), idField);
+                return new ScoreAfterScorer(this, scorer, ids);
+            }
+
+            @Override
+            public boolean isCacheable(LeafReaderContext context) {
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public void visit(QueryVisitor visitor) {
+        query.visit(visitor.getSubVisitor(BooleanClause.Occur.MUST, this));
+    }
+
+    @Override
+    public String toString(String field) {
+        return "ScoreAfter(" + query.toString(field) + ", " + afterScore + ", " + idField + ":" + afterId + ")";
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return sameClassAs(other)
+                && query.equals(((ScoreAfterQuery) other).query)
+                && idField.equals(((ScoreAfterQuery) other).idField)
+                && Float.compare(afterScore, ((ScoreAfterQuery) other).afterScore) == 0
+                && afterId == ((ScoreAfterQuery) other).afterId;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * classHash() + Objects.hash(query, idField, afterScore, afterId);
+    }
+
+    private final class ScoreAfterScorer extends Scorer {
+
+        private final Scorer in;
+        private final TwoPhaseIterator twoPhase;
+
+        private ScoreAfterScorer(Weight weight, Scorer scorer, SortedNumericDocValues ids) {
+            super(weight);
+            this.in = scorer;
+            TwoPhaseIterator scorerTwoPhase = scorer.twoPhaseIterator();
+            DocIdSetIterator approximation = scorerTwoPhase == null
+                    ? scorer.iterator()
+                    : scorerTwoPhase.approximation();
+            this.twoPhase = new TwoPhaseIterator(approximation) {
+
+                @Override
+                public boolean matches() throws IOException {
+                    if (scorerTwoPhase != null && !scorerTwoPhase.matches()) {
+                        return false;
+                    }
+                    float score = scorer.score();
+                    if (score != afterScore) {
+                        return score < afterScore;
+                    }
+                    return ids.advanceExact(scorer.docID()) && ids.nextValue() > afterId;
+                }
+
+                @Override
+                public float matchCost() {
+                    return (scorerTwoPhase == null ? 0 : scorerTwoPhase.matchCost()) + SCORE_AND_DOC_VALUES_COST;
+                }
+            };
+        }
+
+        @Override
+        public int docID() {
+            return in.docID();
+        }
+
+        @Override
+        public float score() throws IOException {
+            return in.score();
+        }
+
+        @Override
+        public DocIdSetIterator iterator() {
+            return TwoPhaseIterator.asDocIdSetIterator(twoPhase);
+        }
+
+        @Override
+        public TwoPhaseIterator twoPhaseIterator() {
+            return twoPhase;
+        }
+
+        @Override
+        public int advanceShallow(int target) throws IOException {
+            return in.advanceShallow(target);
+        }
+
+        @Override
+        public float getMaxScore(int upTo) throws IOException {
+            return in.getMaxScore(upTo);
+        }
+
+        @Override
+        public void setMinCompetitiveScore(float minScore) throws IOException {
+            in.setMinCompetitiveScore(minScore);
+        }
+    }
+}
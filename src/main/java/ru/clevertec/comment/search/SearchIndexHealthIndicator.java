@@ -0,0 +1,34 @@
+package ru.clevertec.comment.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports the search index as out of service while the startup indexing runs and as down if it failed.
+ * The indicator is included in the readiness group, so a node indexing in the background takes no traffic
+ * until its index is complete.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@Component
+@RequiredArgsConstructor
+public class SearchIndexHealthIndicator implements HealthIndicator {
+
+    private final IndexingProgress indexingProgress;
+
+    @Override
+    public Health health() {
+        Health.Builder builder = switch (indexingProgress.getState()) {
+            case RUNNING -> Health.outOfService();
+            case FAILED -> Health.down().withException(indexingProgress.getFailure());
+            default -> Health.up();
+        };
+        return builder.withDetail("state", indexingProgress.getState())
+                .withDetail("documentsTotal", indexingProgress.getTotal())
+                .withDetail("documentsBuilt", indexingProgress.getBuilt())
+                .build();
+    }
+}
@@ -0,0 +1,194 @@
+package ru.clevertec.comment.service;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.clevertec.comment.entity.dto.ArchiveProgress;
+import ru.clevertec.comment.event.CommentsArchivedEvent;
+import ru.clevertec.comment.repository.CommentRepository;
+import ru.clevertec.comment.repository.NewsCommentCounterRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Archives all comments of a news in batches.
+ * Every batch runs in its own short transaction, so only a batch of rows is locked at a time, and publishes
+ * a {@link CommentsArchivedEvent} so that only the archived comments are evicted from caches.
+ * Only one job per news runs at a time, whether it was started synchronously or in the background.
+ * The progress of the last job of every news is kept in memory and can be polled while the job runs and for
+ * the retention period after it has finished.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@Component
+public class CommentArchiver {
+
+    private static final int NOTHING_LEFT = -1;
+
+    private final CommentRepository commentRepository;
+    private final NewsCommentCounterRepository counterRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskExecutor taskExecutor;
+    private final int batchSize;
+    private final Duration progressRetention;
+    private final Map<Long, ArchiveProgress> runningJobs = new ConcurrentHashMap<>();
+    private final Map<Long, ArchiveProgress> progressByNewsId = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor for CommentArchiver.
+     *
+     * @param commentRepository  the repository of comments.
+     * @param counterRepository  the repository of per-news comment counters.
+     * @param eventPublisher     the publisher of {@link CommentsArchivedEvent}.
+     * @param transactionManager the manager used to run every batch in its own transaction.
+     * @param taskExecutor       the executor running asynchronous jobs.
+     * @param batchSize          the number of comments archived in one transaction.
+     * @param progressRetention  how long the progress of a finished job is kept.
+     */
+    public CommentArchiver(CommentRepository commentRepository,
+                           NewsCommentCounterRepository counterRepository,
+                           ApplicationEventPublisher eventPublisher,
+                           PlatformTransactionManager transactionManager,
+                           @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+                           @Value("${comment.archive.batch-size:500}") int batchSize,
+                           @Value("${comment.archive.progress-retention:1h}") Duration progressRetention) {
+        this.commentRepository = commentRepository;
+        this.counterRepository = counterRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.taskExecutor = taskExecutor;
+        this.batchSize = batchSize;
+        this.progressRetention = progressRetention;
+    }
+
+    /**
+     * Archives all active comments of the news in the calling thread.
+     * If a job for the news is already running, no new job is started.
+     *
+     * @param newsId the ID of the news.
+     * @return the final progress of the job or the progress of the already running job.
+     */
+    public ArchiveProgress archive(Long newsId) {
+        ArchiveProgress started = ArchiveProgress.started(newsId);
+        ArchiveProgress running = start(started);
+
+        return running == null ? run(started) : running;
+    }
+
+    /**
+     * Starts archiving all active comments of the news in the background.
+     * If a job for the news is already running, no new job is started.
+     *
+     * @param newsId the ID of the news.
+     * @return the progress of the started or the already running job.
+     */
+    public ArchiveProgress archiveAsync(Long newsId) {
+        ArchiveProgress started = ArchiveProgress.started(newsId);
+        ArchiveProgress running = start(started);
+
+        if (running != null) {
+            return running;
+        }
+
+        try {
+            taskExecutor.execute(() -> run(started));
+        } catch (RuntimeException e) {
+            finish(started.finished(ArchiveProgress.Status.FAILED));
+            throw e;
+        }
+
+        return started;
+    }
+
+    /**
+     * Returns the progress of the last archiving job of the news.
+     *
+     * @param newsId the ID of the news.
+     * @return an Optional containing the progress or an empty Optional if no job was started.
+     */
+    public Optional<ArchiveProgress> getProgress(Long newsId) {
+        evictFinished();
+        return Optional.ofNullable(progressByNewsId.get(newsId));
+    }
+
+    /**
+     * Registers the job unless a job for the same news is already running.
+     *
+     * @return the progress of the already running job or {@code null} if the job was registered.
+     */
+    private ArchiveProgress start(ArchiveProgress started) {
+        evictFinished();
+        Long newsId = started.newsId();
+
+        ArchiveProgress running = runningJobs.putIfAbsent(newsId, started);
+        if (running != null) {
+            ArchiveProgress current = progressByNewsId.get(newsId);
+            return current != null && current.isRunning() ? current : running;
+        }
+
+        progressByNewsId.put(newsId, started);
+        return null;
+    }
+
+    private void finish(ArchiveProgress finished) {
+        progressByNewsId.put(finished.newsId(), finished);
+        runningJobs.remove(finished.newsId());
+    }
+
+    private void evictFinished() {
+        LocalDateTime threshold = LocalDateTime.now().minus(progressRetention);
+        progressByNewsId.values().removeIf(progress -> !progress.isRunning()
+                && !progress.finishedAt().isAfter(threshold));
+    }
+
+    private ArchiveProgress run(ArchiveProgress progress) {
+        Long newsId = progress.newsId();
+
+        try {
+            Integer archived = transactionTemplate.execute(status -> archiveBatch(newsId));
+            while (archived != null && archived != NOTHING_LEFT) {
+                progress = progress.withArchived(progress.archived() + archived);
+                progressByNewsId.put(newsId, progress);
+                archived = transactionTemplate.execute(status -> archiveBatch(newsId));
+            }
+        } catch (RuntimeException e) {
+            finish(progress.finished(ArchiveProgress.Status.FAILED));
+            throw e;
+        }
+
+        progress = progress.finished(ArchiveProgress.Status.COMPLETED);
+        finish(progress);
+        return progress;
+    }
+
+    /**
+     * Archives the next batch of active comments of the news.
+     *
+     * @return the number of archived comments or {@link #NOTHING_LEFT} if no active comments are left.
+     */
+    private int archiveBatch(Long newsId) {
+        List<Long> ids = commentRepository.findActiveIdsByNewsId(newsId, PageRequest.ofSize(batchSize));
+
+        if (ids.isEmpty()) {
+            return NOTHING_LEFT;
+        }
+
+        int archived = commentRepository.archiveByIds(newsId, ids);
+        counterRepository.increment(newsId, -archived, archived);
+        eventPublisher.publishEvent(new CommentsArchivedEvent(newsId, ids));
+
+        return archived;
+    }
+}
@@ -0,0 +1,210 @@
+package ru.clevertec.comment.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.clevertec.comment.entity.Comment;
+import ru.clevertec.comment.entity.User;
+import ru.clevertec.comment.entity.dto.ImportFormat;
+import ru.clevertec.comment.entity.dto.ImportResult;
+import ru.clevertec.comment.entity.dto.ImportedComment;
+import ru.clevertec.comment.event.NewsCommentsChangedEvent;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Bulk import of comment dumps through the PostgreSQL COPY protocol.
+ * A dump is copied into the unlogged {@code comment_import} staging table, missing authors are inserted with
+ * a single set-based statement, and the comments are moved into the comment table together with the per-news
+ * counters by one more statement, all in one transaction. IDs are not taken from the column defaults: the
+ * sequences are pooled, so every {@code nextval} reserves a block of the allocation size, and the statements
+ * draw one block per that many rows and number the rows inside it the way Hibernate does. The outbox trigger
+ * of the comment table queues the imported comments for indexing, and a {@link NewsCommentsChangedEvent} is
+ * published for every news that got comments, so its cached comment pages are dropped once the import commits.
+ * Concurrent imports are serialized by the lock the staging table truncation takes.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@Component
+public class CommentImporter {
+
+    private static final String COPY_STAGING = """
+            COPY comment_import (time, text, user_uuid, user_name, news_id, is_archive)
+            FROM STDIN WITH (FORMAT csv, HEADER %s)""";
+    private static final String MERGE_USERS = """
+            WITH missing AS (
+                SELECT DISTINCT ON (user_uuid) user_uuid, user_name
+                FROM comment_import i
+                WHERE NOT EXISTS (SELECT 1 FROM users u WHERE u.uuid = i.user_uuid)
+                ORDER BY user_uuid
+            ), numbered AS (
+                SELECT m.*, row_number() OVER () - 1 AS n FROM missing m
+            ), blocks AS (
+                SELECT b, nextval('users_id_seq') AS hi
+                FROM generate_series(0, ((SELECT count(*) FROM numbered) + %1$d - 1) / %1$d - 1) b
+            )
+            INSERT INTO users (id, uuid, user_name)
+            SELECT b.hi - %1$d + 1 + mod(m.n, %1$d), m.user_uuid, m.user_name
+            FROM numbered m
+            JOIN blocks b ON b.b = m.n / %1$d
+            ON CONFLICT (uuid) DO NOTHING""".formatted(User.ID_ALLOCATION_SIZE);
+    private static final String INSERT_COMMENTS = """
+            WITH staged AS (
+                SELECT i.time, i.text, u.id AS user_id, i.is_archive, i.news_id, row_number() OVER () - 1 AS n
+                FROM comment_import i
+                JOIN users u ON u.uuid = i.user_uuid
+            ), blocks AS (
+                SELECT b, nextval('comment_id_seq') AS hi
+                FROM generate_series(0, ((SELECT count(*) FROM staged) + %1$d - 1) / %1$d - 1) b
+            ), inserted AS (
+                INSERT INTO comment (id, time, text, user_id, is_archive, news_id)
+                SELECT b.hi - %1$d + 1 + mod(s.n, %1$d), coalesce(s.time, localtimestamp), s.text, s.user_id,
+                       coalesce(s.is_archive, false), s.news_id
+                FROM staged s
+                JOIN blocks b ON b.b = s.n / %1$d
+                RETURNING id, news_id, is_archive
+            ), counted AS (
+                INSERT INTO news_comment_counter AS c (news_id, active_count, archived_count)
+                SELECT news_id, count(*) FILTER (WHERE NOT is_archive), count(*) FILTER (WHERE is_archive)
+                FROM inserted
+                GROUP BY news_id
+                ON CONFLICT (news_id) DO UPDATE
+                SET active_count = c.active_count + excluded.active_count,
+                    archived_count = c.archived_count + excluded.archived_count
+            )
+            SELECT count(*), min(id), max(id), array_agg(DISTINCT news_id) FROM inserted""".formatted(Comment.ID_ALLOCATION_SIZE);
+    private static final int COPY_BUFFER_SIZE = 1 << 16;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Constructor for CommentImporter.
+     *
+     * @param jdbcTemplate       the template running the import statements.
+     * @param objectMapper       the mapper reading NDJSON dumps.
+     * @param transactionManager the manager used to run the import in one transaction.
+     * @param eventPublisher     the publisher of {@link NewsCommentsChangedEvent}.
+     */
+    public CommentImporter(JdbcTemplate jdbcTemplate,
+                           ObjectMapper objectMapper,
+                           PlatformTransactionManager transactionManager,
+                           ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Imports a comment dump.
+     *
+     * @param dump   the dump to import.
+     * @param format the format of the dump.
+     * @return the number and the ID range of the imported comments.
+     * @throws IllegalArgumentException if an NDJSON line is malformed.
+     */
+    public ImportResult importComments(InputStream dump, ImportFormat format) {
+        return transactionTemplate.execute(status -> {
+            jdbcTemplate.execute("TRUNCATE comment_import");
+            jdbcTemplate.execute((ConnectionCallback<Long>) connection -> copy(connection, dump, format));
+            jdbcTemplate.execute("ANALYZE comment_import");
+            jdbcTemplate.update(MERGE_USERS);
+            InsertedComments inserted = jdbcTemplate.queryForObject(INSERT_COMMENTS, (rs, rowNum) ->
+                    new InsertedComments(new ImportResult(rs.getLong(1), rs.getObject(2, Long.class),
+                            rs.getObject(3, Long.class)), newsIds(rs.getArray(4))));
+            jdbcTemplate.execute("TRUNCATE comment_import");
+            inserted.newsIds().forEach(newsId -> eventPublisher.publishEvent(new NewsCommentsChangedEvent(newsId)));
+            return inserted.result();
+        });
+    }
+
+    private List<Long> newsIds(Array newsIds) throws SQLException {
+        return newsIds == null ? List.of() : List.of((Long[]) newsIds.getArray());
+    }
+
+    private long copy(Connection connection, InputStream dump, ImportFormat format) throws SQLException {
+        PGConnection pgConnection = connection.unwrap(PGConnection.class);
+
+        try {
+            if (format == ImportFormat.CSV) {
+                return pgConnection.getCopyAPI().copyIn(COPY_STAGING.formatted(true), dump, COPY_BUFFER_SIZE);
+            }
+            return copyNdjson(pgConnection, dump);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private long copyNdjson(PGConnection pgConnection, InputStream dump) throws SQLException, IOException {
+        PGCopyOutputStream copyStream = new PGCopyOutputStream(pgConnection, COPY_STAGING.formatted(false),
+                COPY_BUFFER_SIZE);
+
+        try (MappingIterator<ImportedComment> comments = objectMapper.readerFor(ImportedComment.class)
+                .readValues(dump)) {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(copyStream, StandardCharsets.UTF_8),
+                    COPY_BUFFER_SIZE);
+            while (comments.hasNextValue()) {
+                writeCsvRow(writer, comments.nextValue());
+            }
+            writer.flush();
+            return copyStream.endCopy();
+        } catch (IOException | RuntimeException e) {
+            if (copyStream.isActive()) {
+                copyStream.cancelCopy();
+            }
+            if (e instanceof JsonProcessingException jsonException) {
+                throw new IllegalArgumentException("Malformed comment dump: " + jsonException.getOriginalMessage(), e);
+            }
+            throw e;
+        }
+    }
+
+    private void writeCsvRow(Writer writer, ImportedComment comment) throws IOException {
+        writer.write(comment.time() == null ? "" : comment.time().toString());
+        writer.write(',');
+        writeCsvValue(writer, comment.text());
+        writer.write(',');
+        writer.write(comment.user() == null || comment.user().uuid() == null ? "" : comment.user().uuid().toString());
+        writer.write(',');
+        writeCsvValue(writer, comment.user() == null ? null : comment.user().userName());
+        writer.write(',');
+        writer.write(comment.newsId() == null ? "" : comment.newsId().toString());
+        writer.write(',');
+        writer.write(Boolean.toString(comment.archived()));
+        writer.write('\n');
+    }
+
+    private void writeCsvValue(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private record InsertedComments(ImportResult result, List<Long> newsIds) {
+    }
+}
@@ -1,10 +1,20 @@
 package ru.clevertec.comment.service;
 
+import ru.clevertec.comment.entity.dto.ArchiveProgress;
 import ru.clevertec.comment.entity.dto.CommentRequest;
 import ru.clevertec.comment.entity.dto.CommentResponse;
+import ru.clevertec.comment.entity.dto.CommentSuggestion;
+import ru.clevertec.comment.entity.dto.ImportFormat;
+import ru.clevertec.comment.entity.dto.ImportResult;
+import ru.clevertec.comment.entity.dto.IndexPosition;
+import ru.clevertec.comment.util.CursorPaginationResponse;
 import ru.clevertec.comment.util.PaginationResponse;
+import ru.clevertec.comment.util.SearchCursorResponse;
+import ru.clevertec.comment.util.SliceResponse;
 
+import java.io.InputStream;
 import java.util.List;
+import java.util.function.Consumer;
 
 
 public interface CommentService {
@@ -19,17 +29,41 @@ public interface CommentService {
 
     PaginationResponse<CommentResponse> getAllFromArchive(int pageSize, int numberPage);
 
+    SliceResponse<CommentResponse> getAllSlice(int pageSize, int numberPage);
+
+    SliceResponse<CommentResponse> getAllFromArchiveSlice(int pageSize, int numberPage);
+
     CommentResponse create(CommentRequest commentDto);
 
+    List<CommentResponse> createAll(List<CommentRequest> commentDtos);
+
+    ImportResult importComments(InputStream dump, ImportFormat format);
+
+    IndexPosition replayIndexEvents(long fromEventId);
+
     CommentResponse update(Long id, CommentRequest commentDto);
 
     PaginationResponse<CommentResponse> getCommentsByIdNews(Long idNews, int pageSize, int numberPage);
 
     PaginationResponse<CommentResponse> getCommentsByIdNewsFromArchive(Long idNews, int pageSize, int numberPage);
 
+    void exportCommentsByIdNews(Long idNews, Consumer<CommentResponse> consumer);
+
+    CursorPaginationResponse<CommentResponse> getAllByCursor(String after, int limit);
+
+    CursorPaginationResponse<CommentResponse> getCommentsByIdNewsByCursor(Long idNews, String after, int limit);
+
     void archive(Long id);
 
-    void archiveByNewsId(Long newsId);
+    ArchiveProgress archiveByNewsId(Long newsId);
+
+    ArchiveProgress archiveByNewsIdAsync(Long newsId);
+
+    ArchiveProgress getArchiveProgress(Long newsId);
+
+    List<CommentResponse> search(String searchValue, Long newsId, Integer offset, Integer limit);
+
+    SearchCursorResponse<CommentResponse> searchByCursor(String searchValue, Long newsId, String after, int limit);
 
-    List<CommentResponse> search(String searchValue,  Integer offset, Integer limit);
+    List<CommentSuggestion> suggest(String prefix, Long newsId, int limit);
 }
@@ -2,29 +2,73 @@ package ru.clevertec.comment.service;
 
 import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.util.QueryBuilder;
+import org.hibernate.graph.GraphSemantic;
+import org.hibernate.search.backend.lucene.LuceneBackend;
+import org.hibernate.search.backend.lucene.LuceneExtension;
+import org.hibernate.search.engine.search.predicate.dsl.PredicateFinalStep;
+import org.hibernate.search.engine.search.predicate.dsl.SearchPredicateFactory;
+import org.hibernate.search.engine.search.projection.SearchProjection;
+import org.hibernate.search.engine.search.projection.dsl.SearchProjectionFactory;
 import org.hibernate.search.engine.search.query.SearchResult;
 import org.hibernate.search.engine.search.sort.dsl.SearchSortFactory;
 import org.hibernate.search.mapper.orm.Search;
+import org.hibernate.search.mapper.orm.common.EntityReference;
 import org.hibernate.search.mapper.orm.session.SearchSession;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.clevertec.comment.cache.SearchResultCache;
+import ru.clevertec.comment.datasource.ReadFromPrimary;
 import ru.clevertec.comment.entity.Comment;
+import ru.clevertec.comment.entity.NewsCommentCounter;
 import ru.clevertec.comment.entity.User;
+import ru.clevertec.comment.entity.dto.ArchiveProgress;
 import ru.clevertec.comment.entity.dto.CommentRequest;
 import ru.clevertec.comment.entity.dto.CommentResponse;
+import ru.clevertec.comment.entity.dto.CommentSuggestion;
+import ru.clevertec.comment.entity.dto.ImportFormat;
+import ru.clevertec.comment.entity.dto.ImportResult;
+import ru.clevertec.comment.entity.dto.IndexPosition;
+import ru.clevertec.comment.event.NewsCommentsChangedEvent;
 import ru.clevertec.comment.mapper.CommentMapper;
 import ru.clevertec.comment.repository.CommentRepository;
+import ru.clevertec.comment.repository.NewsCommentCounterRepository;
+import ru.clevertec.comment.search.IndexOutboxPoller;
+import ru.clevertec.comment.search.LuceneConfig;
+import ru.clevertec.comment.search.ScoreAfterQuery;
+import ru.clevertec.comment.util.CommentCursor;
+import ru.clevertec.comment.util.CursorPaginationResponse;
 import ru.clevertec.comment.util.PaginationResponse;
+import ru.clevertec.comment.util.SearchCursor;
+import ru.clevertec.comment.util.SearchCursorResponse;
+import ru.clevertec.comment.util.SliceResponse;
 import ru.clevertec.exceptionhandlerstarter.exception.EntityNotFoundException;
 import ru.clevertec.loggingstarter.annotation.Loggable;
 
+import java.io.InputStream;
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service implementation for managing comments on news entities.
@@ -42,11 +86,32 @@ public class CommentServiceImpl implements CommentService {
     private static final float USERNAME_BOOST_FACTOR = 1.1f;
     private static final String FIELD_USERNAME = "user.userName";
     private static final String FIELD_TEXT = "text";
+    private static final String FIELD_ARCHIVED = "isArchived";
+    private static final String FIELD_NEWS_ID = "newsId";
+    private static final String FIELD_ID = "id";
+    private static final String FIELD_USERNAME_AUTOCOMPLETE = "user." + User.AUTOCOMPLETE_USER_NAME;
+    private static final int SNIPPET_LENGTH = 100;
+    private static final Sort COMMENT_ORDER = Sort.by("time", "id");
 
     private final CommentRepository commentRepository;
+    private final NewsCommentCounterRepository counterRepository;
     private final CommentMapper commentMapper;
     private final EntityManager entityManager;
     private final UserService userService;
+    private final CommentArchiver commentArchiver;
+    private final CommentImporter commentImporter;
+    private final IndexOutboxPoller indexOutboxPoller;
+    private final SearchResultCache searchResultCache;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${comment.search.load-entities:false}")
+    private boolean searchLoadsEntities;
+
+    @Value("${comment.search.total-hit-count-threshold:1000}")
+    private long searchHitCountThreshold;
+
+    @Value("${comment.search.suggest-timeout:50ms}")
+    private Duration suggestTimeout;
 
     /**
      * Retrieves a comment by its ID.
@@ -56,15 +121,12 @@ public class CommentServiceImpl implements CommentService {
      * @throws EntityNotFoundException if the comment is not found or is archived.
      */
     @Override
-    @Cacheable(value = "api-cache",key = "#id")
+    @Transactional(readOnly = true)
+    @Cacheable(value = "api-cache", key = "#id", sync = true)
+    @ReadFromPrimary
     public CommentResponse get(Long id) {
-        Optional<Comment> optionalComment = commentRepository.findById(id);
-
-        if (optionalComment.isEmpty() || optionalComment.get().isArchived()) {
-            throw EntityNotFoundException.of(Comment.class, id);
-        }
-
-        return commentMapper.toViewModel(optionalComment.get());
+        return commentRepository.findActiveResponseById(id)
+                .orElseThrow(() -> EntityNotFoundException.of(Comment.class, id));
     }
 
     /**
@@ -76,14 +138,10 @@ public class CommentServiceImpl implements CommentService {
      * @throws EntityNotFoundException if the comment is not found or is archived.
      */
     @Override
+    @Transactional(readOnly = true)
     public CommentResponse getCommentByNewsId(Long commentId, Long newsId) {
-        Optional<Comment> optionalComment = commentRepository.findCommentByIdAndNewsIdAndIsArchivedIsFalse(commentId, newsId);
-
-        if (optionalComment.isEmpty() || optionalComment.get().isArchived()) {
-            throw EntityNotFoundException.of(Comment.class, commentId);
-        }
-
-        return commentMapper.toViewModel(optionalComment.get());
+        return commentRepository.findActiveResponseByIdAndNewsId(commentId, newsId)
+                .orElseThrow(() -> EntityNotFoundException.of(Comment.class, commentId));
     }
 
     /**
@@ -94,15 +152,12 @@ public class CommentServiceImpl implements CommentService {
      * @throws EntityNotFoundException if the archived comment is not found or is not archived.
      */
     @Override
-    @Cacheable(value = "api-cache",key = "#id")
+    @Transactional(readOnly = true)
+    @Cacheable(value = "api-cache", key = "#id", sync = true)
+    @ReadFromPrimary
     public CommentResponse getFromArchive(Long id) {
-        Optional<Comment> optionalComment = commentRepository.findById(id);
-
-        if (optionalComment.isEmpty() || !optionalComment.get().isArchived()) {
-            throw EntityNotFoundException.of(Comment.class, id);
-        }
-
-        return commentMapper.toViewModel(optionalComment.get());
+        return commentRepository.findArchivedResponseById(id)
+                .orElseThrow(() -> EntityNotFoundException.of(Comment.class, id));
     }
 
     /**
@@ -113,13 +168,14 @@ public class CommentServiceImpl implements CommentService {
      * @return A {@link PaginationResponse} containing a list of {@link CommentResponse} objects.
      */
     @Override
+    @Transactional(readOnly = true)
     public PaginationResponse<CommentResponse> getAll(int pageSize, int numberPage) {
-        PageRequest pageRequest = PageRequest.of(numberPage - 1, pageSize);
-        Page<Comment> commentPage = commentRepository.findAllByIsArchivedIsFalse(pageRequest);
+        PageRequest pageRequest = PageRequest.of(numberPage - 1, pageSize, COMMENT_ORDER);
+        Page<CommentResponse> commentPage = commentRepository.findActiveResponses(pageRequest);
         PaginationResponse<CommentResponse> paginationResponse = new PaginationResponse<>();
         paginationResponse.setCountPage(commentPage.getTotalPages());
         paginationResponse.setPageNumber(numberPage);
-        paginationResponse.setContent(commentMapper.toViewModelList(commentPage.getContent()));
+        paginationResponse.setContent(commentPage.getContent());
 
         return paginationResponse;
     }
@@ -132,43 +188,138 @@ public class CommentServiceImpl implements CommentService {
      * @return A {@link PaginationResponse} containing a list of {@link CommentResponse} objects.
      */
     @Override
+    @Transactional(readOnly = true)
     public PaginationResponse<CommentResponse> getAllFromArchive(int pageSize, int numberPage) {
-        PageRequest pageRequest = PageRequest.of(numberPage - 1, pageSize);
-        Page<Comment> commentPage = commentRepository.findAllByIsArchivedIsTrue(pageRequest);
+        PageRequest pageRequest = PageRequest.of(numberPage - 1, pageSize, COMMENT_ORDER);
+        Page<CommentResponse> commentPage = commentRepository.findArchivedResponses(pageRequest);
         PaginationResponse<CommentResponse> paginationResponse = new PaginationResponse<>();
         paginationResponse.setCountPage(commentPage.getTotalPages());
         paginationResponse.setPageNumber(numberPage);
-        paginationResponse.setContent(commentMapper.toViewModelList(commentPage.getContent()));
+        paginationResponse.setContent(commentPage.getContent());
 
         return paginationResponse;
     }
 
     /**
-     * Creates a new comment.
+     * Retrieves a slice of active comments without counting the total number of pages.
+     *
+     * @param pageSize   The number of comments per page.
+     * @param numberPage The page number to retrieve.
+     * @return A {@link SliceResponse} containing a list of {@link CommentResponse} objects.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public SliceResponse<CommentResponse> getAllSlice(int pageSize, int numberPage) {
+        PageRequest pageRequest = PageRequest.of(numberPage - 1, pageSize, COMMENT_ORDER);
+        Slice<CommentResponse> commentSlice = commentRepository.findActiveResponseSlice(pageRequest);
+        SliceResponse<CommentResponse> sliceResponse = new SliceResponse<>();
+        sliceResponse.setHasNext(commentSlice.hasNext());
+        sliceResponse.setPageNumber(numberPage);
+        sliceResponse.setContent(commentSlice.getContent());
+
+        return sliceResponse;
+    }
+
+    /**
+     * Retrieves a slice of archived comments without counting the total number of pages.
+     *
+     * @param pageSize   The number of archived comments per page.
+     * @param numberPage The page number to retrieve.
+     * @return A {@link SliceResponse} containing a list of {@link CommentResponse} objects.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public SliceResponse<CommentResponse> getAllFromArchiveSlice(int pageSize, int numberPage) {
+        PageRequest pageRequest = PageRequest.of(numberPage - 1, pageSize, COMMENT_ORDER);
+        Slice<CommentResponse> commentSlice = commentRepository.findArchivedResponseSlice(pageRequest);
+        SliceResponse<CommentResponse> sliceResponse = new SliceResponse<>();
+        sliceResponse.setHasNext(commentSlice.hasNext());
+        sliceResponse.setPageNumber(numberPage);
+        sliceResponse.setContent(commentSlice.getContent());
+
+        return sliceResponse;
+    }
+
+    /**
+     * Creates a new comment and increments the active comments counter of its news.
      *
      * @param commentDto The {@link CommentRequest} containing the information for the new comment.
      * @return A {@link CommentResponse} representing the newly created comment.
      */
     @Override
     @Transactional
-    @Cacheable(value = "api-cache",key = "#commentDto.user + #commentDto.text")
     public CommentResponse create(CommentRequest commentDto) {
         Comment comment = commentMapper.toEntity(commentDto);
-        User user = userService.getByUuiD(commentDto.user().uuid()).orElse(null);
+        comment.setUser(userService.getOrCreate(commentDto.user()));
+        comment.setArchived(false);
+        Comment savedComment = commentRepository.save(comment);
+        counterRepository.increment(savedComment.getNewsId(), 1, 0);
+        eventPublisher.publishEvent(new NewsCommentsChangedEvent(savedComment.getNewsId()));
 
-        if (user == null) {
-            user = userService.create(commentDto.user());
-            comment.setUser(user);
-        } else {
-            comment.setUser(user);
-        }
+        return commentMapper.toViewModel(savedComment);
+    }
 
-        comment.setArchived(false);
-        return commentMapper.toViewModel(commentRepository.save(comment));
+    /**
+     * Creates a batch of comments in one transaction.
+     * Authors are resolved with a single query and missing ones are created together; comments get
+     * pooled sequence ids, so Hibernate sends their inserts as JDBC batches. The active comments
+     * counter of every affected news is incremented once.
+     *
+     * @param commentDtos The list of {@link CommentRequest} containing the information for the new comments.
+     * @return A list of {@link CommentResponse} representing the newly created comments in request order.
+     */
+    @Override
+    @Transactional
+    public List<CommentResponse> createAll(List<CommentRequest> commentDtos) {
+        Map<UUID, User> users = userService.getOrCreateAll(commentDtos.stream()
+                .map(CommentRequest::user)
+                .toList());
+        List<Comment> comments = commentDtos.stream()
+                .map(commentDto -> {
+                    Comment comment = commentMapper.toEntity(commentDto);
+                    comment.setUser(users.get(commentDto.user().uuid()));
+                    comment.setArchived(false);
+                    return comment;
+                })
+                .toList();
+
+        List<Comment> savedComments = commentRepository.saveAll(comments);
+        savedComments.stream()
+                .collect(Collectors.groupingBy(Comment::getNewsId, Collectors.counting()))
+                .forEach((newsId, count) -> {
+                    counterRepository.increment(newsId, count, 0);
+                    eventPublisher.publishEvent(new NewsCommentsChangedEvent(newsId));
+                });
+
+        return commentMapper.toViewModelList(savedComments);
+    }
+
+    /**
+     * Imports a comment dump in bulk, bypassing the entity layer.
+     *
+     * @param dump   The dump to import.
+     * @param format The format of the dump.
+     * @return An {@link ImportResult} with the number and the ID range of the imported comments.
+     */
+    @Override
+    public ImportResult importComments(InputStream dump, ImportFormat format) {
+        return commentImporter.importComments(dump, format);
+    }
+
+    /**
+     * Moves the search index of this node back in the comment event log, so the events are applied again.
+     *
+     * @param fromEventId The ID of the first event to replay, zero replays the whole retained log.
+     * @return The new {@link IndexPosition} of this node.
+     */
+    @Override
+    public IndexPosition replayIndexEvents(long fromEventId) {
+        return indexOutboxPoller.replayFrom(fromEventId);
     }
 
     /**
-     * Updates an existing comment.
+     * Updates an existing comment. A comment moved to another news is moved between the active comments
+     * counters of both news.
      *
      * @param id         The ID of the comment to update.
      * @param commentDto The {@link CommentRequest} containing the updated information for the comment.
@@ -184,41 +335,78 @@ public class CommentServiceImpl implements CommentService {
         if (optionalComment.isEmpty() || optionalComment.get().isArchived()) {
             throw EntityNotFoundException.of(Comment.class, id);
         }
+        Long previousNewsId = optionalComment.get().getNewsId();
         Comment updatedComment = commentRepository.save(commentMapper.merge(optionalComment.get(), commentDto));
+        eventPublisher.publishEvent(new NewsCommentsChangedEvent(previousNewsId));
+        if (!previousNewsId.equals(updatedComment.getNewsId())) {
+            counterRepository.increment(previousNewsId, -1, 0);
+            counterRepository.increment(updatedComment.getNewsId(), 1, 0);
+            eventPublisher.publishEvent(new NewsCommentsChangedEvent(updatedComment.getNewsId()));
+        }
 
         return commentMapper.toViewModel(updatedComment);
     }
 
     /**
-     * Archives a comment by setting its archived status to true.
+     * Archives a comment by setting its archived status to true and updates the counters of its news.
      *
      * @param id The ID of the comment to archive.
      * @throws EntityNotFoundException if the comment is not found.
      */
     @Override
     @Transactional
-    @CacheEvict(value = "api-cache",key = "id")
+    @CacheEvict(value = "api-cache",key = "#id")
     public void archive(Long id) {
         Comment comment = commentRepository.findById(id).orElseThrow(
                 () -> EntityNotFoundException.of(Comment.class, id)
         );
-        comment.setArchived(true);
-        commentRepository.save(comment);
+        if (!comment.isArchived()) {
+            comment.setArchived(true);
+            commentRepository.save(comment);
+            counterRepository.increment(comment.getNewsId(), -1, 1);
+            eventPublisher.publishEvent(new NewsCommentsChangedEvent(comment.getNewsId()));
+        }
     }
 
     /**
-     * Archives all comments associated with a news ID.
+     * Archives all comments associated with a news ID in batches, each batch in its own transaction.
      *
      * @param newsId The ID of the news for which comments should be archived.
+     * @return The final {@link ArchiveProgress} of the job.
      */
     @Override
-    @Transactional
-    public void archiveByNewsId(Long newsId) {
-        commentRepository.archiveByNewsId(newsId);
+    public ArchiveProgress archiveByNewsId(Long newsId) {
+        return commentArchiver.archive(newsId);
+    }
+
+    /**
+     * Starts archiving all comments associated with a news ID in the background.
+     *
+     * @param newsId The ID of the news for which comments should be archived.
+     * @return The {@link ArchiveProgress} of the started or the already running job.
+     */
+    @Override
+    public ArchiveProgress archiveByNewsIdAsync(Long newsId) {
+        return commentArchiver.archiveAsync(newsId);
+    }
+
+    /**
+     * Retrieves the progress of the last archiving job of a news.
+     *
+     * @param newsId The ID of the news.
+     * @return The {@link ArchiveProgress} of the job.
+     * @throws EntityNotFoundException if no job was started for the news.
+     */
+    @Override
+    public ArchiveProgress getArchiveProgress(Long newsId) {
+        return commentArchiver.getProgress(newsId)
+                .orElseThrow(() -> EntityNotFoundException.of(ArchiveProgress.class, newsId));
     }
 
     /**
      * Retrieves a paginated list of active comments associated with a news ID.
+     * The number of pages is computed from the per-news counters instead of a count query.
+     * Pages are cached under the current version of the news, which every change of its comments moves forward.
      *
      * @param idNews     The ID of the news for which comments should be retrieved.
      * @param pageSize   The number of comments per page.
@@ -226,19 +414,49 @@ public class CommentServiceImpl implements CommentService {
      * @return A {@link PaginationResponse} containing a list of {@link CommentResponse} objects.
      */
     @Override
+    @Transactional(readOnly = true)
+    @Cacheable(value = "news-comment-pages", key = "@newsVersions.pageKey(#idNews, #pageSize, #numberPage)",
+            sync = true)
+    @ReadFromPrimary
     public PaginationResponse<CommentResponse> getCommentsByIdNews(Long idNews, int pageSize, int numberPage) {
-        PageRequest pageRequest = PageRequest.of(numberPage - 1, pageSize);
-        Page<Comment> commentPage = commentRepository.findAllByIsArchivedIsFalseAndNewsId(idNews, pageRequest);
+        PageRequest pageRequest = PageRequest.of(numberPage - 1, pageSize, COMMENT_ORDER);
+        Slice<CommentResponse> commentSlice = commentRepository.findActiveResponsesByNewsId(idNews, pageRequest);
+        long total = counterRepository.findById(idNews)
+                .map(NewsCommentCounter::getActiveCount)
+                .orElse(0L);
         PaginationResponse<CommentResponse> paginationResponse = new PaginationResponse<>();
-        paginationResponse.setCountPage(commentPage.getTotalPages());
+        paginationResponse.setCountPage(countPages(total, pageSize));
         paginationResponse.setPageNumber(numberPage);
-        paginationResponse.setContent(commentMapper.toViewModelList(commentPage.getContent()));
+        paginationResponse.setContent(commentSlice.getContent());
 
         return paginationResponse;
     }
 
+    /**
+     * Passes every active comment associated with a news ID to the consumer in time order.
+     * Comments are read through a database cursor and the persistence context is cleared after every
+     * fetched chunk, so memory use does not depend on the number of comments of the news.
+     *
+     * @param idNews   The ID of the news for which comments should be exported.
+     * @param consumer The consumer receiving the comments one by one.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void exportCommentsByIdNews(Long idNews, Consumer<CommentResponse> consumer) {
+        try (Stream<Comment> comments = commentRepository.streamActiveByNewsId(idNews)) {
+            int exported = 0;
+            for (Comment comment : (Iterable<Comment>) comments::iterator) {
+                consumer.accept(commentMapper.toViewModel(comment));
+                if (++exported % CommentRepository.STREAM_FETCH_SIZE == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+    }
+
     /**
      * Retrieves a paginated list of not active comments associated with a news ID.
+     * The number of pages is computed from the per-news counters instead of a count query.
      *
      * @param idNews     The ID of the news for which comments should be retrieved.
      * @param pageSize   The number of comments per page.
@@ -246,47 +464,274 @@ public class CommentServiceImpl implements CommentService {
      * @return A {@link PaginationResponse} containing a list of {@link CommentResponse} objects.
      */
     @Override
+    @Transactional(readOnly = true)
     public PaginationResponse<CommentResponse> getCommentsByIdNewsFromArchive(Long idNews, int pageSize, int numberPage) {
-        PageRequest pageRequest = PageRequest.of(numberPage - 1, pageSize);
-        Page<Comment> commentPage = commentRepository.findAllByIsArchivedIsTrueAndNewsId(idNews, pageRequest);
+        PageRequest pageRequest = PageRequest.of(numberPage - 1, pageSize, COMMENT_ORDER);
+        Slice<CommentResponse> commentSlice = commentRepository.findArchivedResponsesByNewsId(idNews, pageRequest);
+        long total = counterRepository.findById(idNews)
+                .map(NewsCommentCounter::getArchivedCount)
+                .orElse(0L);
         PaginationResponse<CommentResponse> paginationResponse = new PaginationResponse<>();
-        paginationResponse.setCountPage(commentPage.getTotalPages());
+        paginationResponse.setCountPage(countPages(total, pageSize));
         paginationResponse.setPageNumber(numberPage);
-        paginationResponse.setContent(commentMapper.toViewModelList(commentPage.getContent()));
+        paginationResponse.setContent(commentSlice.getContent());
 
         return paginationResponse;
     }
 
     /**
-     * Searches for comments based on a search value with boosted fields without using Stream.
-     * Uses Hibernate Search to perform a search and maps the results to {@link CommentResponse} objects.
+     * Retrieves active comments using keyset pagination ordered by time and ID.
+     * Every page is resolved by an index seek, so deep pages cost the same as the first one.
+     *
+     * @param after The opaque cursor returned with the previous page, or {@code null} for the first page.
+     * @param limit The maximum number of comments per page.
+     * @return A {@link CursorPaginationResponse} containing comments and the cursor of the next page.
+     * @throws IllegalArgumentException if the cursor is malformed.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPaginationResponse<CommentResponse> getAllByCursor(String after, int limit) {
+        PageRequest pageRequest = PageRequest.ofSize(limit + 1);
+        List<CommentResponse> comments;
+
+        if (after == null) {
+            comments = commentRepository.findFirstActiveResponses(pageRequest);
+        } else {
+            CommentCursor cursor = CommentCursor.decode(after);
+            comments = commentRepository.findActiveResponsesAfter(cursor.time(), cursor.id(), pageRequest);
+        }
+
+        return toCursorResponse(comments, limit);
+    }
+
+    /**
+     * Retrieves active comments associated with a news ID using keyset pagination ordered by time and ID.
+     *
+     * @param idNews The ID of the news for which comments should be retrieved.
+     * @param after  The opaque cursor returned with the previous page, or {@code null} for the first page.
+     * @param limit  The maximum number of comments per page.
+     * @return A {@link CursorPaginationResponse} containing comments and the cursor of the next page.
+     * @throws IllegalArgumentException if the cursor is malformed.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPaginationResponse<CommentResponse> getCommentsByIdNewsByCursor(Long idNews, String after, int limit) {
+        PageRequest pageRequest = PageRequest.ofSize(limit + 1);
+        List<CommentResponse> comments;
+
+        if (after == null) {
+            comments = commentRepository.findFirstActiveResponsesByNewsId(idNews, pageRequest);
+        } else {
+            CommentCursor cursor = CommentCursor.decode(after);
+            comments = commentRepository.findActiveResponsesByNewsIdAfter(idNews, cursor.time(), cursor.id(), pageRequest);
+        }
+
+        return toCursorResponse(comments, limit);
+    }
+
+    /**
+     * Searches for active comments based on a search value with boosted fields.
+     * Archived comments and comments of other news are excluded by filter clauses of the Lucene query,
+     * so every fetched hit is returned and no page comes back short.
+     * Hits are projected into {@link CommentResponse} straight from the fields stored in the index, unless
+     * {@code comment.search.load-entities} is set, in which case they are loaded from the database.
+     * Pages are served from the {@link SearchResultCache} until the next change of the index.
      *
      * @param searchValue The value to search for in the "username" and "text" fields.
+     * @param newsId      The ID of the news to search in, or null to search in all news.
      * @param offset      The offset for pagination.
      * @param limit       The maximum number of results to fetch.
      * @return A List of {@link CommentResponse} objects representing the search results.
      */
     @Override
-    public List<CommentResponse> search(String searchValue, Integer offset, Integer limit) {
+    @Transactional(readOnly = true)
+    public List<CommentResponse> search(String searchValue, Long newsId, Integer offset, Integer limit) {
+        return searchResultCache.get(searchValue, newsId, offset, limit,
+                () -> searchIndex(searchValue, newsId, offset, limit));
+    }
+
+    private List<CommentResponse> searchIndex(String searchValue, Long newsId, Integer offset, Integer limit) {
         SearchSession searchSession = Search.session(entityManager);
 
-        SearchResult<Comment> searchResult = searchSession.search(Comment.class)
-                .where(comment -> comment
-                        .bool()
-                        .with(b -> {
-                            b.must(comment.matchAll());
-                            b.must(comment.match()
-                                    .field(FIELD_USERNAME)
-                                    .boost(USERNAME_BOOST_FACTOR)
-                                    .field(FIELD_TEXT)
-                                    .boost(TEXT_BOOST_FACTOR)
-                                    .matching(searchValue));
-                        }))
+        if (searchLoadsEntities) {
+            List<Comment> hits = searchSession.search(Comment.class)
+                    .where(comment -> searchPredicate(comment, searchValue, newsId))
+                    .sort(SearchSortFactory::score)
+                    .loading(options -> options.graph(Comment.WITH_USER_GRAPH, GraphSemantic.FETCH))
+                    .totalHitCountThreshold(searchHitCountThreshold)
+                    .fetchHits(offset, limit);
+            return commentMapper.toViewModelList(hits);
+        }
+
+        return searchSession.search(Comment.class)
+                .select(CommentResponse.class)
+                .where(comment -> searchPredicate(comment, searchValue, newsId))
+                .sort(SearchSortFactory::score)
+                .totalHitCountThreshold(searchHitCountThreshold)
+                .fetchHits(offset, limit);
+    }
+
+    /**
+     * Searches for active comments page by page with search-after pagination on the (score, id) order.
+     * The text query is built with the same analyzer and boosts as {@link #search}, and hits up to the cursor
+     * are skipped inside Lucene, so a deep page costs as much as the first one. Hits are counted exactly only up to
+     * {@code comment.search.total-hit-count-threshold}, above it the count is a lower bound.
+     *
+     * @param searchValue The value to search for in the "username" and "text" fields.
+     * @param newsId      The ID of the news to search in, or null to search in all news.
+     * @param after       The cursor returned with the previous page, or null for the first page.
+     * @param limit       The maximum number of results to fetch.
+     * @return A {@link SearchCursorResponse} with the hits, the number of hits from this page on and the cursor
+     * of the next page, which is null on the last page.
+     * @throws IllegalArgumentException if the cursor is malformed.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public SearchCursorResponse<CommentResponse> searchByCursor(String searchValue, Long newsId, String after,
+                                                                int limit) {
+        Optional<Query> textQuery = textQuery(searchValue);
+        if (textQuery.isEmpty()) {
+            return new SearchCursorResponse<>(null, 0, true, List.of());
+        }
+        Query scoringQuery = after == null
+                ? textQuery.get()
+                : afterCursor(textQuery.get(), SearchCursor.decode(after));
+
+        SearchResult<ScoredHit> result = Search.session(entityManager)
+                .search(Comment.class)
+                .select(hit -> hit.composite()
+                        .from(hitProjection(hit), hit.score().toProjection())
+                        .as(ScoredHit::new))
+                .where(comment -> activeCommentsPredicate(comment,
+                        comment.extension(LuceneExtension.get()).fromLuceneQuery(scoringQuery), newsId))
+                .sort(comment -> comment.score().then().field(FIELD_ID))
+                .loading(options -> options.graph(Comment.WITH_USER_GRAPH, GraphSemantic.FETCH))
+                .totalHitCountThreshold(searchHitCountThreshold)
+                .fetch(limit + 1);
+
+        List<ScoredHit> hits = result.hits();
+        String nextCursor = null;
+        if (hits.size() > limit) {
+            hits = hits.subList(0, limit);
+            ScoredHit last = hits.get(limit - 1);
+            nextCursor = new SearchCursor(last.score(), last.comment().id()).encode();
+        }
+        return new SearchCursorResponse<>(nextCursor, result.total().hitCountLowerBound(),
+                result.total().isHitCountExact(), hits.stream().map(ScoredHit::comment).toList());
+    }
+
+    /**
+     * Suggests active comments whose text or author name has words starting with the given prefix.
+     * The prefix is matched against edge n-grams indexed at write time, so no wildcard expansion happens at query
+     * time, and only the ID and the stored text are read from the index, the database is not touched. The query
+     * stops collecting once {@code comment.search.suggest-timeout} is elapsed and returns the hits found so far.
+     *
+     * @param prefix The typed prefix, one or more words.
+     * @param newsId The ID of the news to search in, or null to search in all news.
+     * @param limit  The maximum number of suggestions.
+     * @return A List of {@link CommentSuggestion} objects with the ID and the beginning of the text of the comments.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<CommentSuggestion> suggest(String prefix, Long newsId, int limit) {
+        return Search.session(entityManager)
+                .search(Comment.class)
+                .select(hit -> hit.composite()
+                        .from(hit.id(Long.class), hit.field(FIELD_TEXT, String.class))
+                        .as((id, text) -> new CommentSuggestion(id, snippet(text))))
+                .where(comment -> activeCommentsPredicate(comment, comment.match()
+                        .field(FIELD_USERNAME_AUTOCOMPLETE)
+                        .boost(USERNAME_BOOST_FACTOR)
+                        .field(Comment.AUTOCOMPLETE_TEXT)
+                        .boost(TEXT_BOOST_FACTOR)
+                        .matching(prefix), newsId))
                 .sort(SearchSortFactory::score)
-                .fetch(offset, limit);
-        List<Comment> commentAllList = searchResult.hits();
-        List<Comment> result = commentAllList.stream().filter(comment -> !comment.isArchived()).toList();
+                .totalHitCountThreshold(limit)
+                .truncateAfter(suggestTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .fetchHits(limit);
+    }
+
+    private PredicateFinalStep searchPredicate(SearchPredicateFactory comment, String searchValue, Long newsId) {
+        return activeCommentsPredicate(comment, comment.match()
+                .field(FIELD_USERNAME)
+                .boost(USERNAME_BOOST_FACTOR)
+                .field(FIELD_TEXT)
+                .boost(TEXT_BOOST_FACTOR)
+                .matching(searchValue), newsId);
+    }
+
+    private PredicateFinalStep activeCommentsPredicate(SearchPredicateFactory comment, PredicateFinalStep scoring,
+                                                       Long newsId) {
+        return comment
+                .bool()
+                .with(b -> {
+                    b.must(scoring);
+                    b.filter(comment.match()
+                            .field(FIELD_ARCHIVED)
+                            .matching(false));
+                    if (newsId != null) {
+                        b.filter(comment.match()
+                                .field(FIELD_NEWS_ID)
+                                .matching(newsId));
+                    }
+                });
+    }
+
+    private SearchProjection<CommentResponse> hitProjection(SearchProjectionFactory<EntityReference, Comment> hit) {
+        if (searchLoadsEntities) {
+            return hit.composite()
+                    .from(hit.entity())
+                    .as(commentMapper::toViewModel)
+                    .toProjection();
+        }
+        return hit.composite()
+                .as(CommentResponse.class)
+                .toProjection();
+    }
+
+    private Optional<Query> textQuery(String searchValue) {
+        Analyzer analyzer = Search.mapping(entityManager.getEntityManagerFactory())
+                .backend()
+                .unwrap(LuceneBackend.class)
+                .analyzer(LuceneConfig.ENGLISH)
+                .orElseThrow();
+        QueryBuilder queryBuilder = new QueryBuilder(analyzer);
+        Query userNameQuery = queryBuilder.createBooleanQuery(FIELD_USERNAME, searchValue);
+        Query textQuery = queryBuilder.createBooleanQuery(FIELD_TEXT, searchValue);
+        if (userNameQuery == null || textQuery == null) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new BooleanQuery.Builder()
+                .add(new BoostQuery(userNameQuery, USERNAME_BOOST_FACTOR), BooleanClause.Occur.SHOULD)
+                .add(new BoostQuery(textQuery, TEXT_BOOST_FACTOR), BooleanClause.Occur.SHOULD)
+                .build());
+    }
+
+    private String snippet(String text) {
+        return text.length() <= SNIPPET_LENGTH ? text : text.substring(0, SNIPPET_LENGTH);
+    }
+
+    private Query afterCursor(Query textQuery, SearchCursor cursor) {
+        return new ScoreAfterQuery(textQuery, FIELD_ID, cursor.score(), cursor.id());
+    }
+
+    private CursorPaginationResponse<CommentResponse> toCursorResponse(List<CommentResponse> comments, int limit) {
+        CursorPaginationResponse<CommentResponse> cursorResponse = new CursorPaginationResponse<>();
+
+        if (comments.size() > limit) {
+            comments = comments.subList(0, limit);
+            cursorResponse.setNextCursor(CommentCursor.of(comments.get(limit - 1)).encode());
+        }
+        cursorResponse.setContent(comments);
+
+        return cursorResponse;
+    }
+
+    private int countPages(long total, int pageSize) {
+        return (int) ((total + pageSize - 1) / pageSize);
+    }
 
-        return commentMapper.toViewModelList(result);
+    private record ScoredHit(CommentResponse comment, Float score) {
     }
 }
@@ -3,6 +3,8 @@ package ru.clevertec.comment.service;
 import ru.clevertec.comment.entity.User;
 import ru.clevertec.comment.entity.dto.UserRequest;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -11,4 +13,8 @@ public interface UserService {
     User create(UserRequest userRequest);
 
     Optional<User> getByUuiD(UUID uuid);
+
+    User getOrCreate(UserRequest userRequest);
+
+    Map<UUID, User> getOrCreateAll(Collection<UserRequest> userRequests);
 }
@@ -2,13 +2,25 @@ package ru.clevertec.comment.service;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.clevertec.comment.cache.UserCache;
 import ru.clevertec.comment.entity.User;
 import ru.clevertec.comment.entity.dto.UserRequest;
 import ru.clevertec.comment.mapper.UserMapper;
 import ru.clevertec.comment.repository.UserRepository;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Service implementation for user-related operations.
@@ -23,6 +35,7 @@ public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
     private final UserMapper userMapper;
+    private final UserCache userCache;
 
     /**
      * Creates a new user in the repository.
@@ -47,4 +60,72 @@ public class UserServiceImpl implements UserService {
         return userRepository.findByUuid(uuid);
     }
 
+    /**
+     * Returns the user with the requested UUID, creating it if it does not exist yet.
+     * Cached users are returned without a database round-trip, otherwise the user is looked up by UUID and only
+     * a missing one is inserted by a single upsert statement; the upsert draws an ID from the sequence even when
+     * the row exists, so it is not run for known users. The result is cached once the surrounding transaction
+     * commits.
+     *
+     * @param userRequest the DTO containing the user's information.
+     * @return the existing or the newly created user, possibly detached.
+     */
+    @Transactional
+    public User getOrCreate(UserRequest userRequest) {
+        Optional<User> cachedUser = userCache.get(userRequest.uuid());
+
+        if (cachedUser.isPresent()) {
+            return cachedUser.get();
+        }
+
+        User user = userRepository.findByUuid(userRequest.uuid())
+                .orElseGet(() -> userRepository.upsert(userRequest.uuid(), userRequest.userName()));
+        cacheAfterCommit(user);
+
+        return user;
+    }
+
+    /**
+     * Resolves users for the given requests, creating the ones that do not exist yet.
+     * Existing users are loaded with one IN query and the missing ones are saved together,
+     * so their inserts can be sent to the database as a single JDBC batch.
+     *
+     * @param userRequests the DTOs containing the users' information, UUIDs may repeat.
+     * @return a map of users by their UUID.
+     */
+    @Transactional
+    public Map<UUID, User> getOrCreateAll(Collection<UserRequest> userRequests) {
+        Set<UUID> uuids = userRequests.stream()
+                .map(UserRequest::uuid)
+                .collect(Collectors.toSet());
+        Map<UUID, User> users = userRepository.findAllByUuidIn(uuids).stream()
+                .collect(Collectors.toMap(User::getUuid, Function.identity(), (first, second) -> first, HashMap::new));
+        List<User> missingUsers = userRequests.stream()
+                .filter(userRequest -> !users.containsKey(userRequest.uuid()))
+                .collect(Collectors.toMap(UserRequest::uuid, Function.identity(),
+                        (first, second) -> first, LinkedHashMap::new))
+                .values()
+                .stream()
+                .map(userMapper::toEntity)
+                .toList();
+
+        userRepository.saveAll(missingUsers).forEach(user -> users.put(user.getUuid(), user));
+
+        return users;
+    }
+
+    private void cacheAfterCommit(User user) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            userCache.put(user);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                userCache.put(user);
+            }
+        });
+    }
+
 }
@@ -0,0 +1,57 @@
+package ru.clevertec.comment.util;
+
+import ru.clevertec.comment.entity.dto.CommentResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position of a comment in the (time, id) ordering used by keyset pagination.
+ * The cursor is passed to clients as an opaque URL-safe Base64 token.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+public record CommentCursor(LocalDateTime time, Long id) {
+
+    private static final String DELIMITER = ",";
+
+    /**
+     * Creates a cursor pointing at the given comment.
+     *
+     * @param comment the last comment of the current page.
+     * @return the cursor positioned after the given comment.
+     */
+    public static CommentCursor of(CommentResponse comment) {
+        return new CommentCursor(comment.time(), comment.id());
+    }
+
+    /**
+     * Decodes a cursor previously produced by {@link #encode()}.
+     *
+     * @param token the opaque cursor token.
+     * @return the decoded cursor.
+     * @throws InvalidCursorException if the token is malformed.
+     */
+    public static CommentCursor decode(String token) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = value.split(DELIMITER, 2);
+            return new CommentCursor(LocalDateTime.parse(parts[0]), Long.valueOf(parts[1]));
+        } catch (IllegalArgumentException | DateTimeParseException | ArrayIndexOutOfBoundsException e) {
+            throw new InvalidCursorException(token, e);
+        }
+    }
+
+    /**
+     * Encodes the cursor into an opaque token.
+     *
+     * @return the URL-safe token.
+     */
+    public String encode() {
+        String value = time + DELIMITER + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,67 @@
+package ru.clevertec.comment.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+import ru.clevertec.comment.entity.dto.ImportFormat;
+import ru.clevertec.comment.entity.dto.ImportResult;
+import ru.clevertec.comment.service.CommentService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Command line entry point of the bulk comment import.
+ * Started with {@code --comment.import.file=<path>} and optionally {@code --comment.import.format=CSV},
+ * it imports the dump once the application is up and then closes the application context, so the JVM exits once
+ * the application has shut down. A failed import propagates out of {@link SpringApplication#run} instead, which
+ * closes the context and ends the JVM with a non-zero exit code.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty("comment.import.file")
+public class CommentImportRunner implements ApplicationRunner {
+
+    private final CommentService commentService;
+    private final ConfigurableApplicationContext context;
+    private final Path file;
+    private final ImportFormat format;
+
+    /**
+     * Constructor for CommentImportRunner.
+     *
+     * @param commentService the service importing the dump.
+     * @param context        the application context closed after the import.
+     * @param file           the path of the dump.
+     * @param format         the format of the dump.
+     */
+    public CommentImportRunner(CommentService commentService,
+                               ConfigurableApplicationContext context,
+                               @Value("${comment.import.file}") Path file,
+                               @Value("${comment.import.format:NDJSON}") ImportFormat format) {
+        this.commentService = commentService;
+        this.context = context;
+        this.file = file;
+        this.format = format;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        ImportResult result;
+        try (InputStream dump = Files.newInputStream(file)) {
+            result = commentService.importComments(dump, format);
+        }
+        log.info("Imported {} comments from {}, IDs {}..{}", result.imported(), file, result.firstId(), result.lastId());
+        SpringApplication.exit(context);
+    }
+}
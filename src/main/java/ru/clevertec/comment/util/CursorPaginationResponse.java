@@ -0,0 +1,16 @@
+package ru.clevertec.comment.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorPaginationResponse<T> {
+
+    private String nextCursor;
+    private List<T> content;
+}
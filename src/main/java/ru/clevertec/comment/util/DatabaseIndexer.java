@@ -3,36 +3,187 @@ package ru.clevertec.comment.util;
 import jakarta.annotation.PostConstruct;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.hibernate.search.mapper.orm.Search;
 import org.hibernate.search.mapper.orm.massindexing.MassIndexer;
 import org.hibernate.search.mapper.orm.session.SearchSession;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
+import ru.clevertec.comment.entity.Comment;
+import ru.clevertec.comment.search.IndexOutboxPoller;
+import ru.clevertec.comment.cache.SearchResultCache;
+import ru.clevertec.comment.search.IndexingProgress;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
 
 
 /**
  * Component class responsible for indexing data in the database.
+ * The startup indexing is configured by {@code comment.index.startup}: {@code FULL} rebuilds the whole index,
+ * {@code INCREMENTAL} indexes only the comments above the high-water mark persisted next to the index by the last
+ * completed run, and {@code SKIP} trusts the index already on disk. With {@code comment.index.background} the
+ * indexing starts once the application is ready and {@link IndexingProgress} keeps the node out of readiness
+ * until it completes, otherwise it runs before the application context is started. Only the comment index, the one
+ * the service searches, is maintained incrementally. The bean depends on {@link IndexOutboxPoller}, so the poller
+ * takes its position in the event log before the startup indexing reads the comments.
  *
  * @author Sergey Leshkevich
  * @version 1.0
  */
+@Slf4j
 @Component
-@RequiredArgsConstructor
+@DependsOn("indexOutboxPoller")
 public class DatabaseIndexer {
 
     private final EntityManagerFactory entityManagerFactory;
+    private final IndexingProgress indexingProgress;
+    private final SearchResultCache searchResultCache;
+    private final StartupMode startupMode;
+    private final boolean background;
+    private final int threads;
+    private final int batchSize;
+    private final int fetchSize;
+    private final Path highWaterMarkFile;
 
     /**
-     * Method annotated with {@code @PostConstruct} to perform data indexing upon bean initialization.
+     * Constructor for DatabaseIndexer.
      *
-     * @throws InterruptedException If the indexing process is interrupted.
+     * @param entityManagerFactory the factory of entity managers used by the mass indexer.
+     * @param indexingProgress     the monitor of the startup indexing.
+     * @param searchResultCache    the cache of search results invalidated once the indexing completes.
+     * @param startupMode          the kind of indexing run on startup.
+     * @param background           whether the startup indexing runs after the application is ready.
+     * @param threads              the number of threads loading entities in parallel.
+     * @param batchSize            the number of entities loaded in one batch by a thread.
+     * @param fetchSize            the fetch size of the query loading the IDs to index.
+     * @param highWaterMarkFile    the file keeping the highest comment ID covered by the last completed run.
+     */
+    public DatabaseIndexer(EntityManagerFactory entityManagerFactory,
+                           IndexingProgress indexingProgress,
+                           SearchResultCache searchResultCache,
+                           @Value("${comment.index.startup:FULL}") StartupMode startupMode,
+                           @Value("${comment.index.background:false}") boolean background,
+                           @Value("${comment.index.threads:4}") int threads,
+                           @Value("${comment.index.batch-size:50}") int batchSize,
+                           @Value("${comment.index.fetch-size:1000}") int fetchSize,
+                           @Value("${comment.index.high-water-mark-file:"
+                                  + "${spring.jpa.properties.hibernate.search.backend.directory.root:.}"
+                                  + "/comment-high-water-mark}") String highWaterMarkFile) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.indexingProgress = indexingProgress;
+        this.searchResultCache = searchResultCache;
+        this.startupMode = startupMode;
+        this.background = background;
+        this.threads = threads;
+        this.batchSize = batchSize;
+        this.fetchSize = fetchSize;
+        this.highWaterMarkFile = Path.of(highWaterMarkFile);
+    }
+
+    /**
+     * Runs the startup indexing upon bean initialization unless it is configured to run in the background.
      */
     @PostConstruct
-    private void indexData() throws InterruptedException {
+    void indexData() {
+        if (startupMode == StartupMode.SKIP) {
+            indexingProgress.skipped();
+        } else if (!background) {
+            index(startupMode).toCompletableFuture().join();
+        }
+    }
+
+    /**
+     * Starts the startup indexing in the background once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    void indexDataInBackground() {
+        if (startupMode != StartupMode.SKIP && background) {
+            index(startupMode);
+        }
+    }
+
+    private CompletionStage<?> index(StartupMode mode) {
         EntityManager entityManager = entityManagerFactory.createEntityManager();
         SearchSession searchSession = Search.session(entityManager);
-        MassIndexer indexer = searchSession.massIndexer();
-        indexer.startAndWait();
+        Long maxId = entityManager.createQuery("select max(c.id) from Comment c", Long.class).getSingleResult();
+        Optional<Long> highWaterMark = mode == StartupMode.INCREMENTAL
+                ? readHighWaterMark().filter(mark -> isIndexed(searchSession))
+                : Optional.empty();
+
+        MassIndexer indexer;
+        if (highWaterMark.isPresent()) {
+            indexer = searchSession.massIndexer(Comment.class)
+                    .purgeAllOnStart(false)
+                    .dropAndCreateSchemaOnStart(false);
+            indexer.type(Comment.class)
+                    .reindexOnly("e.id > :highWaterMark")
+                    .param("highWaterMark", highWaterMark.get());
+        } else {
+            indexer = searchSession.massIndexer();
+        }
+
+        indexingProgress.started();
+        return tune(indexer)
+                .monitor(indexingProgress)
+                .start()
+                .whenComplete((result, failure) -> {
+                    entityManager.close();
+                    searchResultCache.invalidate();
+                    if (failure != null) {
+                        log.error("Startup indexing failed", failure);
+                        indexingProgress.failed(failure);
+                        return;
+                    }
+                    if (maxId != null) {
+                        writeHighWaterMark(maxId);
+                    }
+                    indexingProgress.completed();
+                });
+    }
+
+    private MassIndexer tune(MassIndexer indexer) {
+        return indexer.threadsToLoadObjects(threads)
+                .batchSizeToLoadObjects(batchSize)
+                .idFetchSize(fetchSize);
+    }
+
+    private boolean isIndexed(SearchSession searchSession) {
+        return searchSession.search(Comment.class)
+                .where(f -> f.matchAll())
+                .fetchTotalHitCount() > 0;
+    }
+
+    private Optional<Long> readHighWaterMark() {
+        if (!Files.exists(highWaterMarkFile)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(Long.valueOf(Files.readString(highWaterMarkFile, StandardCharsets.UTF_8).strip()));
+        } catch (IOException | NumberFormatException e) {
+            return Optional.empty();
+        }
     }
-}
 
+    private void writeHighWaterMark(long mark) {
+        try {
+            Files.writeString(highWaterMarkFile, Long.toString(mark), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            log.warn("Could not persist the search index high-water mark to {}", highWaterMarkFile, e);
+        }
+    }
+
+    /**
+     * Kind of indexing run on startup.
+     */
+    public enum StartupMode {
+        FULL, INCREMENTAL, SKIP
+    }
+}
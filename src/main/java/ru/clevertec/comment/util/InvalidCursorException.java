@@ -0,0 +1,20 @@
+package ru.clevertec.comment.util;
+
+/**
+ * Thrown when a pagination cursor passed by a client cannot be decoded.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+public class InvalidCursorException extends IllegalArgumentException {
+
+    /**
+     * Constructor for InvalidCursorException.
+     *
+     * @param token the malformed cursor token.
+     * @param cause the decoding failure.
+     */
+    public InvalidCursorException(String token, Throwable cause) {
+        super("Invalid cursor: " + token, cause);
+    }
+}
@@ -4,12 +4,13 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.io.Serializable;
 import java.util.List;
 
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-public class PaginationResponse<T> {
+public class PaginationResponse<T> implements Serializable {
 
     private int pageNumber;
     private int countPage;
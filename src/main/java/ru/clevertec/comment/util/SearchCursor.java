@@ -0,0 +1,46 @@
+package ru.clevertec.comment.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of a search hit in the (score, id) ordering used by search-after pagination.
+ * The score is kept bit for bit, so the next page starts exactly after the hit. The cursor is passed to clients
+ * as an opaque URL-safe Base64 token.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+public record SearchCursor(float score, long id) {
+
+    private static final String DELIMITER = ",";
+    private static final int HEX_RADIX = 16;
+
+    /**
+     * Decodes a cursor previously produced by {@link #encode()}.
+     *
+     * @param token the opaque cursor token.
+     * @return the decoded cursor.
+     * @throws InvalidCursorException if the token is malformed.
+     */
+    public static SearchCursor decode(String token) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = value.split(DELIMITER, 2);
+            float score = Float.intBitsToFloat(Integer.parseUnsignedInt(parts[0], HEX_RADIX));
+            return new SearchCursor(score, Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new InvalidCursorException(token, e);
+        }
+    }
+
+    /**
+     * Encodes the cursor into an opaque token.
+     *
+     * @return the URL-safe token.
+     */
+    public String encode() {
+        String value = Integer.toHexString(Float.floatToIntBits(score)) + DELIMITER + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
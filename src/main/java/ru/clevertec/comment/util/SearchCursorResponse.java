@@ -0,0 +1,18 @@
+package ru.clevertec.comment.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SearchCursorResponse<T> {
+
+    private String nextCursor;
+    private long totalHitCount;
+    private boolean totalHitCountExact;
+    private List<T> content;
+}
@@ -0,0 +1,17 @@
+package ru.clevertec.comment.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SliceResponse<T> {
+
+    private int pageNumber;
+    private boolean hasNext;
+    private List<T> content;
+}
@@ -0,0 +1,209 @@
+package ru.clevertec.comment.aop;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import ru.clevertec.cache.Cache;
+import ru.clevertec.cache.CacheFactory;
+import ru.clevertec.comment.entity.dto.CommentResponse;
+import ru.clevertec.comment.util.CommentResponseTestBuilder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CommentAspectTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final Map<Long, CommentResponse> cached = new ConcurrentHashMap<>();
+    private final CommentAspect commentAspect = new CommentAspect(cacheFactory());
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldShareOneLoadBetweenConcurrentMissesForSameId() throws Throwable {
+        // given
+        CountDownLatch started = new CountDownLatch(1);
+        List<Future<CommentResponse>> results = new ArrayList<>();
+
+        // when
+        for (int i = 0; i < 8; i++) {
+            results.add(getAsync(blockedLoad(1L, started)));
+        }
+        started.await(TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+        awaitWaiting(7);
+        release.countDown();
+
+        // then
+        for (Future<CommentResponse> result : results) {
+            assertThat(result.get(TIMEOUT.toSeconds(), TimeUnit.SECONDS).id()).isEqualTo(1L);
+        }
+        assertThat(loads).hasValue(1);
+        assertThat(cached).containsKey(1L);
+    }
+
+    @Test
+    void shouldNotBlockMissForOtherIdWhileLoadIsRunning() throws Throwable {
+        // given
+        CountDownLatch started = new CountDownLatch(1);
+        getAsync(blockedLoad(1L, started));
+        started.await(TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+
+        // when
+        ProceedingJoinPoint otherLoad = load(2L);
+        CommentResponse actual = assertTimeoutPreemptively(TIMEOUT, () -> commentAspect.get(otherLoad));
+
+        // then
+        assertThat(actual.id()).isEqualTo(2L);
+    }
+
+    @Test
+    void shouldNotCacheLoadStartedBeforeUpdate() throws Throwable {
+        // given
+        CountDownLatch started = new CountDownLatch(1);
+        Future<CommentResponse> staleLoad = getAsync(blockedLoad(1L, started));
+        started.await(TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+        CommentResponse updated = response(1L, "Updated text");
+
+        // when
+        commentAspect.patch(joinPoint(1L, updated));
+        release.countDown();
+        staleLoad.get(TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+
+        // then
+        assertThat(cached.get(1L)).isEqualTo(updated);
+    }
+
+    @Test
+    void shouldRethrowFailedLoadAndNotCacheIt() throws Throwable {
+        // given
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        when(joinPoint.getArgs()).thenReturn(new Object[]{1L});
+        when(joinPoint.proceed()).thenThrow(new IllegalStateException("Database is down"));
+
+        // when
+        Throwable actual = catchThrowable(() -> commentAspect.get(joinPoint));
+
+        // then
+        assertThat(actual).isInstanceOf(IllegalStateException.class);
+        assertThat(cached).isEmpty();
+        verify(joinPoint).proceed();
+    }
+
+    @SuppressWarnings("unchecked")
+    private CacheFactory<Long, CommentResponse> cacheFactory() {
+        CacheFactory<Long, CommentResponse> cacheFactory = mock(CacheFactory.class);
+        Cache<Long, CommentResponse> cache = mock(Cache.class, delegatesTo(new MapCache(cached)));
+        when(cacheFactory.createCache()).thenReturn(cache);
+        return cacheFactory;
+    }
+
+    private Future<CommentResponse> getAsync(ProceedingJoinPoint joinPoint) {
+        return executor.submit(() -> {
+            try {
+                return commentAspect.get(joinPoint);
+            } catch (Exception | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    private ProceedingJoinPoint blockedLoad(Long id, CountDownLatch started) throws Throwable {
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        when(joinPoint.getArgs()).thenReturn(new Object[]{id});
+        when(joinPoint.proceed()).thenAnswer(invocation -> {
+            loads.incrementAndGet();
+            started.countDown();
+            release.await(TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+            return response(id, "Test text comment");
+        });
+        return joinPoint;
+    }
+
+    private ProceedingJoinPoint load(Long id) throws Throwable {
+        return joinPoint(id, response(id, "Test text comment"));
+    }
+
+    private ProceedingJoinPoint joinPoint(Long id, CommentResponse response) throws Throwable {
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        when(joinPoint.getArgs()).thenReturn(new Object[]{id});
+        when(joinPoint.proceed()).thenReturn(response);
+        return joinPoint;
+    }
+
+    private CommentResponse response(Long id, String text) {
+        return CommentResponseTestBuilder.aCommentResponse()
+                .withId(id)
+                .withText(text)
+                .build();
+    }
+
+    private void awaitWaiting(int threads) throws InterruptedException {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline && waitingThreads() < threads) {
+            Thread.sleep(10);
+        }
+    }
+
+    private long waitingThreads() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getState() == Thread.State.WAITING)
+                .filter(thread -> thread.getName().startsWith("pool-"))
+                .filter(thread -> isAwaitingLoad(thread.getStackTrace()))
+                .count();
+    }
+
+    private boolean isAwaitingLoad(StackTraceElement[] stackTrace) {
+        for (StackTraceElement element : stackTrace) {
+            if (element.getClassName().equals(CommentAspect.class.getName())
+                    && element.getMethodName().equals("await")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Delegate of the mocked cache, its methods take the erased parameter types of {@link Cache}.
+     */
+    private record MapCache(Map<Long, CommentResponse> map) {
+
+        public Object get(Object key) {
+            return map.get(key);
+        }
+
+        public void put(Object key, Object value) {
+            map.put((Long) key, (CommentResponse) value);
+        }
+
+        public void removeByKey(Object key) {
+            map.remove(key);
+        }
+    }
+}
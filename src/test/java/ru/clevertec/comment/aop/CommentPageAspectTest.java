@@ -0,0 +1,99 @@
+package ru.clevertec.comment.aop;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.clevertec.cache.Cache;
+import ru.clevertec.cache.CacheFactory;
+import ru.clevertec.comment.cache.LocalNewsVersions;
+import ru.clevertec.comment.entity.dto.CommentResponse;
+import ru.clevertec.comment.util.CommentResponseTestBuilder;
+import ru.clevertec.comment.util.PaginationResponse;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CommentPageAspectTest {
+
+    private final LocalNewsVersions newsVersions = new LocalNewsVersions();
+    private final ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+    private CommentPageAspect commentPageAspect;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Throwable {
+        CacheFactory<String, PaginationResponse<CommentResponse>> cacheFactory = mock(CacheFactory.class);
+        Cache<String, PaginationResponse<CommentResponse>> cache = mock(Cache.class,
+                delegatesTo(new MapCache(new ConcurrentHashMap<>())));
+        when(cacheFactory.createCache()).thenReturn(cache);
+        commentPageAspect = new CommentPageAspect(cacheFactory, newsVersions);
+        when(joinPoint.getArgs()).thenReturn(new Object[]{1L, 10, 1});
+        when(joinPoint.proceed()).thenReturn(new PaginationResponse<>(1, 1,
+                List.of(CommentResponseTestBuilder.aCommentResponse().build())));
+    }
+
+    @Test
+    void shouldServeRepeatedPageFromCache() throws Throwable {
+        // given
+        PaginationResponse<CommentResponse> expected = commentPageAspect.getCommentsByIdNews(joinPoint);
+
+        // when
+        PaginationResponse<CommentResponse> actual = commentPageAspect.getCommentsByIdNews(joinPoint);
+
+        // then
+        assertThat(actual).isEqualTo(expected);
+        verify(joinPoint, times(1)).proceed();
+    }
+
+    @Test
+    void shouldLoadPageAgainAfterNewsVersionMoved() throws Throwable {
+        // given
+        commentPageAspect.getCommentsByIdNews(joinPoint);
+
+        // when
+        newsVersions.increment(1L);
+        commentPageAspect.getCommentsByIdNews(joinPoint);
+
+        // then
+        verify(joinPoint, times(2)).proceed();
+    }
+
+    @Test
+    void shouldKeepPagesOfOtherNewsWhenNewsVersionMoved() throws Throwable {
+        // given
+        commentPageAspect.getCommentsByIdNews(joinPoint);
+
+        // when
+        newsVersions.increment(2L);
+        commentPageAspect.getCommentsByIdNews(joinPoint);
+
+        // then
+        verify(joinPoint, times(1)).proceed();
+    }
+
+    /**
+     * Delegate of the mocked cache, its methods take the erased parameter types of {@link Cache}.
+     */
+    private record MapCache(Map<Object, Object> map) {
+
+        public Object get(Object key) {
+            return map.get(key);
+        }
+
+        public void put(Object key, Object value) {
+            map.put(key, value);
+        }
+
+        public void removeByKey(Object key) {
+            map.remove(key);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package ru.clevertec.comment.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import ru.clevertec.comment.entity.dto.CommentResponse;
+import ru.clevertec.comment.util.CommentResponseTestBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CommentResponseRedisSerializerTest {
+
+    private final CommentResponseRedisSerializer serializer = new CommentResponseRedisSerializer();
+
+    @Test
+    void shouldRestoreSerializedComment() {
+        // given
+        CommentResponse comment = CommentResponseTestBuilder.aCommentResponse()
+                .withId(Long.MAX_VALUE)
+                .withText("Тестовый комментарий")
+                .build();
+
+        // when
+        CommentResponse actual = serializer.deserialize(serializer.serialize(comment));
+
+        // then
+        assertThat(actual).isEqualTo(comment);
+    }
+
+    @Test
+    void shouldRestoreMissingFields() {
+        // given
+        CommentResponse comment = CommentResponseTestBuilder.aCommentResponse()
+                .withTime(null)
+                .withUserResponse(null)
+                .withNewsId(null)
+                .build();
+
+        // when
+        CommentResponse actual = serializer.deserialize(serializer.serialize(comment));
+
+        // then
+        assertThat(actual).isEqualTo(comment);
+    }
+
+    @Test
+    void shouldTakeFarLessSpaceThanJdkSerialization() {
+        // given
+        CommentResponse comment = CommentResponseTestBuilder.aCommentResponse().build();
+
+        // when
+        int actual = serializer.serialize(comment).length;
+
+        // then
+        assertThat(actual).isLessThan(new JdkSerializationRedisSerializer().serialize(comment).length / 5);
+    }
+
+    @Test
+    void shouldRejectUnknownFormatVersion() {
+        // given
+        byte[] bytes = serializer.serialize(CommentResponseTestBuilder.aCommentResponse().build());
+        bytes[0] = 2;
+
+        // when, then
+        assertThatThrownBy(() -> serializer.deserialize(bytes))
+                .isInstanceOf(SerializationException.class)
+                .hasMessage("Unsupported comment format version 2");
+    }
+}
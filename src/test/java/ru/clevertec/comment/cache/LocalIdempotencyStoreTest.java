@@ -0,0 +1,155 @@
+package ru.clevertec.comment.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.clevertec.comment.entity.dto.CommentResponse;
+import ru.clevertec.comment.util.CommentResponseTestBuilder;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LocalIdempotencyStoreTest {
+
+    private static final Duration TIME_TO_LIVE = Duration.ofHours(1);
+    private static final Duration WAIT_TIMEOUT = Duration.ofSeconds(5);
+    private static final long NOW = 1_705_414_688_000L;
+
+    @Mock
+    private Clock clock;
+
+    private final AtomicInteger creations = new AtomicInteger();
+    private final Supplier<CommentResponse> creator = () -> CommentResponseTestBuilder.aCommentResponse()
+            .withId((long) creations.incrementAndGet())
+            .build();
+
+    @Test
+    void shouldReturnOriginalCommentForRepeatedKey() {
+        // given
+        LocalIdempotencyStore store = new LocalIdempotencyStore(TIME_TO_LIVE, WAIT_TIMEOUT, 10, clock);
+        when(clock.millis()).thenReturn(NOW, NOW + 1);
+        CommentResponse expected = store.computeIfAbsent("key", creator);
+
+        // when
+        CommentResponse actual = store.computeIfAbsent("key", creator);
+
+        // then
+        assertThat(actual).isEqualTo(expected);
+        assertThat(creations).hasValue(1);
+    }
+
+    @Test
+    void shouldCreateAgainAfterKeyExpired() {
+        // given
+        LocalIdempotencyStore store = new LocalIdempotencyStore(TIME_TO_LIVE, WAIT_TIMEOUT, 10, clock);
+        when(clock.millis()).thenReturn(NOW, NOW + TIME_TO_LIVE.toMillis() + 1);
+        store.computeIfAbsent("key", creator);
+
+        // when
+        CommentResponse actual = store.computeIfAbsent("key", creator);
+
+        // then
+        assertThat(actual.id()).isEqualTo(2L);
+        assertThat(creations).hasValue(2);
+    }
+
+    @Test
+    void shouldCreateAgainAfterFailedCreation() {
+        // given
+        LocalIdempotencyStore store = new LocalIdempotencyStore(TIME_TO_LIVE, WAIT_TIMEOUT, 10, clock);
+        when(clock.millis()).thenReturn(NOW);
+        assertThatThrownBy(() -> store.computeIfAbsent("key", () -> {
+            throw new IllegalStateException("Database is down");
+        })).isInstanceOf(IllegalStateException.class);
+
+        // when
+        CommentResponse actual = store.computeIfAbsent("key", creator);
+
+        // then
+        assertThat(actual.id()).isEqualTo(1L);
+    }
+
+    @Test
+    void shouldEvictOldestKeyWhenCapacityIsReached() {
+        // given
+        LocalIdempotencyStore store = new LocalIdempotencyStore(TIME_TO_LIVE, WAIT_TIMEOUT, 2, clock);
+        when(clock.millis()).thenReturn(NOW);
+        store.computeIfAbsent("first", creator);
+        CommentResponse second = store.computeIfAbsent("second", creator);
+        store.computeIfAbsent("third", creator);
+
+        // when
+        CommentResponse actualSecond = store.computeIfAbsent("second", creator);
+        CommentResponse actualFirst = store.computeIfAbsent("first", creator);
+
+        // then
+        assertThat(actualSecond).isEqualTo(second);
+        assertThat(actualFirst.id()).isEqualTo(4L);
+        assertThat(creations).hasValue(4);
+    }
+
+    @Test
+    void shouldShareConcurrentCreationWithSameKey() throws Exception {
+        // given
+        LocalIdempotencyStore store = new LocalIdempotencyStore(TIME_TO_LIVE, WAIT_TIMEOUT, 10, clock);
+        when(clock.millis()).thenReturn(NOW);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<CommentResponse> first = CompletableFuture.supplyAsync(() ->
+                store.computeIfAbsent("key", () -> {
+                    started.countDown();
+                    awaitLatch(release);
+                    return creator.get();
+                }));
+        started.await();
+
+        // when
+        CompletableFuture<CommentResponse> second = CompletableFuture.supplyAsync(() ->
+                store.computeIfAbsent("key", creator));
+        release.countDown();
+
+        // then
+        assertThat(second.get()).isEqualTo(first.get());
+        assertThat(creations).hasValue(1);
+    }
+
+    @Test
+    void shouldRejectRequestWaitingTooLongForCreationWithSameKey() throws Exception {
+        // given
+        LocalIdempotencyStore store = new LocalIdempotencyStore(TIME_TO_LIVE, Duration.ofMillis(10), 10, clock);
+        when(clock.millis()).thenReturn(NOW);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<CommentResponse> first = CompletableFuture.supplyAsync(() ->
+                store.computeIfAbsent("key", () -> {
+                    started.countDown();
+                    awaitLatch(release);
+                    return creator.get();
+                }));
+        started.await();
+
+        // when, then
+        assertThatThrownBy(() -> store.computeIfAbsent("key", creator))
+                .isInstanceOf(IdempotencyKeyInUseException.class);
+        release.countDown();
+        first.get();
+    }
+
+    private void awaitLatch(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
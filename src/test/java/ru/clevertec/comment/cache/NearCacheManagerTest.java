@@ -0,0 +1,150 @@
+package ru.clevertec.comment.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import ru.clevertec.comment.entity.dto.CommentResponse;
+import ru.clevertec.comment.util.CommentResponseTestBuilder;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs two nodes sharing an in-memory cache manager, which stands in for Redis, and an in-memory channel.
+ */
+class NearCacheManagerTest {
+
+    private static final String API_CACHE = "api-cache";
+
+    private final ConcurrentMapCacheManager sharedCacheManager = new ConcurrentMapCacheManager(API_CACHE);
+    private final List<NearCacheManager> nodes = new CopyOnWriteArrayList<>();
+    private final List<String> messages = new CopyOnWriteArrayList<>();
+    private final SimpleMeterRegistry firstNodeRegistry = new SimpleMeterRegistry();
+    private final NearCacheManager firstNode = node(firstNodeRegistry, 100);
+    private final NearCacheManager secondNode = node(new SimpleMeterRegistry(), 100);
+
+    @Test
+    void shouldServeRepeatedReadFromLocalTier() {
+        // given
+        sharedCacheManager.getCache(API_CACHE).put(1L, CommentResponseTestBuilder.aCommentResponse().build());
+        Cache cache = firstNode.getCache(API_CACHE);
+
+        // when
+        cache.get(1L);
+        cache.get(1L);
+
+        // then
+        assertThat(requests("l1", "hit")).isEqualTo(1);
+        assertThat(requests("l1", "miss")).isEqualTo(1);
+        assertThat(requests("l2", "hit")).isEqualTo(1);
+    }
+
+    @Test
+    void shouldInvalidateCopyOfOtherNodeOnUpdate() {
+        // given
+        CommentResponse updated = CommentResponseTestBuilder.aCommentResponse().withText("Updated text").build();
+        firstNode.getCache(API_CACHE).put(1L, CommentResponseTestBuilder.aCommentResponse().build());
+        secondNode.getCache(API_CACHE).get(1L);
+
+        // when
+        firstNode.getCache(API_CACHE).put(1L, updated);
+        Cache.ValueWrapper actual = secondNode.getCache(API_CACHE).get(1L);
+
+        // then
+        assertThat(actual).isNotNull();
+        assertThat(actual.get()).isEqualTo(updated);
+    }
+
+    @Test
+    void shouldInvalidateCopyOfOtherNodeOnEvict() {
+        // given
+        firstNode.getCache(API_CACHE).put(1L, CommentResponseTestBuilder.aCommentResponse().build());
+        secondNode.getCache(API_CACHE).get(1L);
+
+        // when
+        firstNode.getCache(API_CACHE).evict(1L);
+
+        // then
+        assertThat(secondNode.getCache(API_CACHE).get(1L)).isNull();
+    }
+
+    @Test
+    void shouldKeepOwnCopyAfterOwnUpdate() {
+        // given
+        Cache cache = firstNode.getCache(API_CACHE);
+
+        // when
+        cache.put(1L, CommentResponseTestBuilder.aCommentResponse().build());
+        cache.get(1L);
+
+        // then
+        assertThat(requests("l1", "hit")).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotAnnounceValueLoadedOnMiss() {
+        // given
+        Cache cache = firstNode.getCache(API_CACHE);
+        CommentResponse loaded = CommentResponseTestBuilder.aCommentResponse().build();
+
+        // when
+        CommentResponse actual = cache.get(1L, () -> loaded);
+
+        // then
+        assertThat(actual).isEqualTo(loaded);
+        assertThat(sharedCacheManager.getCache(API_CACHE).get(1L)).isNotNull();
+        assertThat(messages).isEmpty();
+        assertThat(requests("l2", "miss")).isEqualTo(1);
+    }
+
+    @Test
+    void shouldAnnounceWrittenValue() {
+        // given
+        Cache cache = firstNode.getCache(API_CACHE);
+
+        // when
+        cache.put(1L, CommentResponseTestBuilder.aCommentResponse().build());
+
+        // then
+        assertThat(messages).singleElement().asString().endsWith("|" + API_CACHE + "|1");
+    }
+
+    @Test
+    void shouldNotExceedLocalSize() {
+        // given
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        Cache cache = node(meterRegistry, 2).getCache(API_CACHE);
+
+        // when
+        for (long id = 1; id <= 5; id++) {
+            cache.put(id, CommentResponseTestBuilder.aCommentResponse().withId(id).build());
+        }
+
+        // then
+        assertThat(meterRegistry.get("cache.near.size").gauge().value()).isEqualTo(2);
+    }
+
+    private NearCacheManager node(SimpleMeterRegistry meterRegistry, int maxSize) {
+        NearCacheManager node = new NearCacheManager(sharedCacheManager,
+                message -> {
+                    messages.add(message);
+                    nodes.forEach(subscriber -> subscriber.onInvalidation(message));
+                },
+                meterRegistry, maxSize, Duration.ofMinutes(1), Clock.systemUTC());
+        nodes.add(node);
+        return node;
+    }
+
+    private double requests(String tier, String result) {
+        return firstNodeRegistry.get("cache.near.requests")
+                .tag("tier", tier)
+                .tag("result", result)
+                .counter()
+                .count();
+    }
+}
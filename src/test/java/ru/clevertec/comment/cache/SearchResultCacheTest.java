@@ -0,0 +1,82 @@
+package ru.clevertec.comment.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import ru.clevertec.comment.entity.dto.CommentResponse;
+import ru.clevertec.comment.search.IndexingProgress;
+import ru.clevertec.comment.util.CommentResponseTestBuilder;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchResultCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final IndexingProgress indexingProgress = new IndexingProgress(meterRegistry);
+    private final SearchResultCache searchResultCache = new SearchResultCache(10, indexingProgress, meterRegistry);
+    private final AtomicInteger searches = new AtomicInteger();
+    private final Supplier<List<CommentResponse>> search = () -> {
+        searches.incrementAndGet();
+        return List.of(CommentResponseTestBuilder.aCommentResponse().build());
+    };
+
+    @Test
+    void shouldServeRepeatedSearchFromCacheWhateverCaseAndSpacing() {
+        // given
+        searchResultCache.get("Test text", 1L, 0, 10, search);
+
+        // when
+        List<CommentResponse> actual = searchResultCache.get("  test   TEXT ", 1L, 0, 10, search);
+
+        // then
+        assertThat(actual).hasSize(1);
+        assertThat(searches).hasValue(1);
+        assertThat(meterRegistry.get("search.cache.requests").tag("result", "hit").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("search.cache.hit.ratio").gauge().value()).isEqualTo(0.5);
+    }
+
+    @Test
+    void shouldSearchAgainAfterIndexChanged() {
+        // given
+        searchResultCache.get("text", null, 0, 10, search);
+        searchResultCache.invalidate();
+
+        // when
+        searchResultCache.get("text", null, 0, 10, search);
+        searchResultCache.get("text", null, 0, 10, search);
+
+        // then
+        assertThat(searches).hasValue(2);
+        assertThat(meterRegistry.get("search.cache.requests").tag("result", "stale").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("search.cache.generation").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotCachePagesWhileIndexIsRebuilt() {
+        // given
+        indexingProgress.started();
+
+        // when
+        searchResultCache.get("text", null, 0, 10, search);
+        searchResultCache.get("text", null, 0, 10, search);
+
+        // then
+        assertThat(searches).hasValue(2);
+        assertThat(meterRegistry.get("search.cache.size").gauge().value()).isZero();
+    }
+
+    @Test
+    void shouldNotExceedCapacity() {
+        // when
+        for (int offset = 0; offset < 50; offset += 5) {
+            searchResultCache.get("text", null, offset, 5, search);
+        }
+        searchResultCache.get("other", null, 0, 5, search);
+
+        // then
+        assertThat(meterRegistry.get("search.cache.size").gauge().value()).isEqualTo(10);
+    }
+}
@@ -0,0 +1,63 @@
+package ru.clevertec.comment.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import ru.clevertec.comment.entity.User;
+import ru.clevertec.comment.util.UserTestBuilder;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void shouldReturnDetachedCopyOfCachedUser() {
+        // given
+        UserCache userCache = new UserCache(10, meterRegistry);
+        User user = UserTestBuilder.aUser().build();
+        userCache.put(user);
+
+        // when
+        Optional<User> actual = userCache.get(user.getUuid());
+
+        // then
+        assertThat(actual).contains(user);
+        assertThat(actual.get()).isNotSameAs(user);
+    }
+
+    @Test
+    void shouldNotExceedCapacity() {
+        // given
+        UserCache userCache = new UserCache(2, meterRegistry);
+
+        // when
+        for (long id = 1; id <= 5; id++) {
+            userCache.put(UserTestBuilder.aUser().withId(id).withUuid(UUID.randomUUID()).build());
+        }
+
+        // then
+        assertThat(meterRegistry.get("user.cache.size").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldCountHitsAndMisses() {
+        // given
+        UserCache userCache = new UserCache(10, meterRegistry);
+        User user = UserTestBuilder.aUser().build();
+        userCache.put(user);
+
+        // when
+        userCache.get(user.getUuid());
+        userCache.get(UUID.randomUUID());
+        userCache.get(user.getUuid());
+
+        // then
+        assertThat(meterRegistry.get("user.cache.requests").tag("result", "hit").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("user.cache.requests").tag("result", "miss").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("user.cache.hit.ratio").gauge().value()).isEqualTo(2.0 / 3);
+    }
+}
@@ -0,0 +1,133 @@
+package ru.clevertec.comment.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Wraps the data source of the test context and records the SQL and the bound parameters of every prepared
+ * statement executed through it, so a test can EXPLAIN exactly what a repository method ran.
+ */
+public class StatementRecorder implements BeanPostProcessor {
+
+    private final List<RecordedStatement> statements = new CopyOnWriteArrayList<>();
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource) {
+            return proxy(DataSource.class, dataSource, (method, args) -> {
+                Object result = invoke(dataSource, method, args);
+                return result instanceof Connection connection ? recording(connection) : result;
+            });
+        }
+        return bean;
+    }
+
+    /**
+     * Forgets the statements recorded so far.
+     */
+    public void clear() {
+        statements.clear();
+    }
+
+    /**
+     * Returns the statements executed since the last {@link #clear()}.
+     *
+     * @return the recorded statements in execution order.
+     */
+    public List<RecordedStatement> statements() {
+        return List.copyOf(statements);
+    }
+
+    private Connection recording(Connection connection) {
+        return proxy(Connection.class, connection, (method, args) -> {
+            Object result = invoke(connection, method, args);
+            if (result instanceof PreparedStatement statement && method.getName().equals("prepareStatement")) {
+                return recording(statement, (String) args[0]);
+            }
+            return result;
+        });
+    }
+
+    private PreparedStatement recording(PreparedStatement statement, String sql) {
+        List<Binding> bindings = new ArrayList<>();
+        return proxy(PreparedStatement.class, statement, (method, args) -> {
+            if (method.getName().startsWith("set") && args != null && args.length > 1 && args[0] instanceof Integer) {
+                bindings.add(new Binding(method, args));
+            } else if (method.getName().startsWith("execute")) {
+                statements.add(new RecordedStatement(sql, List.copyOf(bindings)));
+            } else if (method.getName().equals("clearParameters")) {
+                bindings.clear();
+            }
+            return invoke(statement, method, args);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, Handler handler) {
+        InvocationHandler invocationHandler = (proxy, method, args) -> handler.handle(method, args);
+        return (T) Proxy.newProxyInstance(StatementRecorder.class.getClassLoader(), new Class<?>[]{type},
+                invocationHandler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private interface Handler {
+
+        Object handle(Method method, Object[] args) throws Throwable;
+    }
+
+    /**
+     * A statement executed through the data source.
+     *
+     * @param sql      the SQL with JDBC parameter placeholders.
+     * @param bindings the parameter setter calls made before the execution.
+     */
+    public record RecordedStatement(String sql, List<Binding> bindings) {
+
+        /**
+         * Prepares the given SQL on the connection and binds the recorded parameters to it.
+         *
+         * @param connection the connection to prepare the statement on.
+         * @param sql        the SQL taking the same parameters, typically this statement prefixed with EXPLAIN.
+         * @return the prepared statement with the parameters bound.
+         * @throws SQLException if the statement cannot be prepared or a parameter cannot be bound.
+         */
+        public PreparedStatement prepare(Connection connection, String sql) throws SQLException {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            for (Binding binding : bindings) {
+                try {
+                    binding.method().invoke(statement, binding.args());
+                } catch (ReflectiveOperationException e) {
+                    throw new SQLException("Cannot bind " + binding.method().getName(), e);
+                }
+            }
+            return statement;
+        }
+    }
+
+    /**
+     * A parameter setter call.
+     *
+     * @param method the setter of {@link PreparedStatement}.
+     * @param args   the parameter index and value.
+     */
+    public record Binding(Method method, Object[] args) {
+    }
+}
@@ -1,5 +1,6 @@
 package ru.clevertec.comment.controller;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -7,24 +8,38 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import ru.clevertec.comment.config.PostgresSQLContainerInitializer;
+import ru.clevertec.comment.entity.dto.ArchiveProgress;
 import ru.clevertec.comment.entity.dto.CommentRequest;
 import ru.clevertec.comment.entity.dto.CommentResponse;
+import ru.clevertec.comment.entity.dto.CommentSuggestion;
+import ru.clevertec.comment.entity.dto.ImportResult;
 import ru.clevertec.comment.entity.dto.UserRequest;
 import ru.clevertec.comment.entity.dto.UserResponse;
+import ru.clevertec.comment.event.NewsCommentsChangedEvent;
 import ru.clevertec.comment.util.CommentRequestTestBuilder;
 import ru.clevertec.comment.util.CommentResponseTestBuilder;
+import ru.clevertec.comment.util.CursorPaginationResponse;
+import ru.clevertec.comment.util.PaginationResponse;
+import ru.clevertec.comment.util.SearchCursorResponse;
 import ru.clevertec.comment.util.UserResponseBuilder;
 import ru.clevertec.comment.util.UserTestBuilder;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 @SpringBootTest
 @AutoConfigureMockMvc
 @ActiveProfiles("test")
+@RecordApplicationEvents
 class CommentControllerIntegrationTest extends PostgresSQLContainerInitializer {
 
     @Autowired
@@ -33,6 +48,9 @@ class CommentControllerIntegrationTest extends PostgresSQLContainerInitializer {
     @Autowired
     ObjectMapper objectMapper;
 
+    @Autowired
+    ApplicationEvents applicationEvents;
+
     @Test
     void shouldRetrieveComment() throws Exception {
         //given
@@ -161,6 +179,107 @@ class CommentControllerIntegrationTest extends PostgresSQLContainerInitializer {
         assertThat(actual).isEqualTo(expected);
     }
 
+    @Test
+    void shouldRetrieveAllCommentsByNewsIdUsingCursor() throws Exception {
+        //given
+        TypeReference<CursorPaginationResponse<CommentResponse>> type = new TypeReference<>() {
+        };
+
+        //when
+        MvcResult firstResult = mockMvc.perform(MockMvcRequestBuilders.get("/comments/news/1/cursor")
+                        .param("limit", "1")
+                        .contentType("application/json"))
+                .andReturn();
+        CursorPaginationResponse<CommentResponse> firstPage =
+                objectMapper.readValue(firstResult.getResponse().getContentAsString(), type);
+        MvcResult secondResult = mockMvc.perform(MockMvcRequestBuilders.get("/comments/news/1/cursor")
+                        .param("after", firstPage.getNextCursor())
+                        .param("limit", "1")
+                        .contentType("application/json"))
+                .andReturn();
+        CursorPaginationResponse<CommentResponse> secondPage =
+                objectMapper.readValue(secondResult.getResponse().getContentAsString(), type);
+
+        //then
+        assertThat(firstResult.getResponse().getStatus()).isEqualTo(200);
+        assertThat(firstPage.getContent()).extracting(CommentResponse::id).containsExactly(1L);
+        assertThat(secondPage.getContent()).extracting(CommentResponse::id).containsExactly(2L);
+        assertThat(secondPage.getNextCursor()).isNull();
+    }
+
+    @Test
+    void shouldRejectMalformedCursorWithBadRequest() throws Exception {
+        //when
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/comments/news/1/cursor")
+                        .param("after", "not-a-cursor")
+                        .contentType("application/json"))
+                .andReturn();
+
+        //then
+        assertThat(result.getResponse().getStatus()).isEqualTo(400);
+        assertThat(result.getResponse().getContentAsString()).contains("Invalid cursor: not-a-cursor");
+    }
+
+    @Test
+    void shouldExportAllCommentsByNewsIdAsNdjson() throws Exception {
+        //when
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/comments/news/1/export"))
+                .andReturn();
+        result.getAsyncResult();
+        List<CommentResponse> actual = new ArrayList<>();
+        for (String line : result.getResponse().getContentAsString().split("\n")) {
+            actual.add(objectMapper.readValue(line, CommentResponse.class));
+        }
+
+        //then
+        assertThat(result.getResponse().getStatus()).isEqualTo(200);
+        assertThat(result.getResponse().getContentType()).isEqualTo("application/x-ndjson");
+        assertThat(actual).extracting(CommentResponse::id).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void shouldRetrieveSliceOfComments() throws Exception {
+        //given
+        String expected = "{\"pageNumber\":1,\"hasNext\":true,\"content\":[{\"id\":1,\"time\":" +
+                "\"2024-01-16T14:18:08.537\",\"text\":\"Test text comment\",\"user\":" +
+                "{\"uuid\":\"0bdc4d34-af90-4b42-bba6-f588323c87d7\",\"userName\":\"Test userName comment\"}," +
+                "\"newsId\":1}]}";
+
+        //when
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/comments/slice")
+                        .param("pageSize", "1")
+                        .param("numberPage", "1")
+                        .contentType("application/json"))
+                .andReturn();
+        String actual = result.getResponse().getContentAsString();
+
+        //then
+        assertThat(result.getResponse().getStatus()).isEqualTo(200);
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @Test
+    void shouldCountPagesOfCommentsByNewsIdAfterCreate() throws Exception {
+        //given
+        CommentRequest commentRequest = CommentRequestTestBuilder.aCommentRequest().withText("New comment").build();
+
+        //when
+        mockMvc.perform(MockMvcRequestBuilders.post("/comments")
+                        .contentType("application/json")
+                        .content(objectMapper.writeValueAsString(commentRequest)))
+                .andReturn();
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/comments/news/1")
+                        .param("pageSize", "1")
+                        .param("numberPage", "1")
+                        .contentType("application/json"))
+                .andReturn();
+        PaginationResponse<?> actual = objectMapper.readValue(result.getResponse().getContentAsString(),
+                PaginationResponse.class);
+
+        //then
+        assertThat(actual.getCountPage()).isEqualTo(3);
+    }
+
     @Test
     void shouldRetrieveAllFromArchiveComments() throws Exception {
         //given
@@ -186,7 +305,7 @@ class CommentControllerIntegrationTest extends PostgresSQLContainerInitializer {
     void shouldCreateNewComment() throws Exception {
         //given
         CommentRequest commentRequest = CommentRequestTestBuilder.aCommentRequest().build();
-        CommentResponse commentResponse = CommentResponseTestBuilder.aCommentResponse().withId(5L).build();
+        CommentResponse commentResponse = CommentResponseTestBuilder.aCommentResponse().build();
         // when
         MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post("/comments")
                         .contentType("application/json")
@@ -199,7 +318,133 @@ class CommentControllerIntegrationTest extends PostgresSQLContainerInitializer {
         assertThat(actual.text()).isEqualTo(commentResponse.text());
         assertThat(actual.user()).isEqualTo(commentResponse.user());
         assertThat(actual.time()).isNotNull();
-        assertThat(actual.id()).isEqualTo(commentResponse.id());
+        assertThat(actual.id()).isGreaterThan(4L);
+    }
+
+    @Test
+    void shouldReturnOriginalCommentForRetriedCreationWithSameIdempotencyKey() throws Exception {
+        //given
+        CommentRequest commentRequest = CommentRequestTestBuilder.aCommentRequest().withNewsId(4L)
+                .withText("Retried comment").build();
+        MvcResult original = mockMvc.perform(MockMvcRequestBuilders.post("/comments")
+                        .header(CommentController.IDEMPOTENCY_KEY_HEADER, "retried-comment")
+                        .contentType("application/json")
+                        .content(objectMapper.writeValueAsString(commentRequest)))
+                .andReturn();
+        CommentResponse expected = objectMapper.readValue(original.getResponse().getContentAsString(),
+                CommentResponse.class);
+
+        //when
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post("/comments")
+                        .header(CommentController.IDEMPOTENCY_KEY_HEADER, "retried-comment")
+                        .contentType("application/json")
+                        .content(objectMapper.writeValueAsString(commentRequest)))
+                .andReturn();
+        CommentResponse actual = objectMapper.readValue(result.getResponse().getContentAsString(),
+                CommentResponse.class);
+        MvcResult page = mockMvc.perform(MockMvcRequestBuilders.get("/comments/news/4")
+                        .param("pageSize", "10")
+                        .param("numberPage", "1")
+                        .contentType("application/json"))
+                .andReturn();
+
+        //then
+        assertThat(result.getResponse().getStatus()).isEqualTo(201);
+        assertThat(actual).isEqualTo(expected);
+        assertThat(page.getResponse().getContentAsString()).containsOnlyOnce("Retried comment");
+    }
+
+    @Test
+    void shouldCreateBatchOfCommentsAndMissingUsers() throws Exception {
+        //given
+        UserRequest newUser = new UserRequest(UUID.fromString("6f1c2f0e-3b1a-4c55-9d7e-2a8e5d1b7c40"), "New user");
+        List<CommentRequest> commentRequests = List.of(
+                CommentRequestTestBuilder.aCommentRequest().withNewsId(3L).withText("First").build(),
+                CommentRequestTestBuilder.aCommentRequest().withNewsId(3L).withText("Second").withUser(newUser).build(),
+                CommentRequestTestBuilder.aCommentRequest().withNewsId(3L).withText("Third").withUser(newUser).build());
+
+        // when
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post("/comments/batch")
+                        .contentType("application/json")
+                        .content(objectMapper.writeValueAsString(commentRequests)))
+                .andReturn();
+        List<CommentResponse> actual = objectMapper.readValue(result.getResponse().getContentAsString(),
+                new TypeReference<>() {
+                });
+
+        //then
+        assertThat(result.getResponse().getStatus()).isEqualTo(201);
+        assertThat(actual).extracting(CommentResponse::text).containsExactly("First", "Second", "Third");
+        assertThat(actual).extracting(CommentResponse::user).containsExactly(
+                UserResponseBuilder.aUserResponse().build(),
+                new UserResponse(newUser.uuid(), newUser.userName()),
+                new UserResponse(newUser.uuid(), newUser.userName()));
+        assertThat(actual).extracting(CommentResponse::id).doesNotContainNull().doesNotHaveDuplicates();
+    }
+
+    @Test
+    void shouldImportNdjsonDumpAndCreateMissingUsers() throws Exception {
+        //given
+        String dump = """
+                {"time":"2024-01-17T10:00:00","text":"Imported \\"first\\", with comma","user":{"uuid":"0bdc4d34-af90-4b42-bba6-f588323c87d7","userName":"Test userName comment"},"newsId":7}
+                {"text":"Imported second","user":{"uuid":"9a7f3c1e-5d2b-4e8a-b6c4-1f0e2d3c4b5a","userName":"Imported user"},"newsId":7}
+                {"text":"Imported archived","user":{"uuid":"9a7f3c1e-5d2b-4e8a-b6c4-1f0e2d3c4b5a","userName":"Imported user"},"newsId":7,"archived":true}
+                """;
+
+        //when
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post("/admin/comments/import")
+                        .contentType("application/x-ndjson")
+                        .content(dump))
+                .andReturn();
+        ImportResult actual = objectMapper.readValue(result.getResponse().getContentAsString(), ImportResult.class);
+        MvcResult newsResult = mockMvc.perform(MockMvcRequestBuilders.get("/comments/news/7")
+                        .param("pageSize", "5")
+                        .contentType("application/json"))
+                .andReturn();
+        PaginationResponse<CommentResponse> news = objectMapper.readValue(newsResult.getResponse().getContentAsString(),
+                new TypeReference<>() {
+                });
+
+        //then
+        assertThat(result.getResponse().getStatus()).isEqualTo(200);
+        assertThat(actual.imported()).isEqualTo(3);
+        assertThat(news.getCountPage()).isEqualTo(1);
+        assertThat(news.getContent()).extracting(CommentResponse::text)
+                .containsExactly("Imported \"first\", with comma", "Imported second");
+        assertThat(news.getContent()).extracting(comment -> comment.user().userName())
+                .containsExactly("Test userName comment", "Imported user");
+    }
+
+    @Test
+    void shouldImportCsvDump() throws Exception {
+        //given
+        String dump = """
+                time,text,user_uuid,user_name,news_id,is_archive
+                2024-01-17 10:00:00,"Imported, from csv",0bdc4d34-af90-4b42-bba6-f588323c87d7,Test userName comment,8,
+                ,Imported archived,0bdc4d34-af90-4b42-bba6-f588323c87d7,Test userName comment,8,true
+                """;
+
+        //when
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post("/admin/comments/import")
+                        .param("format", "CSV")
+                        .contentType("text/csv")
+                        .content(dump))
+                .andReturn();
+        ImportResult actual = objectMapper.readValue(result.getResponse().getContentAsString(), ImportResult.class);
+        MvcResult archiveResult = mockMvc.perform(MockMvcRequestBuilders.get("/comments/archive/news/8")
+                        .contentType("application/json"))
+                .andReturn();
+        PaginationResponse<CommentResponse> archive = objectMapper.readValue(
+                archiveResult.getResponse().getContentAsString(), new TypeReference<>() {
+                });
+
+        //then
+        assertThat(result.getResponse().getStatus()).isEqualTo(200);
+        assertThat(actual.imported()).isEqualTo(2);
+        assertThat(actual.lastId()).isGreaterThan(actual.firstId());
+        assertThat(archive.getContent()).extracting(CommentResponse::text).containsExactly("Imported archived");
+        assertThat(applicationEvents.stream(NewsCommentsChangedEvent.class))
+                .containsExactly(new NewsCommentsChangedEvent(8L));
     }
 
     @Test
@@ -273,6 +518,28 @@ class CommentControllerIntegrationTest extends PostgresSQLContainerInitializer {
         assertThat(actual).isEqualTo(expected);
     }
 
+    @Test
+    void shouldMoveToArchiveCommentsByNewsIdInBackground() throws Exception {
+        //when
+        MvcResult started = mockMvc.perform(MockMvcRequestBuilders.patch("/comments/news/5")
+                        .param("async", "true")
+                        .contentType("application/json"))
+                .andReturn();
+
+        ArchiveProgress progress = readArchiveProgress(started);
+        for (int attempt = 0; attempt < 50 && progress.isRunning(); attempt++) {
+            Thread.sleep(100);
+            progress = readArchiveProgress(mockMvc.perform(MockMvcRequestBuilders
+                            .get(started.getResponse().getHeader("Location")))
+                    .andReturn());
+        }
+
+        //then
+        assertThat(started.getResponse().getStatus()).isEqualTo(202);
+        assertThat(progress.newsId()).isEqualTo(5L);
+        assertThat(progress.status()).isEqualTo(ArchiveProgress.Status.COMPLETED);
+    }
+
     @Test
     void shouldRetrieveAllFoundComments() throws Exception {
         //given
@@ -293,5 +560,116 @@ class CommentControllerIntegrationTest extends PostgresSQLContainerInitializer {
         assertThat(result.getResponse().getStatus()).isEqualTo(200);
         assertThat(actual).isEqualTo(expected);
     }
-}
 
+    @Test
+    void shouldNotReturnArchivedCommentsInSearchPage() throws Exception {
+        //when
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/comments/search")
+                        .param("search", "text")
+                        .param("offset", "0")
+                        .param("limit", "3")
+                        .contentType("application/json"))
+                .andReturn();
+        List<CommentResponse> actual = objectMapper.readValue(result.getResponse().getContentAsString(),
+                new TypeReference<>() {
+                });
+
+        //then
+        assertThat(result.getResponse().getStatus()).isEqualTo(200);
+        assertThat(actual).extracting(CommentResponse::id).containsExactlyInAnyOrder(1L, 2L, 4L);
+    }
+
+    @Test
+    void shouldSearchOnlyInCommentsOfGivenNews() throws Exception {
+        //when
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/comments/search")
+                        .param("search", "text")
+                        .param("newsId", "2")
+                        .param("offset", "0")
+                        .param("limit", "10")
+                        .contentType("application/json"))
+                .andReturn();
+        List<CommentResponse> actual = objectMapper.readValue(result.getResponse().getContentAsString(),
+                new TypeReference<>() {
+                });
+
+        //then
+        assertThat(result.getResponse().getStatus()).isEqualTo(200);
+        assertThat(actual).extracting(CommentResponse::id).containsExactly(4L);
+    }
+
+    @Test
+    void shouldSearchPageByPageUsingCursor() throws Exception {
+        //given
+        TypeReference<SearchCursorResponse<CommentResponse>> type = new TypeReference<>() {
+        };
+
+        //when
+        MvcResult firstResult = mockMvc.perform(MockMvcRequestBuilders.get("/comments/search/cursor")
+                        .param("search", "text")
+                        .param("limit", "2")
+                        .contentType("application/json"))
+                .andReturn();
+        SearchCursorResponse<CommentResponse> firstPage =
+                objectMapper.readValue(firstResult.getResponse().getContentAsString(), type);
+        MvcResult secondResult = mockMvc.perform(MockMvcRequestBuilders.get("/comments/search/cursor")
+                        .param("search", "text")
+                        .param("after", firstPage.getNextCursor())
+                        .param("limit", "2")
+                        .contentType("application/json"))
+                .andReturn();
+        SearchCursorResponse<CommentResponse> secondPage =
+                objectMapper.readValue(secondResult.getResponse().getContentAsString(), type);
+        List<CommentResponse> actual = new ArrayList<>(firstPage.getContent());
+        actual.addAll(secondPage.getContent());
+
+        //then
+        assertThat(firstResult.getResponse().getStatus()).isEqualTo(200);
+        assertThat(firstPage.getContent()).hasSize(2);
+        assertThat(firstPage.getTotalHitCount()).isEqualTo(3);
+        assertThat(firstPage.isTotalHitCountExact()).isTrue();
+        assertThat(secondPage.getContent()).hasSize(1);
+        assertThat(secondPage.getNextCursor()).isNull();
+        assertThat(actual).extracting(CommentResponse::id).containsExactlyInAnyOrder(1L, 2L, 4L);
+    }
+
+    @Test
+    void shouldSuggestActiveCommentsByPrefix() throws Exception {
+        //when
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/comments/suggest")
+                        .param("prefix", "tex")
+                        .param("limit", "10")
+                        .contentType("application/json"))
+                .andReturn();
+        List<CommentSuggestion> actual = objectMapper.readValue(result.getResponse().getContentAsString(),
+                new TypeReference<>() {
+                });
+
+        //then
+        assertThat(result.getResponse().getStatus()).isEqualTo(200);
+        assertThat(actual).extracting(CommentSuggestion::id).containsExactlyInAnyOrder(1L, 2L, 4L);
+    }
+
+    @Test
+    void shouldSuggestByLastTypedWordAndCapResults() throws Exception {
+        //given
+        String expected = "[{\"id\":4,\"snippet\":\"Test text comment2\"}]";
+
+        //when
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/comments/suggest")
+                        .param("prefix", "text comment2")
+                        .param("newsId", "2")
+                        .param("limit", "1")
+                        .contentType("application/json"))
+                .andReturn();
+        String actual = result.getResponse().getContentAsString();
+
+        //then
+        assertThat(result.getResponse().getStatus()).isEqualTo(200);
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    private ArchiveProgress readArchiveProgress(MvcResult result) throws Exception {
+        return objectMapper.readValue(result.getResponse().getContentAsString(), ArchiveProgress.class);
+    }
+}
@@ -0,0 +1,97 @@
+package ru.clevertec.comment.controller;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import ru.clevertec.comment.config.PostgresSQLContainerInitializer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks with Hibernate statistics that list endpoints load comments and their authors
+ * in a fixed number of statements regardless of the page size, and that search is served from the index alone.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CommentControllerStatementCountTest extends PostgresSQLContainerInitializer {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @CsvSource({
+            "/comments, pageSize, 2",
+            "/comments/slice, pageSize, 1",
+            "/comments/news/1, pageSize, 2",
+            "/comments/cursor, limit, 1",
+            "/comments/news/1/cursor, limit, 1"
+    })
+    void shouldRunFixedNumberOfStatementsWhateverPageSize(String url, String sizeParam, long expectedStatements)
+            throws Exception {
+        for (int size = 1; size <= 2; size++) {
+            //given
+            entityManager.clear();
+            statistics.clear();
+
+            //when
+            int status = mockMvc.perform(MockMvcRequestBuilders.get(url)
+                            .param(sizeParam, String.valueOf(size))
+                            .contentType("application/json"))
+                    .andReturn()
+                    .getResponse()
+                    .getStatus();
+
+            //then
+            assertThat(status).isEqualTo(200);
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(expectedStatements);
+            assertThat(statistics.getEntityFetchCount()).isZero();
+        }
+    }
+
+    @Test
+    void shouldServeSearchFromIndexWithoutStatements() throws Exception {
+        //given
+        entityManager.clear();
+        statistics.clear();
+
+        //when
+        int status = mockMvc.perform(MockMvcRequestBuilders.get("/comments/search")
+                        .param("search", "text")
+                        .param("offset", "0")
+                        .param("limit", "10")
+                        .contentType("application/json"))
+                .andReturn()
+                .getResponse()
+                .getStatus();
+
+        //then
+        assertThat(status).isEqualTo(200);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+}
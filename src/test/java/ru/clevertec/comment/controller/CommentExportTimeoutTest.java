@@ -0,0 +1,67 @@
+package ru.clevertec.comment.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import ru.clevertec.comment.config.PostgresSQLContainerInitializer;
+import ru.clevertec.comment.service.CommentService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Streams an export that takes longer than the async timeout of the servlet container, which is shortened here
+ * to stand in for the 30 seconds a large thread exceeds. The context runs a server of its own, so it keeps its
+ * search index apart from the one locked by the other cached contexts.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.jpa.properties.hibernate.search.backend.directory.root=build/export-timeout-test-index")
+@ActiveProfiles("test")
+class CommentExportTimeoutTest extends PostgresSQLContainerInitializer {
+
+    private static final long CONTAINER_ASYNC_TIMEOUT_MILLIS = 200;
+    private static final long EXPORT_DELAY_MILLIS = 1000;
+
+    @Autowired
+    TestRestTemplate restTemplate;
+
+    @SpyBean
+    CommentService commentService;
+
+    @Test
+    void shouldStreamExportPastContainerAsyncTimeout() {
+        //given
+        doAnswer(invocation -> {
+            Thread.sleep(EXPORT_DELAY_MILLIS);
+            return invocation.callRealMethod();
+        }).when(commentService).exportCommentsByIdNews(eq(1L), any());
+
+        //when
+        ResponseEntity<String> actual = restTemplate.getForEntity("/comments/news/1/export", String.class);
+
+        //then
+        assertThat(actual.getStatusCode().value()).isEqualTo(200);
+        assertThat(actual.getBody()).isNotNull();
+        assertThat(actual.getBody().split("\n")).hasSize(2);
+    }
+
+    @TestConfiguration
+    static class ShortContainerAsyncTimeout {
+
+        @Bean
+        WebServerFactoryCustomizer<TomcatServletWebServerFactory> shortAsyncTimeout() {
+            return factory -> factory.addConnectorCustomizers(
+                    connector -> connector.setAsyncTimeout(CONTAINER_ASYNC_TIMEOUT_MILLIS));
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package ru.clevertec.comment.datasource;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReadYourWritesWindowTest {
+
+    private static final Duration WINDOW = Duration.ofSeconds(5);
+    private static final Instant NOW = Instant.parse("2024-01-16T14:18:08Z");
+
+    @Mock
+    private Clock clock;
+
+    @Test
+    void shouldBeOpenWithinWindowAfterWrite() {
+        // given
+        ReadYourWritesWindow window = new ReadYourWritesWindow(WINDOW, 10, clock);
+        when(clock.instant()).thenReturn(NOW, NOW.plus(WINDOW).minusMillis(1));
+        window.recordWrite("client");
+
+        // when
+        boolean actual = window.isOpen("client");
+
+        // then
+        assertThat(actual).isTrue();
+        assertThat(window.isOpen("other")).isFalse();
+    }
+
+    @Test
+    void shouldCloseAfterWindow() {
+        // given
+        ReadYourWritesWindow window = new ReadYourWritesWindow(WINDOW, 10, clock);
+        when(clock.instant()).thenReturn(NOW, NOW.plus(WINDOW));
+        window.recordWrite("client");
+
+        // when
+        boolean actual = window.isOpen("client");
+
+        // then
+        assertThat(actual).isFalse();
+    }
+
+    @Test
+    void shouldDropExpiredClientsWhenFull() {
+        // given
+        ReadYourWritesWindow window = new ReadYourWritesWindow(WINDOW, 1, clock);
+        when(clock.instant()).thenReturn(NOW, NOW.plus(WINDOW), NOW.plus(WINDOW));
+        window.recordWrite("client");
+
+        // when
+        window.recordWrite("other");
+
+        // then
+        assertThat(window.isOpen("other")).isTrue();
+        assertThat(window.isOpen("client")).isFalse();
+    }
+}
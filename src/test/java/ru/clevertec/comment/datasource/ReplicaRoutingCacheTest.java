@@ -0,0 +1,177 @@
+package ru.clevertec.comment.datasource;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import ru.clevertec.comment.aop.ReadFromPrimaryAspect;
+import ru.clevertec.comment.cache.SearchResultCache;
+import ru.clevertec.comment.datasource.ReplicaRoutingDataSource.Route;
+import ru.clevertec.comment.entity.Comment;
+import ru.clevertec.comment.entity.dto.CommentResponse;
+import ru.clevertec.comment.mapper.CommentMapper;
+import ru.clevertec.comment.repository.CommentRepository;
+import ru.clevertec.comment.repository.NewsCommentCounterRepository;
+import ru.clevertec.comment.search.IndexOutboxPoller;
+import ru.clevertec.comment.service.CommentArchiver;
+import ru.clevertec.comment.service.CommentImporter;
+import ru.clevertec.comment.service.CommentService;
+import ru.clevertec.comment.service.CommentServiceImpl;
+import ru.clevertec.comment.service.UserService;
+import ru.clevertec.comment.util.CommentResponseTestBuilder;
+import ru.clevertec.comment.util.CommentTestBuilder;
+import ru.clevertec.exceptionhandlerstarter.exception.EntityNotFoundException;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the comment service with caching and transactions over a routing DataSource whose replica still returns
+ * the comment as active after it was archived on the primary.
+ */
+@SpringJUnitConfig(ReplicaRoutingCacheTest.Config.class)
+class ReplicaRoutingCacheTest {
+
+    private static final String API_CACHE = "api-cache";
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @MockBean
+    private CommentRepository commentRepository;
+
+    @MockBean
+    private NewsCommentCounterRepository counterRepository;
+
+    @MockBean
+    private CommentMapper commentMapper;
+
+    @MockBean
+    private EntityManager entityManager;
+
+    @MockBean
+    private UserService userService;
+
+    @MockBean
+    private CommentArchiver commentArchiver;
+
+    @MockBean
+    private CommentImporter commentImporter;
+
+    @MockBean
+    private IndexOutboxPoller indexOutboxPoller;
+
+    @MockBean
+    private SearchResultCache searchResultCache;
+
+    private final AtomicBoolean archivedOnPrimary = new AtomicBoolean();
+    private final List<Route> routes = new CopyOnWriteArrayList<>();
+
+    @Test
+    void shouldNotRepopulateCacheFromLaggingReplicaAfterArchive() {
+        // given
+        Long id = 1L;
+        CommentResponse active = CommentResponseTestBuilder.aCommentResponse().build();
+        Comment comment = CommentTestBuilder.aComment().build();
+        when(commentRepository.findActiveResponseById(id)).thenAnswer(invocation ->
+                route() == Route.REPLICA || !archivedOnPrimary.get() ? Optional.of(active) : Optional.empty());
+        when(commentRepository.findById(id)).thenReturn(Optional.of(comment));
+        when(commentRepository.save(any())).thenAnswer(invocation -> {
+            archivedOnPrimary.set(true);
+            return invocation.getArgument(0);
+        });
+        commentService.get(id);
+        commentService.archive(id);
+
+        // when
+        Throwable actual = catchThrowable(() -> commentService.get(id));
+
+        // then
+        assertThat(actual).isInstanceOf(EntityNotFoundException.class);
+        assertThat(cacheManager.getCache(API_CACHE).get(id)).isNull();
+        assertThat(routes).containsOnly(Route.PRIMARY);
+    }
+
+    @Test
+    void shouldServeReadsNotFillingCachesFromReplica() {
+        // given
+        Long id = 1L;
+        when(commentRepository.findActiveResponseByIdAndNewsId(id, id)).thenAnswer(invocation -> {
+            route();
+            return Optional.of(CommentResponseTestBuilder.aCommentResponse().build());
+        });
+
+        // when
+        commentService.getCommentByNewsId(id, id);
+
+        // then
+        assertThat(routes).containsExactly(Route.REPLICA);
+    }
+
+    private Route route() {
+        Route route = routingDataSource.determineCurrentLookupKey();
+        routes.add(route);
+        return route;
+    }
+
+    @Configuration
+    @EnableCaching(proxyTargetClass = true)
+    @EnableAspectJAutoProxy(proxyTargetClass = true)
+    @EnableTransactionManagement(proxyTargetClass = true)
+    @Import({CommentServiceImpl.class, ReadFromPrimaryAspect.class})
+    static class Config {
+
+        @Bean
+        static ConversionService conversionService() {
+            return ApplicationConversionService.getSharedInstance();
+        }
+
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager(API_CACHE);
+        }
+
+        @Bean
+        ReplicaRoutingDataSource routingDataSource() {
+            return new ReplicaRoutingDataSource(mock(DataSource.class, Answers.RETURNS_MOCKS),
+                    mock(DataSource.class, Answers.RETURNS_MOCKS),
+                    new ReadYourWritesWindow(Duration.ofMinutes(1), 10));
+        }
+
+        @Bean
+        PlatformTransactionManager transactionManager(ReplicaRoutingDataSource routingDataSource) {
+            return new DataSourceTransactionManager(new LazyConnectionDataSourceProxy(routingDataSource));
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package ru.clevertec.comment.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import ru.clevertec.comment.datasource.ReplicaRoutingDataSource.Route;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(MockitoExtension.class)
+class ReplicaRoutingDataSourceTest {
+
+    private static final String CLIENT = "client";
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource replica;
+
+    private ReadYourWritesWindow readYourWritesWindow;
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @BeforeEach
+    void setUp() {
+        readYourWritesWindow = new ReadYourWritesWindow(Duration.ofMinutes(1), 10);
+        routingDataSource = new ReplicaRoutingDataSource(primary, replica, readYourWritesWindow);
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(ReadYourWritesWindow.CLIENT_HEADER, CLIENT);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        TransactionSynchronizationManager.clear();
+    }
+
+    @Test
+    void shouldRouteToPrimaryOutsideTransaction() {
+        // when
+        Route actual = routingDataSource.determineCurrentLookupKey();
+
+        // then
+        assertThat(actual).isEqualTo(Route.PRIMARY);
+    }
+
+    @Test
+    void shouldRouteReadOnlyTransactionToReplica() {
+        // given
+        beginTransaction(true);
+
+        // when
+        Route actual = routingDataSource.determineCurrentLookupKey();
+
+        // then
+        assertThat(actual).isEqualTo(Route.REPLICA);
+    }
+
+    @Test
+    void shouldRouteWriteTransactionToPrimary() {
+        // given
+        beginTransaction(false);
+
+        // when
+        Route actual = routingDataSource.determineCurrentLookupKey();
+
+        // then
+        assertThat(actual).isEqualTo(Route.PRIMARY);
+        assertThat(readYourWritesWindow.isOpen(CLIENT)).isFalse();
+    }
+
+    @Test
+    void shouldKeepReadsOfClientOnPrimaryAfterCommittedWrite() {
+        // given
+        beginTransaction(false);
+        routingDataSource.determineCurrentLookupKey();
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.clear();
+        beginTransaction(true);
+
+        // when
+        Route actual = routingDataSource.determineCurrentLookupKey();
+
+        // then
+        assertThat(actual).isEqualTo(Route.PRIMARY);
+        assertThat(readYourWritesWindow.isOpen("other")).isFalse();
+    }
+
+    private void beginTransaction(boolean readOnly) {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+    }
+}
@@ -0,0 +1,240 @@
+package ru.clevertec.comment.repository;
+
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import ru.clevertec.comment.config.PostgresSQLContainerInitializer;
+import ru.clevertec.comment.config.StatementRecorder;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the repository methods against representative data, captures the SQL and the parameters Hibernate sends
+ * for them and checks the EXPLAIN ANALYZE plans of exactly those statements. No plan may fall back to
+ * a sequential scan, queries filtered by the archive flag must be pruned to a single partition of the comment
+ * table and queries keyed by news ID further to the single hash partition of that news. Counting all comments of
+ * one archive state reads every hash partition of it, so it is only checked for pruning.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(StatementRecorder.class)
+class CommentRepositoryQueryPlanTest extends PostgresSQLContainerInitializer {
+
+    private static final String REPRESENTATIVE_DATA = """
+            INSERT INTO users (uuid, user_name)
+            SELECT CAST(md5('plan user ' || i) AS uuid), 'Plan user ' || i
+            FROM generate_series(1, 5000) i;
+            WITH u AS (SELECT array_agg(id) AS ids FROM users)
+            INSERT INTO comment (time, text, user_id, is_archive, news_id)
+            SELECT timestamp '2024-01-01' + i * interval '1 minute', 'Plan comment ' || i,
+                   u.ids[1 + i % array_length(u.ids, 1)], i % 10 = 0, 1 + i % 1999
+            FROM generate_series(1, 20000) i, u;
+            INSERT INTO news_comment_counter (news_id, active_count, archived_count)
+            SELECT n, 9, 1 FROM generate_series(1, 2000) n
+            ON CONFLICT (news_id) DO NOTHING;
+            ANALYZE users;
+            ANALYZE comment;
+            ANALYZE news_comment_counter""";
+    private static final String EXPLAIN = "explain (analyze, costs off, timing off, summary off) ";
+    private static final Sort ORDER = Sort.by("time", "id");
+    private static final LocalDateTime CURSOR_TIME = LocalDateTime.parse("2024-01-05T00:00:00");
+    private static final UUID USER_UUID = UUID.fromString("0bdc4d34-af90-4b42-bba6-f588323c87d7");
+    private static final Pattern PARTITION = Pattern.compile("comment_(active|archive)_p\\d+");
+
+    private final TestEntityManager testEntityManager;
+    private final StatementRecorder statementRecorder;
+    private final Repositories repositories;
+
+    @Autowired
+    public CommentRepositoryQueryPlanTest(TestEntityManager testEntityManager,
+                                          StatementRecorder statementRecorder,
+                                          CommentRepository commentRepository,
+                                          NewsCommentCounterRepository counterRepository,
+                                          UserRepository userRepository) {
+        this.testEntityManager = testEntityManager;
+        this.statementRecorder = statementRecorder;
+        this.repositories = new Repositories(commentRepository, counterRepository, userRepository);
+    }
+
+    @BeforeEach
+    void setUp() {
+        for (String statement : REPRESENTATIVE_DATA.split(";")) {
+            testEntityManager.getEntityManager().createNativeQuery(statement).executeUpdate();
+        }
+    }
+
+    static Stream<Arguments> repositoryQueries() {
+        return Stream.of(
+                Arguments.of("findById", 0,
+                        (RepositoryCall) r -> r.comments().findById(1L)),
+                Arguments.of("findActiveResponseById", 0,
+                        (RepositoryCall) r -> r.comments().findActiveResponseById(1L)),
+                Arguments.of("findArchivedResponseById", 0,
+                        (RepositoryCall) r -> r.comments().findArchivedResponseById(3L)),
+                Arguments.of("findActiveResponseByIdAndNewsId", 0,
+                        (RepositoryCall) r -> r.comments().findActiveResponseByIdAndNewsId(1L, 1L)),
+                Arguments.of("findActiveResponses", 0,
+                        (RepositoryCall) r -> r.comments().findActiveResponses(PageRequest.of(1, 15, ORDER))),
+                Arguments.of("findArchivedResponses", 0,
+                        (RepositoryCall) r -> r.comments().findArchivedResponses(PageRequest.of(1, 15, ORDER))),
+                Arguments.of("findActiveResponseSlice", 0,
+                        (RepositoryCall) r -> r.comments().findActiveResponseSlice(PageRequest.of(1, 15, ORDER))),
+                Arguments.of("findArchivedResponseSlice", 0,
+                        (RepositoryCall) r -> r.comments().findArchivedResponseSlice(PageRequest.of(1, 15, ORDER))),
+                Arguments.of("findActiveResponsesByNewsId", 0,
+                        (RepositoryCall) r -> r.comments().findActiveResponsesByNewsId(1L,
+                                PageRequest.of(0, 5, ORDER))),
+                Arguments.of("findArchivedResponsesByNewsId", 0,
+                        (RepositoryCall) r -> r.comments().findArchivedResponsesByNewsId(1L,
+                                PageRequest.of(0, 5, ORDER))),
+                Arguments.of("findFirstActiveResponses", 0,
+                        (RepositoryCall) r -> r.comments().findFirstActiveResponses(PageRequest.of(0, 16))),
+                Arguments.of("findActiveResponsesAfter", 0,
+                        (RepositoryCall) r -> r.comments().findActiveResponsesAfter(CURSOR_TIME, 1L,
+                                PageRequest.of(0, 16))),
+                Arguments.of("findFirstActiveResponsesByNewsId", 0,
+                        (RepositoryCall) r -> r.comments().findFirstActiveResponsesByNewsId(1L,
+                                PageRequest.of(0, 16))),
+                Arguments.of("findActiveResponsesByNewsIdAfter", 0,
+                        (RepositoryCall) r -> r.comments().findActiveResponsesByNewsIdAfter(1L, CURSOR_TIME, 1L,
+                                PageRequest.of(0, 16))),
+                Arguments.of("findActiveIdsByNewsId", 0,
+                        (RepositoryCall) r -> r.comments().findActiveIdsByNewsId(1L, PageRequest.of(0, 500))),
+                Arguments.of("archiveByIds", 1,
+                        (RepositoryCall) r -> r.comments().archiveByIds(1L,
+                                r.comments().findActiveIdsByNewsId(1L, PageRequest.of(0, 500)))),
+                Arguments.of("NewsCommentCounterRepository.findById", 0,
+                        (RepositoryCall) r -> r.counters().findById(1L)),
+                Arguments.of("findByUuid", 0,
+                        (RepositoryCall) r -> r.users().findByUuid(USER_UUID)));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("repositoryQueries")
+    void shouldNotUseSeqScan(String method, int statement, RepositoryCall call) throws Exception {
+        //when
+        List<String> plan = explain(call, statement);
+
+        //then
+        assertThat(plan).noneMatch(line -> line.contains("Seq Scan"));
+    }
+
+    static Stream<Arguments> archiveStateQueries() {
+        return Stream.of(
+                Arguments.of("findActiveResponses", "comment_active", "comment_archive", 0,
+                        (RepositoryCall) r -> r.comments().findActiveResponses(PageRequest.of(1, 15, ORDER))),
+                Arguments.of("findArchivedResponses", "comment_archive", "comment_active", 0,
+                        (RepositoryCall) r -> r.comments().findArchivedResponses(PageRequest.of(1, 15, ORDER))),
+                Arguments.of("findActiveResponses count", "comment_active", "comment_archive", 1,
+                        (RepositoryCall) r -> r.comments().findActiveResponses(PageRequest.of(1, 15, ORDER))),
+                Arguments.of("findArchivedResponses count", "comment_archive", "comment_active", 1,
+                        (RepositoryCall) r -> r.comments().findArchivedResponses(PageRequest.of(1, 15, ORDER))),
+                Arguments.of("findActiveResponsesByNewsId", "comment_active", "comment_archive", 0,
+                        (RepositoryCall) r -> r.comments().findActiveResponsesByNewsId(1L,
+                                PageRequest.of(0, 5, ORDER))),
+                Arguments.of("findArchivedResponsesByNewsId", "comment_archive", "comment_active", 0,
+                        (RepositoryCall) r -> r.comments().findArchivedResponsesByNewsId(1L,
+                                PageRequest.of(0, 5, ORDER))),
+                Arguments.of("findArchivedResponseById", "comment_archive", "comment_active", 0,
+                        (RepositoryCall) r -> r.comments().findArchivedResponseById(3L)),
+                Arguments.of("findActiveIdsByNewsId", "comment_active", "comment_archive", 0,
+                        (RepositoryCall) r -> r.comments().findActiveIdsByNewsId(1L, PageRequest.of(0, 500))));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("archiveStateQueries")
+    void shouldPruneToOnePartition(String method, String partition, String prunedPartition, int statement,
+                                   RepositoryCall call) throws Exception {
+        //when
+        List<String> plan = explain(call, statement);
+
+        //then
+        assertThat(plan).anyMatch(line -> line.contains(" on " + partition));
+        assertThat(plan).noneMatch(line -> line.contains(" on " + prunedPartition));
+    }
+
+    static Stream<Arguments> newsQueries() {
+        return Stream.of(
+                Arguments.of("findActiveResponseByIdAndNewsId", 0,
+                        (RepositoryCall) r -> r.comments().findActiveResponseByIdAndNewsId(1L, 1L)),
+                Arguments.of("findActiveResponsesByNewsId", 0,
+                        (RepositoryCall) r -> r.comments().findActiveResponsesByNewsId(1L,
+                                PageRequest.of(1, 5, ORDER))),
+                Arguments.of("findArchivedResponsesByNewsId", 0,
+                        (RepositoryCall) r -> r.comments().findArchivedResponsesByNewsId(1L,
+                                PageRequest.of(0, 5, ORDER))),
+                Arguments.of("findActiveResponsesByNewsIdAfter", 0,
+                        (RepositoryCall) r -> r.comments().findActiveResponsesByNewsIdAfter(1L, CURSOR_TIME, 1L,
+                                PageRequest.of(0, 16))),
+                Arguments.of("findActiveIdsByNewsId", 0,
+                        (RepositoryCall) r -> r.comments().findActiveIdsByNewsId(1L, PageRequest.of(0, 500))),
+                Arguments.of("archiveByIds", 1,
+                        (RepositoryCall) r -> r.comments().archiveByIds(1L,
+                                r.comments().findActiveIdsByNewsId(1L, PageRequest.of(0, 500)))));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("newsQueries")
+    void shouldPruneToOneHashPartition(String method, int statement, RepositoryCall call) throws Exception {
+        //when
+        List<String> plan = explain(call, statement);
+
+        //then
+        assertThat(plan.stream()
+                .map(PARTITION::matcher)
+                .filter(Matcher::find)
+                .map(Matcher::group)
+                .distinct())
+                .hasSize(1);
+    }
+
+    private List<String> explain(RepositoryCall call, int statement) {
+        testEntityManager.clear();
+        statementRecorder.clear();
+        call.run(repositories);
+        List<StatementRecorder.RecordedStatement> statements = statementRecorder.statements();
+        assertThat(statements).hasSizeGreaterThan(statement);
+
+        return testEntityManager.getEntityManager().unwrap(Session.class).doReturningWork(connection -> {
+            List<String> plan = new ArrayList<>();
+            StatementRecorder.RecordedStatement recorded = statements.get(statement);
+            try (PreparedStatement explain = recorded.prepare(connection, EXPLAIN + recorded.sql());
+                 ResultSet resultSet = explain.executeQuery()) {
+                while (resultSet.next()) {
+                    plan.add(resultSet.getString(1));
+                }
+            }
+            return plan;
+        });
+    }
+
+    @FunctionalInterface
+    interface RepositoryCall {
+
+        void run(Repositories repositories);
+    }
+
+    record Repositories(CommentRepository comments,
+                        NewsCommentCounterRepository counters,
+                        UserRepository users) {
+    }
+}
@@ -7,13 +7,19 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import ru.clevertec.comment.config.PostgresSQLContainerInitializer;
 import ru.clevertec.comment.entity.Comment;
+import ru.clevertec.comment.entity.dto.CommentResponse;
+import ru.clevertec.comment.entity.dto.UserResponse;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -34,10 +40,10 @@ class CommentRepositoryTest extends PostgresSQLContainerInitializer {
     void shouldReturnedCommentByIdAndNewsIdWhereCommentIsNotArchived() {
         //given
         Long id = 1L;
-        Comment comment = testEntityManager.find(Comment.class, 1);
+        CommentResponse comment = findResponse(1);
 
         //when
-        Optional<Comment> actual = commentRepository.findCommentByIdAndNewsIdAndIsArchivedIsFalse(id, id);
+        Optional<CommentResponse> actual = commentRepository.findActiveResponseByIdAndNewsId(id, id);
 
         //then
         assertThat(actual).isEqualTo(Optional.of(comment));
@@ -46,14 +52,14 @@ class CommentRepositoryTest extends PostgresSQLContainerInitializer {
     @Test
     void shouldReturnedAllCommentsWhereCommentIsNotArchived() {
         //given
-        PageRequest pageRequest = PageRequest.of(0, 3);
-        List<Comment> expectedList = new ArrayList<>();
-        expectedList.add(testEntityManager.find(Comment.class, 1));
-        expectedList.add(testEntityManager.find(Comment.class, 2));
-        expectedList.add(testEntityManager.find(Comment.class, 4));
+        PageRequest pageRequest = PageRequest.of(0, 3, Sort.by("time", "id"));
+        List<CommentResponse> expectedList = new ArrayList<>();
+        expectedList.add(findResponse(1));
+        expectedList.add(findResponse(2));
+        expectedList.add(findResponse(4));
 
         //when
-        Page<Comment> actual = commentRepository.findAllByIsArchivedIsFalse(pageRequest);
+        Page<CommentResponse> actual = commentRepository.findActiveResponses(pageRequest);
 
         //then
         assertThat(actual.getContent()).isEqualTo(expectedList);
@@ -62,12 +68,12 @@ class CommentRepositoryTest extends PostgresSQLContainerInitializer {
     @Test
     void shouldReturnedAllCommentsWhereCommentIsArchived() {
         //given
-        PageRequest pageRequest = PageRequest.of(0, 3);
-        List<Comment> expectedList = new ArrayList<>();
-        expectedList.add(testEntityManager.find(Comment.class, 3));
+        PageRequest pageRequest = PageRequest.of(0, 3, Sort.by("time", "id"));
+        List<CommentResponse> expectedList = new ArrayList<>();
+        expectedList.add(findResponse(3));
 
         //when
-        Page<Comment> actual = commentRepository.findAllByIsArchivedIsTrue(pageRequest);
+        Page<CommentResponse> actual = commentRepository.findArchivedResponses(pageRequest);
 
         //then
         assertThat(actual.getContent()).isEqualTo(expectedList);
@@ -76,13 +82,13 @@ class CommentRepositoryTest extends PostgresSQLContainerInitializer {
     @Test
     void shouldReturnedAllCommentsByNewsIdWhereCommentIsNotArchived() {
         //given
-        PageRequest pageRequest = PageRequest.of(0, 3);
-        List<Comment> expectedList = new ArrayList<>();
-        expectedList.add(testEntityManager.find(Comment.class, 1));
-        expectedList.add(testEntityManager.find(Comment.class, 2));
+        PageRequest pageRequest = PageRequest.of(0, 3, Sort.by("time", "id"));
+        List<CommentResponse> expectedList = new ArrayList<>();
+        expectedList.add(findResponse(1));
+        expectedList.add(findResponse(2));
 
         //when
-        Page<Comment> actual = commentRepository.findAllByIsArchivedIsFalseAndNewsId(1L,pageRequest);
+        Slice<CommentResponse> actual = commentRepository.findActiveResponsesByNewsId(1L,pageRequest);
 
         //then
         assertThat(actual.getContent()).isEqualTo(expectedList);
@@ -91,12 +97,12 @@ class CommentRepositoryTest extends PostgresSQLContainerInitializer {
     @Test
     void shouldReturnedAllCommentsByNewsIdWhereCommentIsArchived() {
         //given
-        PageRequest pageRequest = PageRequest.of(0, 3);
-        List<Comment> expectedList = new ArrayList<>();
-        expectedList.add(testEntityManager.find(Comment.class, 3));
+        PageRequest pageRequest = PageRequest.of(0, 3, Sort.by("time", "id"));
+        List<CommentResponse> expectedList = new ArrayList<>();
+        expectedList.add(findResponse(3));
 
         //when
-        Page<Comment> actual = commentRepository.findAllByIsArchivedIsTrueAndNewsId(1L,pageRequest);
+        Slice<CommentResponse> actual = commentRepository.findArchivedResponsesByNewsId(1L,pageRequest);
 
         //then
         assertThat(actual.getContent()).isEqualTo(expectedList);
@@ -106,21 +112,117 @@ class CommentRepositoryTest extends PostgresSQLContainerInitializer {
     void shouldReturnedAllCommentsByIdNewsWhereCommentIsNotArchived() {
         //given
         Long id = 1L;
-        PageRequest pageRequest = PageRequest.of(0, 3);
-        List<Comment> expectedList = new ArrayList<>();
-        expectedList.add(testEntityManager.find(Comment.class, 1));
-        expectedList.add(testEntityManager.find(Comment.class, 2));
-        expectedList.add(testEntityManager.find(Comment.class, 3));
+        PageRequest pageRequest = PageRequest.of(0, 3, Sort.by("time", "id"));
+        List<CommentResponse> expectedList = new ArrayList<>();
+        expectedList.add(findResponse(1));
+        expectedList.add(findResponse(2));
+        expectedList.add(findResponse(3));
 
         //when
-        commentRepository.archiveByNewsId(id);
-        List<Comment> actual = commentRepository.findAllByIsArchivedIsTrue(pageRequest)
+        commentRepository.archiveByIds(id, commentRepository.findActiveIdsByNewsId(id, PageRequest.ofSize(10)));
+        List<CommentResponse> actual = commentRepository.findArchivedResponses(pageRequest)
                 .getContent()
                 .stream()
-                .filter(comment -> comment.getNewsId() == 1)
+                .filter(comment -> comment.newsId() == 1)
                 .collect(Collectors.toList());
 
         //then
         assertThat(actual).isEqualTo(expectedList);
     }
+
+    @Test
+    void shouldReturnedCommentsAfterCursorWhereCommentIsNotArchived() {
+        //given
+        PageRequest pageRequest = PageRequest.ofSize(3);
+        CommentResponse first = findResponse(1);
+        List<CommentResponse> expectedList = new ArrayList<>();
+        expectedList.add(findResponse(2));
+        expectedList.add(findResponse(4));
+
+        //when
+        List<CommentResponse> actual = commentRepository.findActiveResponsesAfter(first.time(), first.id(), pageRequest);
+
+        //then
+        assertThat(actual).isEqualTo(expectedList);
+    }
+
+    @Test
+    void shouldReturnedCommentsByNewsIdAfterCursorWhereCommentIsNotArchived() {
+        //given
+        PageRequest pageRequest = PageRequest.ofSize(3);
+        LocalDateTime time = LocalDateTime.parse("2024-01-16T14:18:08.537");
+        List<CommentResponse> expectedList = new ArrayList<>();
+        expectedList.add(findResponse(2));
+
+        //when
+        List<CommentResponse> actual = commentRepository.findActiveResponsesByNewsIdAfter(1L, time, 1L, pageRequest);
+
+        //then
+        assertThat(actual).isEqualTo(expectedList);
+    }
+
+    @Test
+    void shouldReturnedSliceOfCommentsWhereCommentIsNotArchived() {
+        //given
+        PageRequest pageRequest = PageRequest.of(0, 2, Sort.by("time", "id"));
+        List<CommentResponse> expectedList = new ArrayList<>();
+        expectedList.add(findResponse(1));
+        expectedList.add(findResponse(2));
+
+        //when
+        Slice<CommentResponse> actual = commentRepository.findActiveResponseSlice(pageRequest);
+
+        //then
+        assertThat(actual.getContent()).isEqualTo(expectedList);
+        assertThat(actual.hasNext()).isTrue();
+    }
+
+    @Test
+    void shouldReturnedFirstActiveCommentIdsByNewsIdLimitedByBatchSize() {
+        //when
+        List<Long> actual = commentRepository.findActiveIdsByNewsId(1L, PageRequest.ofSize(1));
+
+        //then
+        assertThat(actual).containsExactly(1L);
+    }
+
+    @Test
+    void shouldStreamActiveCommentsByNewsIdWithUsers() {
+        //when
+        List<Comment> actual;
+        try (Stream<Comment> comments = commentRepository.streamActiveByNewsId(1L)) {
+            actual = comments.toList();
+        }
+
+        //then
+        assertThat(actual).extracting(Comment::getId).containsExactly(1L, 2L);
+        assertThat(actual).extracting(comment -> comment.getUser().getUserName())
+                .containsOnly("Test userName comment");
+    }
+
+    @Test
+    void shouldArchiveOnlyActiveCommentsOfNewsById() {
+        //when
+        int actual = commentRepository.archiveByIds(1L, List.of(1L, 3L, 4L));
+
+        //then
+        assertThat(actual).isEqualTo(1);
+    }
+
+    @Test
+    void shouldReturnedCommentByIdOnlyFromMatchingArchiveState() {
+        //when
+        Optional<CommentResponse> active = commentRepository.findActiveResponseById(3L);
+        Optional<CommentResponse> archived = commentRepository.findArchivedResponseById(3L);
+
+        //then
+        assertThat(active).isEmpty();
+        assertThat(archived).isEqualTo(Optional.of(findResponse(3)));
+    }
+
+    private CommentResponse findResponse(long id) {
+        Comment comment = testEntityManager.find(Comment.class, id);
+        return new CommentResponse(comment.getId(), comment.getTime(), comment.getText(),
+                new UserResponse(comment.getUser().getUuid(), comment.getUser().getUserName()), comment.getNewsId());
+    }
 }
@@ -0,0 +1,64 @@
+package ru.clevertec.comment.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import ru.clevertec.comment.config.PostgresSQLContainerInitializer;
+import ru.clevertec.comment.entity.NewsCommentCounter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class NewsCommentCounterRepositoryTest extends PostgresSQLContainerInitializer {
+
+    private final TestEntityManager testEntityManager;
+    private final NewsCommentCounterRepository counterRepository;
+
+    @Autowired
+    public NewsCommentCounterRepositoryTest(TestEntityManager testEntityManager,
+                                            NewsCommentCounterRepository counterRepository) {
+        this.testEntityManager = testEntityManager;
+        this.counterRepository = counterRepository;
+    }
+
+    @Test
+    void shouldReturnedCountersFilledFromExistingComments() {
+        //given
+        NewsCommentCounter expected = new NewsCommentCounter(1L, 2, 1);
+
+        //when
+        NewsCommentCounter actual = testEntityManager.find(NewsCommentCounter.class, 1L);
+
+        //then
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @Test
+    void shouldIncrementExistingCounters() {
+        //given
+        NewsCommentCounter expected = new NewsCommentCounter(1L, 0, 3);
+
+        //when
+        counterRepository.increment(1L, -2, 2);
+        NewsCommentCounter actual = testEntityManager.find(NewsCommentCounter.class, 1L);
+
+        //then
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @Test
+    void shouldCreateCountersWhenNewsHasNoComments() {
+        //given
+        NewsCommentCounter expected = new NewsCommentCounter(100L, 1, 0);
+
+        //when
+        counterRepository.increment(100L, 1, 0);
+        NewsCommentCounter actual = testEntityManager.find(NewsCommentCounter.class, 100L);
+
+        //then
+        assertThat(actual).isEqualTo(expected);
+    }
+}
@@ -9,6 +9,7 @@ import ru.clevertec.comment.config.PostgresSQLContainerInitializer;
 import ru.clevertec.comment.entity.Comment;
 import ru.clevertec.comment.entity.User;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -40,4 +41,43 @@ class UserRepositoryTest extends PostgresSQLContainerInitializer {
         //then
         assertThat(actual).isEqualTo(Optional.of(user));
     }
+
+    @Test
+    void shouldReturnedExistingUserOnUpsertWithKnownUuid() {
+        //given
+        User user = testEntityManager.find(User.class, 1);
+
+        //when
+        User actual = userRepository.upsert(user.getUuid(), "Other name");
+
+        //then
+        assertThat(actual.getId()).isEqualTo(user.getId());
+        assertThat(actual.getUserName()).isEqualTo("Test userName comment");
+    }
+
+    @Test
+    void shouldInsertUserOnUpsertWithNewUuid() {
+        //given
+        UUID uuid = UUID.randomUUID();
+
+        //when
+        User actual = userRepository.upsert(uuid, "New user");
+
+        //then
+        assertThat(actual.getId()).isNotNull();
+        assertThat(userRepository.findByUuid(uuid)).map(User::getUserName).contains("New user");
+    }
+
+    @Test
+    void shouldReturnedOnlyExistingUsersByUuids() {
+        //given
+        User user = testEntityManager.find(User.class, 1);
+        List<UUID> uuids = List.of(UUID.fromString("0bdc4d34-af90-4b42-bba6-f588323c87d7"), UUID.randomUUID());
+
+        //when
+        List<User> actual = userRepository.findAllByUuidIn(uuids);
+
+        //then
+        assertThat(actual).containsExactly(user);
+    }
 }
\ No newline at end of file
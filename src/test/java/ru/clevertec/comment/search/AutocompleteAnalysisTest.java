@@ -0,0 +1,92 @@
+package ru.clevertec.comment.search;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.QueryBuilder;
+import org.hibernate.search.backend.lucene.LuceneBackend;
+import org.hibernate.search.mapper.orm.Search;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.clevertec.comment.config.PostgresSQLContainerInitializer;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Indexes and queries an in-memory index with the autocomplete analyzers configured in the backend. The context
+ * is the one of the controller tests, a second context could not open the same index directory.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AutocompleteAnalysisTest extends PostgresSQLContainerInitializer {
+
+    private static final String TEXT_FIELD = "text";
+    private static final String LONG_WORD = "supercalifragilisticexpialidocious";
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    private Analyzer indexAnalyzer;
+    private Analyzer searchAnalyzer;
+
+    @BeforeEach
+    void setUp() {
+        LuceneBackend backend = Search.mapping(entityManagerFactory).backend().unwrap(LuceneBackend.class);
+        indexAnalyzer = backend.analyzer(LuceneConfig.AUTOCOMPLETE_INDEX).orElseThrow();
+        searchAnalyzer = backend.analyzer(LuceneConfig.AUTOCOMPLETE_SEARCH).orElseThrow();
+    }
+
+    @Test
+    void shouldMatchTypedWordLongerThanIndexedPrefix() throws IOException {
+        // given
+        Query query = new QueryBuilder(searchAnalyzer).createBooleanQuery(TEXT_FIELD, LONG_WORD);
+
+        // when
+        int actual = countMatches("Simply " + LONG_WORD, query);
+
+        // then
+        assertThat(LONG_WORD).hasSizeGreaterThan(LuceneConfig.AUTOCOMPLETE_MAX_PREFIX_LENGTH);
+        assertThat(actual).isEqualTo(1);
+    }
+
+    @Test
+    void shouldMatchTypedPrefixOfLongWord() throws IOException {
+        // given
+        Query query = new QueryBuilder(searchAnalyzer).createBooleanQuery(TEXT_FIELD, "supercali");
+
+        // when
+        int actual = countMatches("Simply " + LONG_WORD, query);
+
+        // then
+        assertThat(actual).isEqualTo(1);
+    }
+
+    private int countMatches(String text, Query query) throws IOException {
+        try (Directory directory = new ByteBuffersDirectory()) {
+            try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig(indexAnalyzer))) {
+                Document document = new Document();
+                document.add(new TextField(TEXT_FIELD, text, Field.Store.NO));
+                writer.addDocument(document);
+            }
+            try (DirectoryReader reader = DirectoryReader.open(directory)) {
+                return new IndexSearcher(reader).count(query);
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package ru.clevertec.comment.search;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.clevertec.comment.config.PostgresSQLContainerInitializer;
+import ru.clevertec.comment.entity.dto.IndexPosition;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the outbox poller against committed changes, so the tests do not take part in a test transaction
+ * and only touch a seed comment without changing it. The context is the one of the controller tests, a second
+ * context could not open the same index directory.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IndexOutboxPollerTest extends PostgresSQLContainerInitializer {
+
+    private static final String TOUCH_COMMENT = "UPDATE comment SET text = text WHERE id = 4";
+    private static final String LAST_EVENT_ID = "SELECT max(id) FROM comment_index_event";
+
+    @Autowired
+    IndexOutboxPoller indexOutboxPoller;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Test
+    void shouldApplyCommittedEventsAndReportNoLag() {
+        //given
+        jdbcTemplate.update(TOUCH_COMMENT);
+        Long eventId = jdbcTemplate.queryForObject(LAST_EVENT_ID, Long.class);
+        double processedBefore = meterRegistry.get("search.outbox.events.processed").counter().count();
+
+        //when
+        indexOutboxPoller.poll();
+
+        //then
+        assertThat(indexOutboxPoller.getPosition().eventId()).isGreaterThanOrEqualTo(eventId);
+        assertThat(meterRegistry.get("search.outbox.events.processed").counter().count())
+                .isGreaterThan(processedBefore);
+        assertThat(meterRegistry.get("search.outbox.lag.events").gauge().value()).isZero();
+    }
+
+    @Test
+    void shouldApplyEventsAgainAfterReplay() {
+        //given
+        jdbcTemplate.update(TOUCH_COMMENT);
+        indexOutboxPoller.poll();
+        Long eventId = jdbcTemplate.queryForObject(LAST_EVENT_ID, Long.class);
+
+        //when
+        IndexPosition replayed = indexOutboxPoller.replayFrom(eventId);
+        double processedBefore = meterRegistry.get("search.outbox.events.processed").counter().count();
+        indexOutboxPoller.poll();
+
+        //then
+        assertThat(replayed.eventId()).isEqualTo(eventId - 1);
+        assertThat(indexOutboxPoller.getPosition().eventId()).isGreaterThanOrEqualTo(eventId);
+        assertThat(meterRegistry.get("search.outbox.events.processed").counter().count())
+                .isGreaterThan(processedBefore);
+    }
+}
@@ -0,0 +1,47 @@
+package ru.clevertec.comment.search;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IndexingProgressTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final IndexingProgress indexingProgress = new IndexingProgress(meterRegistry);
+
+    @Test
+    void shouldPublishProgressOfRunningIndexing() {
+        // given
+        indexingProgress.started();
+
+        // when
+        indexingProgress.addToTotalCount(4);
+        indexingProgress.documentsBuilt(1);
+        indexingProgress.documentsAdded(1);
+
+        // then
+        assertThat(indexingProgress.getState()).isEqualTo(IndexingProgress.State.RUNNING);
+        assertThat(meterRegistry.get("search.index.documents.total").gauge().value()).isEqualTo(4);
+        assertThat(meterRegistry.get("search.index.documents.built").gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.get("search.index.documents.added").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("search.index.progress").gauge().value()).isEqualTo(0.25);
+    }
+
+    @Test
+    void shouldResetProgressOnStart() {
+        // given
+        indexingProgress.started();
+        indexingProgress.addToTotalCount(4);
+        indexingProgress.documentsBuilt(4);
+        indexingProgress.completed();
+
+        // when
+        indexingProgress.started();
+
+        // then
+        assertThat(indexingProgress.getTotal()).isZero();
+        assertThat(indexingProgress.getBuilt()).isZero();
+        assertThat(meterRegistry.get("search.index.progress").gauge().value()).isZero();
+    }
+}
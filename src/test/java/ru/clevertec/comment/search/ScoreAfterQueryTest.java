@@ -0,0 +1,104 @@
+package ru.clevertec.comment.search;
+
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScoreAfterQueryTest {
+
+    private static final String ID_FIELD = "id";
+    private static final String TEXT_FIELD = "text";
+    private static final Sort SCORE_THEN_ID = new Sort(SortField.FIELD_SCORE, new SortField(ID_FIELD, SortField.Type.LONG));
+
+    @Test
+    void shouldReturnEveryHitOnceWhenPagingAfterLastHit() throws IOException {
+        // given
+        try (Directory directory = new ByteBuffersDirectory()) {
+            index(directory, "text", "text text", "text", "other", "text text text", "text");
+            try (DirectoryReader reader = DirectoryReader.open(directory)) {
+                IndexSearcher searcher = new IndexSearcher(reader);
+                Query query = new TermQuery(new Term(TEXT_FIELD, "text"));
+                List<Long> expected = ids(searcher.search(query, 10, SCORE_THEN_ID, true).scoreDocs);
+
+                // when
+                List<Long> actual = new ArrayList<>();
+                Query pageQuery = query;
+                ScoreDoc[] page;
+                do {
+                    page = searcher.search(pageQuery, 2, SCORE_THEN_ID, true).scoreDocs;
+                    actual.addAll(ids(page));
+                    if (page.length > 0) {
+                        FieldDoc last = (FieldDoc) page[page.length - 1];
+                        pageQuery = new ScoreAfterQuery(query, ID_FIELD, last.score, (Long) last.fields[1]);
+                    }
+                } while (page.length == 2);
+
+                // then
+                assertThat(expected).hasSize(5);
+                assertThat(actual).containsExactlyElementsOf(expected);
+            }
+        }
+    }
+
+    @Test
+    void shouldKeepScoresOfWrappedQuery() throws IOException {
+        // given
+        try (Directory directory = new ByteBuffersDirectory()) {
+            index(directory, "text text text", "text");
+            try (DirectoryReader reader = DirectoryReader.open(directory)) {
+                IndexSearcher searcher = new IndexSearcher(reader);
+                Query query = new TermQuery(new Term(TEXT_FIELD, "text"));
+                ScoreDoc[] all = searcher.search(query, 10, SCORE_THEN_ID, true).scoreDocs;
+
+                // when
+                ScoreDoc[] actual = searcher.search(new ScoreAfterQuery(query, ID_FIELD, all[0].score, 1L), 10,
+                        SCORE_THEN_ID, true).scoreDocs;
+
+                // then
+                assertThat(actual).hasSize(1);
+                assertThat(actual[0].score).isEqualTo(all[1].score);
+            }
+        }
+    }
+
+    private void index(Directory directory, String... texts) throws IOException {
+        try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig(new StandardAnalyzer()))) {
+            for (int i = 0; i < texts.length; i++) {
+                Document document = new Document();
+                document.add(new TextField(TEXT_FIELD, texts[i], Field.Store.NO));
+                document.add(new NumericDocValuesField(ID_FIELD, i + 1L));
+                writer.addDocument(document);
+            }
+        }
+    }
+
+    private List<Long> ids(ScoreDoc[] hits) {
+        List<Long> ids = new ArrayList<>();
+        for (ScoreDoc hit : hits) {
+            ids.add((Long) ((FieldDoc) hit).fields[1]);
+        }
+        return ids;
+    }
+}
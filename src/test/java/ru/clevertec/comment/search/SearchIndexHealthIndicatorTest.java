@@ -0,0 +1,66 @@
+package ru.clevertec.comment.search;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchIndexHealthIndicatorTest {
+
+    private final IndexingProgress indexingProgress = new IndexingProgress(new SimpleMeterRegistry());
+    private final SearchIndexHealthIndicator healthIndicator = new SearchIndexHealthIndicator(indexingProgress);
+
+    @Test
+    void shouldBeOutOfServiceWhileIndexing() {
+        // given
+        indexingProgress.started();
+        indexingProgress.addToTotalCount(10);
+
+        // when
+        Health actual = healthIndicator.health();
+
+        // then
+        assertThat(actual.getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+        assertThat(actual.getDetails()).containsEntry("documentsTotal", 10L);
+    }
+
+    @Test
+    void shouldBeUpWhenIndexingCompleted() {
+        // given
+        indexingProgress.started();
+        indexingProgress.completed();
+
+        // when
+        Health actual = healthIndicator.health();
+
+        // then
+        assertThat(actual.getStatus()).isEqualTo(Status.UP);
+    }
+
+    @Test
+    void shouldBeUpWhenIndexingSkipped() {
+        // given
+        indexingProgress.skipped();
+
+        // when
+        Health actual = healthIndicator.health();
+
+        // then
+        assertThat(actual.getStatus()).isEqualTo(Status.UP);
+    }
+
+    @Test
+    void shouldBeDownWhenIndexingFailed() {
+        // given
+        indexingProgress.started();
+        indexingProgress.failed(new IllegalStateException("index is locked"));
+
+        // when
+        Health actual = healthIndicator.health();
+
+        // then
+        assertThat(actual.getStatus()).isEqualTo(Status.DOWN);
+    }
+}
@@ -0,0 +1,172 @@
+package ru.clevertec.comment.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.clevertec.comment.entity.dto.ArchiveProgress;
+import ru.clevertec.comment.event.CommentsArchivedEvent;
+import ru.clevertec.comment.repository.CommentRepository;
+import ru.clevertec.comment.repository.NewsCommentCounterRepository;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CommentArchiverTest {
+
+    private static final int BATCH_SIZE = 2;
+    private static final Duration PROGRESS_RETENTION = Duration.ofHours(1);
+
+    @Mock
+    private CommentRepository commentRepository;
+
+    @Mock
+    private NewsCommentCounterRepository counterRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private TaskExecutor taskExecutor;
+
+    private CommentArchiver commentArchiver;
+
+    @BeforeEach
+    void setUp() {
+        commentArchiver = new CommentArchiver(commentRepository, counterRepository, eventPublisher,
+                transactionManager, taskExecutor, BATCH_SIZE, PROGRESS_RETENTION);
+    }
+
+    @Test
+    void shouldArchiveCommentsInBatchesAndPublishEventPerBatch() {
+        // given
+        Long newsId = 1L;
+        PageRequest batch = PageRequest.ofSize(BATCH_SIZE);
+        when(commentRepository.findActiveIdsByNewsId(newsId, batch))
+                .thenReturn(List.of(1L, 2L), List.of(3L), List.of());
+        when(commentRepository.archiveByIds(newsId, List.of(1L, 2L))).thenReturn(2);
+        when(commentRepository.archiveByIds(newsId, List.of(3L))).thenReturn(1);
+
+        // when
+        ArchiveProgress actual = commentArchiver.archive(newsId);
+
+        // then
+        assertThat(actual.status()).isEqualTo(ArchiveProgress.Status.COMPLETED);
+        assertThat(actual.archived()).isEqualTo(3);
+        assertThat(actual.finishedAt()).isNotNull();
+        verify(counterRepository).increment(newsId, -2, 2);
+        verify(counterRepository).increment(newsId, -1, 1);
+        verify(eventPublisher).publishEvent(new CommentsArchivedEvent(newsId, List.of(1L, 2L)));
+        verify(eventPublisher).publishEvent(new CommentsArchivedEvent(newsId, List.of(3L)));
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    @Test
+    void shouldCompleteWithoutChangesWhenNoActiveComments() {
+        // given
+        Long newsId = 1L;
+        when(commentRepository.findActiveIdsByNewsId(newsId, PageRequest.ofSize(BATCH_SIZE))).thenReturn(List.of());
+
+        // when
+        ArchiveProgress actual = commentArchiver.archive(newsId);
+
+        // then
+        assertThat(actual.status()).isEqualTo(ArchiveProgress.Status.COMPLETED);
+        assertThat(actual.archived()).isZero();
+        verifyNoInteractions(counterRepository, eventPublisher);
+    }
+
+    @Test
+    void shouldMarkProgressAsFailedWhenBatchFails() {
+        // given
+        Long newsId = 1L;
+        when(commentRepository.findActiveIdsByNewsId(newsId, PageRequest.ofSize(BATCH_SIZE)))
+                .thenThrow(new IllegalStateException("Database is down"));
+
+        // when, then
+        assertThatThrownBy(() -> commentArchiver.archive(newsId))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(commentArchiver.getProgress(newsId))
+                .map(ArchiveProgress::status)
+                .contains(ArchiveProgress.Status.FAILED);
+    }
+
+    @Test
+    void shouldNotStartSecondAsyncJobWhileFirstIsRunning() {
+        // given
+        Long newsId = 1L;
+
+        // when
+        ArchiveProgress first = commentArchiver.archiveAsync(newsId);
+        ArchiveProgress second = commentArchiver.archiveAsync(newsId);
+
+        // then
+        assertThat(second).isSameAs(first);
+        assertThat(first.status()).isEqualTo(ArchiveProgress.Status.RUNNING);
+        verify(taskExecutor).execute(any());
+    }
+
+    @Test
+    void shouldNotRunSyncJobWhileAsyncJobIsRunning() {
+        // given
+        Long newsId = 1L;
+        ArchiveProgress running = commentArchiver.archiveAsync(newsId);
+
+        // when
+        ArchiveProgress actual = commentArchiver.archive(newsId);
+
+        // then
+        assertThat(actual).isSameAs(running);
+        verify(commentRepository, never()).findActiveIdsByNewsId(any(), any());
+    }
+
+    @Test
+    void shouldStartNewAsyncJobAfterSyncJobFinished() {
+        // given
+        Long newsId = 1L;
+        when(commentRepository.findActiveIdsByNewsId(newsId, PageRequest.ofSize(BATCH_SIZE))).thenReturn(List.of());
+        commentArchiver.archive(newsId);
+
+        // when
+        ArchiveProgress actual = commentArchiver.archiveAsync(newsId);
+
+        // then
+        assertThat(actual.status()).isEqualTo(ArchiveProgress.Status.RUNNING);
+        verify(taskExecutor).execute(any());
+    }
+
+    @Test
+    void shouldEvictProgressOfFinishedJobAfterRetention() {
+        // given
+        Long newsId = 1L;
+        commentArchiver = new CommentArchiver(commentRepository, counterRepository, eventPublisher,
+                transactionManager, taskExecutor, BATCH_SIZE, Duration.ZERO);
+        when(commentRepository.findActiveIdsByNewsId(newsId, PageRequest.ofSize(BATCH_SIZE))).thenReturn(List.of());
+        commentArchiver.archive(newsId);
+
+        // when
+        Optional<ArchiveProgress> actual = commentArchiver.getProgress(newsId);
+
+        // then
+        assertThat(actual).isEmpty();
+    }
+}
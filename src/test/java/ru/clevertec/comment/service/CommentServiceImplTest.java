@@ -8,31 +8,52 @@ import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import ru.clevertec.comment.cache.SearchResultCache;
 import ru.clevertec.comment.entity.Comment;
+import ru.clevertec.comment.entity.NewsCommentCounter;
 import ru.clevertec.comment.entity.User;
+import ru.clevertec.comment.entity.dto.ArchiveProgress;
 import ru.clevertec.comment.entity.dto.CommentRequest;
 import ru.clevertec.comment.entity.dto.CommentResponse;
+import ru.clevertec.comment.entity.dto.ImportFormat;
+import ru.clevertec.comment.entity.dto.ImportResult;
+import ru.clevertec.comment.entity.dto.IndexPosition;
 import ru.clevertec.comment.entity.dto.UserRequest;
+import ru.clevertec.comment.event.NewsCommentsChangedEvent;
 import ru.clevertec.comment.mapper.CommentMapper;
 import ru.clevertec.comment.mapper.UserMapper;
 import ru.clevertec.comment.repository.CommentRepository;
+import ru.clevertec.comment.repository.NewsCommentCounterRepository;
+import ru.clevertec.comment.search.IndexOutboxPoller;
 import ru.clevertec.comment.util.CommentRequestTestBuilder;
 import ru.clevertec.comment.util.CommentResponseTestBuilder;
+import ru.clevertec.comment.util.CommentCursor;
 import ru.clevertec.comment.util.CommentTestBuilder;
+import ru.clevertec.comment.util.CursorPaginationResponse;
 import ru.clevertec.comment.util.PaginationResponse;
+import ru.clevertec.comment.util.SliceResponse;
 import ru.clevertec.comment.util.UserRequestBuilder;
 import ru.clevertec.comment.util.UserTestBuilder;
 import ru.clevertec.exceptionhandlerstarter.exception.EntityNotFoundException;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
@@ -50,6 +71,24 @@ class CommentServiceImplTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private NewsCommentCounterRepository counterRepository;
+
+    @Mock
+    private CommentArchiver commentArchiver;
+
+    @Mock
+    private CommentImporter commentImporter;
+
+    @Mock
+    private IndexOutboxPoller indexOutboxPoller;
+
+    @Mock
+    private SearchResultCache searchResultCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private CommentServiceImpl commentService;
 
@@ -60,29 +99,28 @@ class CommentServiceImplTest {
     void testGetShouldGetCommentByIdWhenCommentExistsAndIsNotArchived() {
         // given
         Long id = 1L;
-        Comment comment = CommentTestBuilder.aComment().build();
         CommentResponse commentResponse = CommentResponseTestBuilder.aCommentResponse().build();
-        when(commentRepository.findById(id)).thenReturn(Optional.of(comment));
-        when(commentMapper.toViewModel(comment)).thenReturn(commentResponse);
+        when(commentRepository.findActiveResponseById(id)).thenReturn(Optional.of(commentResponse));
 
         // when
         CommentResponse result = commentService.get(id);
 
         // then
         assertThat(result).isEqualTo(commentResponse);
+        verifyNoInteractions(commentMapper);
     }
 
     @Test
     void testGetShouldThrowEntityNotFoundExceptionWhenCommentDoesNotExist() {
         // given
         Long id = 1L;
-        when(commentRepository.findById(id)).thenReturn(Optional.empty());
+        when(commentRepository.findActiveResponseById(id)).thenReturn(Optional.empty());
 
         // when, then
         assertThatThrownBy(() -> commentService.get(id))
                 .isInstanceOf(EntityNotFoundException.class)
                 .hasMessage("Comment with 1 not found");
-        verify(commentRepository).findById(id);
+        verify(commentRepository).findActiveResponseById(id);
         verifyNoInteractions(commentMapper);
     }
 
@@ -90,14 +128,13 @@ class CommentServiceImplTest {
     void testGetShouldThrowEntityNotFoundExceptionWhenCommentIsArchived() {
         // given
         Long id = 1L;
-        Comment comment = CommentTestBuilder.aComment().withArchived(true).build();
-        when(commentRepository.findById(id)).thenReturn(Optional.of(comment));
+        when(commentRepository.findActiveResponseById(id)).thenReturn(Optional.empty());
 
         // when, then
         assertThatThrownBy(() -> commentService.get(id))
                 .isInstanceOf(EntityNotFoundException.class)
                 .hasMessage("Comment with 1 not found");
-        verify(commentRepository).findById(id);
+        verify(commentRepository).findActiveResponseById(id);
         verifyNoInteractions(commentMapper);
     }
 
@@ -105,29 +142,28 @@ class CommentServiceImplTest {
     void testGetCommentByNewsIdShouldGetCommentByIdAnaIdNewsWhenCommentExistsAndIsNotArchived() {
         // given
         Long id = 1L;
-        Comment comment = CommentTestBuilder.aComment().build();
         CommentResponse commentResponse = CommentResponseTestBuilder.aCommentResponse().build();
-        when(commentRepository.findCommentByIdAndNewsIdAndIsArchivedIsFalse(id, id)).thenReturn(Optional.of(comment));
-        when(commentMapper.toViewModel(comment)).thenReturn(commentResponse);
+        when(commentRepository.findActiveResponseByIdAndNewsId(id, id)).thenReturn(Optional.of(commentResponse));
 
         // when
         CommentResponse result = commentService.getCommentByNewsId(id, id);
 
         // then
         assertThat(result).isEqualTo(commentResponse);
+        verifyNoInteractions(commentMapper);
     }
 
     @Test
     void testGetCommentByNewsShouldThrowEntityNotFoundExceptionWhenCommentDoesNotExist() {
         // given
         Long id = 1L;
-        when(commentRepository.findCommentByIdAndNewsIdAndIsArchivedIsFalse(id, id)).thenReturn(Optional.empty());
+        when(commentRepository.findActiveResponseByIdAndNewsId(id, id)).thenReturn(Optional.empty());
 
         // when, then
         assertThatThrownBy(() -> commentService.getCommentByNewsId(id, id))
                 .isInstanceOf(EntityNotFoundException.class)
                 .hasMessage("Comment with 1 not found");
-        verify(commentRepository).findCommentByIdAndNewsIdAndIsArchivedIsFalse(id, id);
+        verify(commentRepository).findActiveResponseByIdAndNewsId(id, id);
         verifyNoInteractions(commentMapper);
     }
 
@@ -136,14 +172,13 @@ class CommentServiceImplTest {
     void testGetCommentByNewsShouldThrowEntityNotFoundExceptionWhenCommentIsArchived() {
         // given
         Long id = 1L;
-        Comment comment = CommentTestBuilder.aComment().withArchived(true).build();
-        when(commentRepository.findCommentByIdAndNewsIdAndIsArchivedIsFalse(id, id)).thenReturn(Optional.of(comment));
+        when(commentRepository.findActiveResponseByIdAndNewsId(id, id)).thenReturn(Optional.empty());
 
         // when, then
         assertThatThrownBy(() -> commentService.getCommentByNewsId(id, id))
                 .isInstanceOf(EntityNotFoundException.class)
                 .hasMessage("Comment with 1 not found");
-        verify(commentRepository).findCommentByIdAndNewsIdAndIsArchivedIsFalse(id, id);
+        verify(commentRepository).findActiveResponseByIdAndNewsId(id, id);
         verifyNoInteractions(commentMapper);
     }
 
@@ -151,30 +186,28 @@ class CommentServiceImplTest {
     void testGetFromArchiveShouldGetCommentFromArchiveByIdWhenCommentExistsAndIsArchived() {
         // given
         Long id = 1L;
-        Comment comment = CommentTestBuilder.aComment().withArchived(true).build();
         CommentResponse commentResponse = CommentResponseTestBuilder.aCommentResponse().build();
-
-        when(commentRepository.findById(id)).thenReturn(Optional.of(comment));
-        when(commentMapper.toViewModel(comment)).thenReturn(commentResponse);
+        when(commentRepository.findArchivedResponseById(id)).thenReturn(Optional.of(commentResponse));
 
         // when
         CommentResponse result = commentService.getFromArchive(id);
 
         // then
         assertThat(result).isEqualTo(commentResponse);
+        verifyNoInteractions(commentMapper);
     }
 
     @Test
     void testGetFromArchiveShouldThrowEntityNotFoundExceptionWhenCommentDoesNotExistInArchive() {
         // given
         Long id = 1L;
-        when(commentRepository.findById(id)).thenReturn(Optional.empty());
+        when(commentRepository.findArchivedResponseById(id)).thenReturn(Optional.empty());
 
         // when, then
         assertThatThrownBy(() -> commentService.getFromArchive(id))
                 .isInstanceOf(EntityNotFoundException.class)
                 .hasMessage("Comment with 1 not found");
-        verify(commentRepository).findById(id);
+        verify(commentRepository).findArchivedResponseById(id);
         verifyNoInteractions(commentMapper);
     }
 
@@ -182,15 +215,13 @@ class CommentServiceImplTest {
     void shouldThrowEntityNotFoundExceptionWhenCommentIsNotArchivedInArchive() {
         // given
         Long id = 1L;
-        Comment comment = new Comment();
-        comment.setId(id);
-        comment.setArchived(false);
-        when(commentRepository.findById(id)).thenReturn(Optional.of(comment));
+        when(commentRepository.findArchivedResponseById(id)).thenReturn(Optional.empty());
+
         // when, then
         assertThatThrownBy(() -> commentService.getFromArchive(id))
                 .isInstanceOf(EntityNotFoundException.class)
                 .hasMessage("Comment with 1 not found");
-        verify(commentRepository).findById(id);
+        verify(commentRepository).findArchivedResponseById(id);
         verifyNoInteractions(commentMapper);
     }
 
@@ -199,26 +230,22 @@ class CommentServiceImplTest {
         // given
         int pageSize = 10;
         int numberPage = 1;
-        PageRequest pageRequest = PageRequest.of(numberPage - 1, pageSize);
-        List<Comment> comments = List.of(CommentTestBuilder.aComment().build(),
-                CommentTestBuilder.aComment().withId(2L).build());
+        PageRequest pageRequest = PageRequest.of(numberPage - 1, pageSize, Sort.by("time", "id"));
         List<CommentResponse> commentResponses = List.of(CommentResponseTestBuilder.aCommentResponse().build(),
-                CommentResponseTestBuilder.aCommentResponse().build());
-        Page<Comment> commentPage = new PageImpl<>(comments);
+                CommentResponseTestBuilder.aCommentResponse().withId(2L).build());
         PaginationResponse<CommentResponse> paginationResponse = new PaginationResponse<>();
         paginationResponse.setCountPage(1);
         paginationResponse.setPageNumber(1);
         paginationResponse.setContent(commentResponses);
-        when(commentRepository.findAllByIsArchivedIsFalse(pageRequest)).thenReturn(commentPage);
-        when(commentMapper.toViewModelList(comments)).thenReturn(commentResponses);
+        when(commentRepository.findActiveResponses(pageRequest)).thenReturn(new PageImpl<>(commentResponses));
 
         // when
         PaginationResponse<CommentResponse> result = commentService.getAll(pageSize, numberPage);
 
         // then
         assertThat(result).isEqualTo(paginationResponse);
-        verify(commentRepository).findAllByIsArchivedIsFalse(pageRequest);
-        verify(commentMapper).toViewModelList(comments);
+        verify(commentRepository).findActiveResponses(pageRequest);
+        verifyNoInteractions(commentMapper);
     }
 
     @Test
@@ -226,13 +253,13 @@ class CommentServiceImplTest {
         // given
         int pageSize = 10;
         int numberPage = 1;
-        PageRequest pageRequest = PageRequest.of(numberPage - 1, pageSize);
-        Page<Comment> commentPage = Page.empty(pageRequest);
+        PageRequest pageRequest = PageRequest.of(numberPage - 1, pageSize, Sort.by("time", "id"));
+        Page<CommentResponse> commentPage = Page.empty(pageRequest);
         PaginationResponse<CommentResponse> paginationResponse = new PaginationResponse<>();
         paginationResponse.setCountPage(0);
         paginationResponse.setPageNumber(1);
         paginationResponse.setContent(List.of());
-        when(commentRepository.findAllByIsArchivedIsFalse(pageRequest)).thenReturn(commentPage);
+        when(commentRepository.findActiveResponses(pageRequest)).thenReturn(commentPage);
 
         // when
         PaginationResponse<CommentResponse> result = commentService.getAll(pageSize, numberPage);
@@ -246,26 +273,22 @@ class CommentServiceImplTest {
         // given
         int pageSize = 10;
         int numberPage = 1;
-        PageRequest pageRequest = PageRequest.of(numberPage - 1, pageSize);
-        List<Comment> comments = List.of(CommentTestBuilder.aComment().withArchived(true).build(),
-                CommentTestBuilder.aComment().withArchived(true).withId(2L).build());
+        PageRequest pageRequest = PageRequest.of(numberPage - 1, pageSize, Sort.by("time", "id"));
         List<CommentResponse> commentResponses = List.of(CommentResponseTestBuilder.aCommentResponse().build(),
-                CommentResponseTestBuilder.aCommentResponse().build());
-        Page<Comment> commentPage = new PageImpl<>(comments);
+                CommentResponseTestBuilder.aCommentResponse().withId(2L).build());
         PaginationResponse<CommentResponse> paginationResponse = new PaginationResponse<>();
         paginationResponse.setCountPage(1);
         paginationResponse.setPageNumber(1);
         paginationResponse.setContent(commentResponses);
-        when(commentRepository.findAllByIsArchivedIsTrue(pageRequest)).thenReturn(commentPage);
-        when(commentMapper.toViewModelList(comments)).thenReturn(commentResponses);
+        when(commentRepository.findArchivedResponses(pageRequest)).thenReturn(new PageImpl<>(commentResponses));
 
         // when
         PaginationResponse<CommentResponse> result = commentService.getAllFromArchive(pageSize, numberPage);
 
         // then
         assertThat(result).isEqualTo(paginationResponse);
-        verify(commentRepository).findAllByIsArchivedIsTrue(pageRequest);
-        verify(commentMapper).toViewModelList(comments);
+        verify(commentRepository).findArchivedResponses(pageRequest);
+        verifyNoInteractions(commentMapper);
     }
 
     @Test
@@ -273,16 +296,17 @@ class CommentServiceImplTest {
         // given
         int pageSize = 10;
         int numberPage = 1;
-        PageRequest pageRequest = PageRequest.of(numberPage - 1, pageSize);
-        Page<Comment> commentPage = Page.empty(pageRequest);
+        PageRequest pageRequest = PageRequest.of(numberPage - 1, pageSize, Sort.by("time", "id"));
+        Page<CommentResponse> commentPage = Page.empty(pageRequest);
         PaginationResponse<CommentResponse> paginationResponse = new PaginationResponse<>();
         paginationResponse.setCountPage(0);
         paginationResponse.setPageNumber(1);
         paginationResponse.setContent(List.of());
-        when(commentRepository.findAllByIsArchivedIsTrue(pageRequest)).thenReturn(commentPage);
+        when(commentRepository.findArchivedResponses(pageRequest)).thenReturn(commentPage);
 
         // when
         PaginationResponse<CommentResponse> result = commentService.getAllFromArchive(pageSize, numberPage);
+
         // then
         assertThat(result).isEqualTo(paginationResponse);
     }
@@ -295,8 +319,7 @@ class CommentServiceImplTest {
         CommentRequest commentRequest = CommentRequestTestBuilder.aCommentRequest().build();
         Comment comment = CommentTestBuilder.aComment().build();
         User user = UserTestBuilder.aUser().build();
-        when(userService.getByUuiD(commentDto.user().uuid())).thenReturn(Optional.empty());
-        when(userService.create(commentDto.user())).thenReturn(user);
+        when(userService.getOrCreate(commentDto.user())).thenReturn(user);
         when(commentMapper.toEntity(commentRequest)).thenReturn(comment);
         when(commentMapper.toViewModel(comment)).thenReturn(commentResponse);
         when(commentRepository.save(comment)).thenReturn(comment);
@@ -306,8 +329,42 @@ class CommentServiceImplTest {
 
         // then
         assertThat(result).isNotNull();
-        verify(userService).create(commentDto.user());
+        assertThat(comment.getUser()).isEqualTo(user);
+        verify(userService).getOrCreate(commentDto.user());
         verify(commentRepository).save(comment);
+        verify(counterRepository).increment(comment.getNewsId(), 1, 0);
+        verify(eventPublisher).publishEvent(new NewsCommentsChangedEvent(comment.getNewsId()));
+    }
+
+    @Test
+    void testCreateAllShouldResolveUsersOnceAndIncrementCountersPerNews() {
+        // given
+        User user = UserTestBuilder.aUser().build();
+        CommentRequest first = CommentRequestTestBuilder.aCommentRequest().withNewsId(1L).build();
+        CommentRequest second = CommentRequestTestBuilder.aCommentRequest().withNewsId(1L).withText("Second").build();
+        CommentRequest third = CommentRequestTestBuilder.aCommentRequest().withNewsId(2L).withText("Third").build();
+        List<CommentRequest> commentDtos = List.of(first, second, third);
+        List<Comment> comments = List.of(CommentTestBuilder.aComment().withNewsId(1L).build(),
+                CommentTestBuilder.aComment().withId(2L).withNewsId(1L).build(),
+                CommentTestBuilder.aComment().withId(3L).withNewsId(2L).build());
+        List<CommentResponse> commentResponses = List.of(CommentResponseTestBuilder.aCommentResponse().build());
+        when(userService.getOrCreateAll(List.of(first.user(), second.user(), third.user())))
+                .thenReturn(Map.of(user.getUuid(), user));
+        when(commentMapper.toEntity(first)).thenReturn(comments.get(0));
+        when(commentMapper.toEntity(second)).thenReturn(comments.get(1));
+        when(commentMapper.toEntity(third)).thenReturn(comments.get(2));
+        when(commentRepository.saveAll(comments)).thenReturn(comments);
+        when(commentMapper.toViewModelList(comments)).thenReturn(commentResponses);
+
+        // when
+        List<CommentResponse> result = commentService.createAll(commentDtos);
+
+        // then
+        assertThat(result).isEqualTo(commentResponses);
+        assertThat(comments).extracting(Comment::getUser).containsOnly(user);
+        verify(counterRepository).increment(1L, 2, 0);
+        verify(counterRepository).increment(2L, 1, 0);
+        verify(userService, never()).getByUuiD(user.getUuid());
     }
 
     @Test
@@ -318,7 +375,7 @@ class CommentServiceImplTest {
         CommentResponse commentResponse = CommentResponseTestBuilder.aCommentResponse().build();
         User existingUser = UserTestBuilder.aUser().build();
         Comment comment = CommentTestBuilder.aComment().build();
-        when(userService.getByUuiD(commentDto.user().uuid())).thenReturn(Optional.of(existingUser));
+        when(userService.getOrCreate(commentDto.user())).thenReturn(existingUser);
         when(commentRepository.save(comment)).thenReturn(comment);
         when(commentMapper.toEntity(commentRequest)).thenReturn(comment);
         when(commentMapper.toViewModel(comment)).thenReturn(commentResponse);
@@ -328,6 +385,8 @@ class CommentServiceImplTest {
 
         // then
         assertThat(result).isNotNull();
+        assertThat(comment.getUser()).isEqualTo(existingUser);
+        verify(userService, never()).getByUuiD(commentDto.user().uuid());
         verify(userService, never()).create(commentDto.user());
         verify(commentRepository).save(comment);
     }
@@ -355,6 +414,31 @@ class CommentServiceImplTest {
         verify(commentRepository).save(updatedComment);
         verify(commentMapper).merge(optionalComment.get(), commentRequest);
         verify(commentMapper).toViewModel(updatedComment);
+        verify(eventPublisher).publishEvent(new NewsCommentsChangedEvent(comment.getNewsId()));
+    }
+
+    @Test
+    void testUpdateShouldMoveCommentBetweenCountersWhenNewsChanges() {
+        // given
+        Long id = 1L;
+        CommentRequest commentRequest = CommentRequestTestBuilder.aCommentRequest().withNewsId(2L).build();
+        Comment comment = CommentTestBuilder.aComment().build();
+        Comment updatedComment = CommentTestBuilder.aComment().withNewsId(2L).build();
+        CommentResponse commentResponse = CommentResponseTestBuilder.aCommentResponse().withNewsId(2L).build();
+        when(commentRepository.findById(id)).thenReturn(Optional.of(comment));
+        when(commentMapper.merge(comment, commentRequest)).thenReturn(updatedComment);
+        when(commentRepository.save(updatedComment)).thenReturn(updatedComment);
+        when(commentMapper.toViewModel(updatedComment)).thenReturn(commentResponse);
+
+        // when
+        CommentResponse result = commentService.update(id, commentRequest);
+
+        // then
+        assertThat(result).isEqualTo(commentResponse);
+        verify(counterRepository).increment(1L, -1, 0);
+        verify(counterRepository).increment(2L, 1, 0);
+        verify(eventPublisher).publishEvent(new NewsCommentsChangedEvent(1L));
+        verify(eventPublisher).publishEvent(new NewsCommentsChangedEvent(2L));
     }
 
     @Test
@@ -373,15 +457,85 @@ class CommentServiceImplTest {
     }
 
     @Test
-    void testArchiveByNewsIdShouldCallMethodCommentRepositoryArchiveByNewsId() {
+    void testArchiveByNewsIdShouldRunArchiverAndReturnItsProgress() {
+        // given
+        Long id = 1L;
+        ArchiveProgress progress = ArchiveProgress.started(id).withArchived(3).finished(ArchiveProgress.Status.COMPLETED);
+        when(commentArchiver.archive(id)).thenReturn(progress);
+
+        // when
+        ArchiveProgress actual = commentService.archiveByNewsId(id);
+
+        // then
+        assertThat(actual).isEqualTo(progress);
+        verifyNoInteractions(commentRepository, counterRepository);
+    }
+
+    @Test
+    void testArchiveByNewsIdAsyncShouldStartArchiverInBackground() {
         // given
         Long id = 1L;
+        ArchiveProgress progress = ArchiveProgress.started(id);
+        when(commentArchiver.archiveAsync(id)).thenReturn(progress);
 
         // when
-        commentService.archiveByNewsId(id);
+        ArchiveProgress actual = commentService.archiveByNewsIdAsync(id);
 
         // then
-        verify(commentRepository).archiveByNewsId(id);
+        assertThat(actual).isEqualTo(progress);
+    }
+
+    @Test
+    void testImportCommentsShouldDelegateToImporter() {
+        // given
+        InputStream dump = new ByteArrayInputStream(new byte[0]);
+        ImportResult result = new ImportResult(2, 51L, 101L);
+        when(commentImporter.importComments(dump, ImportFormat.CSV)).thenReturn(result);
+
+        // when
+        ImportResult actual = commentService.importComments(dump, ImportFormat.CSV);
+
+        // then
+        assertThat(actual).isEqualTo(result);
+        verifyNoInteractions(commentRepository, counterRepository);
+    }
+
+    @Test
+    void testReplayIndexEventsShouldDelegateToPoller() {
+        // given
+        IndexPosition position = new IndexPosition(740L, 41L);
+        when(indexOutboxPoller.replayFrom(42L)).thenReturn(position);
+
+        // when
+        IndexPosition actual = commentService.replayIndexEvents(42L);
+
+        // then
+        assertThat(actual).isEqualTo(position);
+    }
+
+    @Test
+    void testSearchShouldReturnPageFromSearchResultCache() {
+        // given
+        List<CommentResponse> expected = List.of(CommentResponseTestBuilder.aCommentResponse().build());
+        when(searchResultCache.get(any(), any(), any(Integer.class), any(Integer.class), any())).thenReturn(expected);
+
+        // when
+        List<CommentResponse> actual = commentService.search("text", 1L, 0, 10);
+
+        // then
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @Test
+    void testGetArchiveProgressShouldThrowEntityNotFoundExceptionWhenNoJobWasStarted() {
+        // given
+        Long id = 1L;
+        when(commentArchiver.getProgress(id)).thenReturn(Optional.empty());
+
+        // when, then
+        assertThatThrownBy(() -> commentService.getArchiveProgress(id))
+                .isInstanceOf(EntityNotFoundException.class)
+                .hasMessage("ArchiveProgress with 1 not found");
     }
 
     @Test
@@ -413,6 +567,23 @@ class CommentServiceImplTest {
         verify(commentRepository).save(commentTestCaptor.capture());
         Comment actual = commentTestCaptor.getValue();
         assertThat(actual).isEqualTo(expected);
+        verify(counterRepository).increment(1L, -1, 1);
+        verify(eventPublisher).publishEvent(new NewsCommentsChangedEvent(1L));
+    }
+
+    @Test
+    void testArchiveShouldNotChangeCountersWhenCommentIsAlreadyArchived() {
+        // given
+        Long id = 1L;
+        Comment comment = CommentTestBuilder.aComment().withArchived(true).build();
+        when(commentRepository.findById(id)).thenReturn(Optional.of(comment));
+
+        // when
+        commentService.archive(id);
+
+        // then
+        verifyNoInteractions(counterRepository);
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
@@ -421,22 +592,38 @@ class CommentServiceImplTest {
         Long idNews = 1L;
         int pageSize = 10;
         int numberPage = 1;
-        PageRequest pageRequest = PageRequest.of(numberPage - 1, pageSize);
-        List<Comment> comments = List.of(CommentTestBuilder.aComment().withArchived(true).build(),
-                CommentTestBuilder.aComment().withArchived(true).withId(2L).build());
+        PageRequest pageRequest = PageRequest.of(numberPage - 1, pageSize, Sort.by("time", "id"));
         List<CommentResponse> commentResponses = List.of(CommentResponseTestBuilder.aCommentResponse().build(),
-                CommentResponseTestBuilder.aCommentResponse().build());
-        Page<Comment> commentPage = new PageImpl<>(comments);
-        when(commentRepository.findAllByIsArchivedIsFalseAndNewsId(idNews, pageRequest)).thenReturn(commentPage);
-        when(commentMapper.toViewModelList(comments)).thenReturn(commentResponses);
+                CommentResponseTestBuilder.aCommentResponse().withId(2L).build());
+        when(commentRepository.findActiveResponsesByNewsId(idNews, pageRequest)).thenReturn(new SliceImpl<>(commentResponses));
 
         // when
         PaginationResponse<CommentResponse> actualResponse = commentService.getCommentsByIdNews(idNews, pageSize, numberPage);
 
         // then
         assertThat(actualResponse.getContent()).isEqualTo(commentResponses);
-        verify(commentRepository).findAllByIsArchivedIsFalseAndNewsId(idNews, pageRequest);
-        verify(commentMapper).toViewModelList(comments);
+        verify(commentRepository).findActiveResponsesByNewsId(idNews, pageRequest);
+        verifyNoInteractions(commentMapper);
+    }
+
+    @Test
+    void testExportCommentsByIdNewsShouldPassEveryStreamedCommentToConsumer() {
+        // given
+        Long idNews = 1L;
+        Comment first = CommentTestBuilder.aComment().build();
+        Comment second = CommentTestBuilder.aComment().withId(2L).build();
+        CommentResponse firstResponse = CommentResponseTestBuilder.aCommentResponse().build();
+        CommentResponse secondResponse = CommentResponseTestBuilder.aCommentResponse().withId(2L).build();
+        when(commentRepository.streamActiveByNewsId(idNews)).thenReturn(Stream.of(first, second));
+        when(commentMapper.toViewModel(first)).thenReturn(firstResponse);
+        when(commentMapper.toViewModel(second)).thenReturn(secondResponse);
+        List<CommentResponse> actual = new ArrayList<>();
+
+        // when
+        commentService.exportCommentsByIdNews(idNews, actual::add);
+
+        // then
+        assertThat(actual).containsExactly(firstResponse, secondResponse);
     }
 
     @Test
@@ -445,18 +632,18 @@ class CommentServiceImplTest {
         Long idNews = 1L;
         int pageSize = 10;
         int numberPage = 1;
-        PageRequest pageRequest = PageRequest.of(numberPage - 1, pageSize);
-        Page<Comment> commentPage = Page.empty(pageRequest);
+        PageRequest pageRequest = PageRequest.of(numberPage - 1, pageSize, Sort.by("time", "id"));
+        Page<CommentResponse> commentPage = Page.empty(pageRequest);
 
         // when
-        when(commentRepository.findAllByIsArchivedIsFalseAndNewsId(idNews, pageRequest)).thenReturn(commentPage);
+        when(commentRepository.findActiveResponsesByNewsId(idNews, pageRequest)).thenReturn(commentPage);
         PaginationResponse<CommentResponse> actualResponse = commentService.getCommentsByIdNews(idNews, pageSize, numberPage);
 
         // then
         assertThat(actualResponse.getContent()).isEqualTo(new ArrayList<>());
         assertThat(actualResponse.getCountPage()).isZero();
         assertThat(actualResponse.getPageNumber()).isEqualTo(1);
-        verify(commentRepository).findAllByIsArchivedIsFalseAndNewsId(idNews, pageRequest);
+        verify(commentRepository).findActiveResponsesByNewsId(idNews, pageRequest);
     }
 
     @Test
@@ -465,22 +652,18 @@ class CommentServiceImplTest {
         Long idNews = 1L;
         int pageSize = 10;
         int numberPage = 1;
-        PageRequest pageRequest = PageRequest.of(numberPage - 1, pageSize);
-        List<Comment> comments = List.of(CommentTestBuilder.aComment().withArchived(true).build(),
-                CommentTestBuilder.aComment().withArchived(true).withId(2L).build());
+        PageRequest pageRequest = PageRequest.of(numberPage - 1, pageSize, Sort.by("time", "id"));
         List<CommentResponse> commentResponses = List.of(CommentResponseTestBuilder.aCommentResponse().build(),
-                CommentResponseTestBuilder.aCommentResponse().build());
-        Page<Comment> commentPage = new PageImpl<>(comments);
-        when(commentRepository.findAllByIsArchivedIsTrueAndNewsId(idNews, pageRequest)).thenReturn(commentPage);
-        when(commentMapper.toViewModelList(comments)).thenReturn(commentResponses);
+                CommentResponseTestBuilder.aCommentResponse().withId(2L).build());
+        when(commentRepository.findArchivedResponsesByNewsId(idNews, pageRequest)).thenReturn(new SliceImpl<>(commentResponses));
 
         // when
         PaginationResponse<CommentResponse> actualResponse = commentService.getCommentsByIdNewsFromArchive(idNews, pageSize, numberPage);
 
         // then
         assertThat(actualResponse.getContent()).isEqualTo(commentResponses);
-        verify(commentRepository).findAllByIsArchivedIsTrueAndNewsId(idNews, pageRequest);
-        verify(commentMapper).toViewModelList(comments);
+        verify(commentRepository).findArchivedResponsesByNewsId(idNews, pageRequest);
+        verifyNoInteractions(commentMapper);
     }
 
     @Test
@@ -489,17 +672,118 @@ class CommentServiceImplTest {
         Long idNews = 1L;
         int pageSize = 10;
         int numberPage = 1;
-        PageRequest pageRequest = PageRequest.of(numberPage - 1, pageSize);
-        Page<Comment> commentPage = Page.empty(pageRequest);
+        PageRequest pageRequest = PageRequest.of(numberPage - 1, pageSize, Sort.by("time", "id"));
+        Page<CommentResponse> commentPage = Page.empty(pageRequest);
 
         // when
-        when(commentRepository.findAllByIsArchivedIsTrueAndNewsId(idNews, pageRequest)).thenReturn(commentPage);
+        when(commentRepository.findArchivedResponsesByNewsId(idNews, pageRequest)).thenReturn(commentPage);
         PaginationResponse<CommentResponse> actualResponse = commentService.getCommentsByIdNewsFromArchive(idNews, pageSize, numberPage);
 
         // then
         assertThat(actualResponse.getContent()).isEqualTo(new ArrayList<>());
         assertThat(actualResponse.getCountPage()).isZero();
         assertThat(actualResponse.getPageNumber()).isEqualTo(1);
-        verify(commentRepository).findAllByIsArchivedIsTrueAndNewsId(idNews, pageRequest);
+        verify(commentRepository).findArchivedResponsesByNewsId(idNews, pageRequest);
+    }
+
+    @Test
+    void testGetCommentsByIdNewsByCursorShouldReturnFirstPageWithNextCursorWhenMoreCommentsExist() {
+        // given
+        Long idNews = 1L;
+        int limit = 1;
+        LocalDateTime time = LocalDateTime.parse("2024-01-16T14:18:08.537");
+        CommentResponse first = CommentResponseTestBuilder.aCommentResponse().withTime(time).build();
+        CommentResponse second = CommentResponseTestBuilder.aCommentResponse().withId(2L).withTime(time).build();
+        when(commentRepository.findFirstActiveResponsesByNewsId(idNews, PageRequest.ofSize(limit + 1)))
+                .thenReturn(List.of(first, second));
+
+        // when
+        CursorPaginationResponse<CommentResponse> actual = commentService.getCommentsByIdNewsByCursor(idNews, null, limit);
+
+        // then
+        assertThat(actual.getContent()).containsExactly(first);
+        assertThat(CommentCursor.decode(actual.getNextCursor())).isEqualTo(new CommentCursor(time, 1L));
+    }
+
+    @Test
+    void testGetCommentsByIdNewsByCursorShouldSeekAfterCursorAndReturnLastPageWithoutNextCursor() {
+        // given
+        Long idNews = 1L;
+        int limit = 5;
+        LocalDateTime time = LocalDateTime.parse("2024-01-16T14:18:08.537");
+        String after = new CommentCursor(time, 1L).encode();
+        List<CommentResponse> commentResponses = List.of(CommentResponseTestBuilder.aCommentResponse().withId(2L).withTime(time).build());
+        when(commentRepository.findActiveResponsesByNewsIdAfter(idNews, time, 1L, PageRequest.ofSize(limit + 1)))
+                .thenReturn(commentResponses);
+
+        // when
+        CursorPaginationResponse<CommentResponse> actual = commentService.getCommentsByIdNewsByCursor(idNews, after, limit);
+
+        // then
+        assertThat(actual.getContent()).isEqualTo(commentResponses);
+        assertThat(actual.getNextCursor()).isNull();
+    }
+
+    @Test
+    void testGetAllByCursorShouldThrowIllegalArgumentExceptionWhenCursorIsMalformed() {
+        // when, then
+        assertThatThrownBy(() -> commentService.getAllByCursor("malformed", 5))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(commentRepository);
+    }
+
+    @Test
+    void testGetCommentsByIdNewsShouldCountPagesFromNewsCounter() {
+        // given
+        Long idNews = 1L;
+        int pageSize = 2;
+        int numberPage = 1;
+        PageRequest pageRequest = PageRequest.of(numberPage - 1, pageSize, Sort.by("time", "id"));
+        List<CommentResponse> commentResponses = List.of(CommentResponseTestBuilder.aCommentResponse().build(),
+                CommentResponseTestBuilder.aCommentResponse().withId(2L).build());
+        NewsCommentCounter counter = NewsCommentCounter.builder().newsId(idNews).activeCount(5).archivedCount(1).build();
+        when(commentRepository.findActiveResponsesByNewsId(idNews, pageRequest))
+                .thenReturn(new SliceImpl<>(commentResponses, pageRequest, true));
+        when(counterRepository.findById(idNews)).thenReturn(Optional.of(counter));
+
+        // when
+        PaginationResponse<CommentResponse> actualResponse = commentService.getCommentsByIdNews(idNews, pageSize, numberPage);
+
+        // then
+        assertThat(actualResponse.getCountPage()).isEqualTo(3);
+    }
+
+    @Test
+    void testGetAllSliceShouldReturnSliceResponseWithHasNext() {
+        // given
+        int pageSize = 1;
+        int numberPage = 1;
+        PageRequest pageRequest = PageRequest.of(numberPage - 1, pageSize, Sort.by("time", "id"));
+        List<CommentResponse> commentResponses = List.of(CommentResponseTestBuilder.aCommentResponse().build());
+        when(commentRepository.findActiveResponseSlice(pageRequest))
+                .thenReturn(new SliceImpl<>(commentResponses, pageRequest, true));
+
+        // when
+        SliceResponse<CommentResponse> actual = commentService.getAllSlice(pageSize, numberPage);
+
+        // then
+        assertThat(actual).isEqualTo(new SliceResponse<>(numberPage, true, commentResponses));
+    }
+
+    @Test
+    void testGetAllFromArchiveSliceShouldReturnLastSliceWithoutNext() {
+        // given
+        int pageSize = 5;
+        int numberPage = 1;
+        PageRequest pageRequest = PageRequest.of(numberPage - 1, pageSize, Sort.by("time", "id"));
+        List<CommentResponse> commentResponses = List.of(CommentResponseTestBuilder.aCommentResponse().build());
+        when(commentRepository.findArchivedResponseSlice(pageRequest))
+                .thenReturn(new SliceImpl<>(commentResponses, pageRequest, false));
+
+        // when
+        SliceResponse<CommentResponse> actual = commentService.getAllFromArchiveSlice(pageSize, numberPage);
+
+        // then
+        assertThat(actual).isEqualTo(new SliceResponse<>(numberPage, false, commentResponses));
     }
-}
\ No newline at end of file
+}
@@ -5,6 +5,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import ru.clevertec.comment.cache.UserCache;
 import ru.clevertec.comment.entity.User;
 import ru.clevertec.comment.entity.dto.UserRequest;
 import ru.clevertec.comment.mapper.UserMapper;
@@ -12,12 +13,18 @@ import ru.clevertec.comment.repository.UserRepository;
 import ru.clevertec.comment.util.UserRequestBuilder;
 import ru.clevertec.comment.util.UserTestBuilder;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -29,6 +36,9 @@ class UserServiceImplTest {
     @Mock
     private UserMapper userMapper;
 
+    @Mock
+    private UserCache userCache;
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -64,6 +74,78 @@ class UserServiceImplTest {
         assertEquals(expectedUser, result);
     }
 
+    @Test
+    void shouldReturnCachedUserWithoutQueryingRepository() {
+        // given
+        UserRequest userRequest = UserRequestBuilder.aUserRequest().build();
+        User user = UserTestBuilder.aUser().build();
+        when(userCache.get(userRequest.uuid())).thenReturn(Optional.of(user));
+
+        // when
+        User result = userService.getOrCreate(userRequest);
+
+        // then
+        assertThat(result).isEqualTo(user);
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void shouldLoadAndCacheExistingUserWithoutUpsertWhenCacheMisses() {
+        // given
+        UserRequest userRequest = UserRequestBuilder.aUserRequest().build();
+        User user = UserTestBuilder.aUser().build();
+        when(userCache.get(userRequest.uuid())).thenReturn(Optional.empty());
+        when(userRepository.findByUuid(userRequest.uuid())).thenReturn(Optional.of(user));
+
+        // when
+        User result = userService.getOrCreate(userRequest);
+
+        // then
+        assertThat(result).isEqualTo(user);
+        verify(userRepository, never()).upsert(any(), any());
+        verify(userCache).put(user);
+    }
+
+    @Test
+    void shouldUpsertAndCacheUserWhenCacheMisses() {
+        // given
+        UserRequest userRequest = UserRequestBuilder.aUserRequest().build();
+        User user = UserTestBuilder.aUser().build();
+        when(userCache.get(userRequest.uuid())).thenReturn(Optional.empty());
+        when(userRepository.findByUuid(userRequest.uuid())).thenReturn(Optional.empty());
+        when(userRepository.upsert(userRequest.uuid(), userRequest.userName())).thenReturn(user);
+
+        // when
+        User result = userService.getOrCreate(userRequest);
+
+        // then
+        assertThat(result).isEqualTo(user);
+        verify(userCache).put(user);
+    }
+
+    @Test
+    void shouldGetExistingAndCreateMissingUsersOnce() {
+        // given
+        User existingUser = UserTestBuilder.aUser().build();
+        UserRequest existingRequest = UserRequestBuilder.aUserRequest().build();
+        UUID newUuid = UUID.fromString("6f1c2f0e-3b1a-4c55-9d7e-2a8e5d1b7c40");
+        UserRequest newRequest = UserRequestBuilder.aUserRequest().withUuid(newUuid).withUserName("New user").build();
+        User newUser = UserTestBuilder.aUser().withId(null).withUuid(newUuid).withUserName("New user").build();
+        User savedUser = UserTestBuilder.aUser().withId(2L).withUuid(newUuid).withUserName("New user").build();
+        when(userRepository.findAllByUuidIn(Set.of(existingRequest.uuid(), newUuid))).thenReturn(List.of(existingUser));
+        when(userMapper.toEntity(newRequest)).thenReturn(newUser);
+        when(userRepository.saveAll(List.of(newUser))).thenReturn(List.of(savedUser));
+
+        // when
+        Map<UUID, User> result = userService.getOrCreateAll(List.of(existingRequest, newRequest, newRequest));
+
+        // then
+        assertThat(result).containsExactlyInAnyOrderEntriesOf(Map.of(
+                existingUser.getUuid(), existingUser,
+                newUuid, savedUser));
+        verify(userMapper).toEntity(newRequest);
+    }
+
     @Test
     void shouldReturnEmptyWhenUserNotFoundByUuid() {
         // given
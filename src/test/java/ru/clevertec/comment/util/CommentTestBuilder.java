@@ -18,9 +18,10 @@ public class CommentTestBuilder implements TestBuilder<Comment> {
     private String text = "Test text comment";
     private boolean isArchived = false;
     private User user = UserTestBuilder.aUser().build();
+    private Long newsId = 1L;
 
     @Override
     public Comment build() {
-        return new Comment(id, time, text, user, isArchived, 1L);
+        return new Comment(id, time, text, user, isArchived, newsId);
     }
 }